@@ -12,6 +12,9 @@ import java.util.Set;
 import de.tudresden.inf.lat.uel.type.api.Definition;
 import de.tudresden.inf.lat.uel.type.api.Goal;
 import de.tudresden.inf.lat.uel.type.api.UnificationAlgorithm;
+import de.tudresden.inf.lat.uel.type.impl.Budget;
+import de.tudresden.inf.lat.uel.type.impl.CancellationToken;
+import de.tudresden.inf.lat.uel.type.impl.UnificationStatus;
 import de.tudresden.inf.lat.uel.type.impl.Unifier;
 
 public class AspUnificationAlgorithm implements UnificationAlgorithm {
@@ -23,6 +26,9 @@ public class AspUnificationAlgorithm implements UnificationAlgorithm {
 	private Unifier currentUnifier;
 	private boolean isSynchronized;
 	private boolean minimize;
+	private volatile ClingoSolver solver;
+	private CancellationToken cancellationToken = new CancellationToken();
+	private final Runnable solverStopper = this::stopSolver;
 
 	public AspUnificationAlgorithm(Goal goal, boolean minimize) {
 		this.goal = goal;
@@ -44,9 +50,25 @@ public class AspUnificationAlgorithm implements UnificationAlgorithm {
 
 	@Override
 	public boolean computeNextUnifier() throws InterruptedException {
+		return computeNextUnifier(Budget.UNLIMITED) == UnificationStatus.FOUND;
+	}
+
+	/**
+	 * {@inheritDoc} The budget is passed on to clingo. If it is exceeded, the
+	 * solutions found so far are kept, and the next call runs clingo again.
+	 */
+	@Override
+	public UnificationStatus computeNextUnifier(Budget budget) throws InterruptedException {
+		if (budget == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		cancellationToken.check();
 		// TODO: implement asynchronous execution of ClingoSolver
 		if (!initialized) {
-			AspSolver solver = new ClingoSolver(goal.hasNegativePart(), false, minimize);
+			solver = new ClingoSolver(goal.hasNegativePart(), false, minimize);
+			// a cancellation after this check stops the new solver
+			cancellationToken.check();
 			try {
 				aspOutput = solver.solve(aspInput);
 			} catch (IOException e) {
@@ -56,11 +78,13 @@ public class AspUnificationAlgorithm implements UnificationAlgorithm {
 		}
 
 		isSynchronized = false;
+		solver.setBudget(budget);
 		boolean hasNext = aspOutput.hasNext();
-		if (Thread.interrupted()) {
-			throw new InterruptedException();
+		cancellationToken.check();
+		if (hasNext) {
+			return UnificationStatus.FOUND;
 		}
-		return hasNext;
+		return solver.isBudgetExceeded() ? UnificationStatus.BUDGET_EXCEEDED : UnificationStatus.EXHAUSTED;
 	}
 
 	@Override
@@ -89,6 +113,27 @@ public class AspUnificationAlgorithm implements UnificationAlgorithm {
 		return currentUnifier;
 	}
 
+	/**
+	 * {@inheritDoc} Cancelling the token destroys a running clingo process.
+	 */
+	@Override
+	public void setCancellationToken(CancellationToken token) {
+		if (token == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		cancellationToken.removeListener(solverStopper);
+		cancellationToken = token;
+		token.addListener(solverStopper);
+	}
+
+	private void stopSolver() {
+		ClingoSolver current = solver;
+		if (current != null) {
+			current.cleanup();
+		}
+	}
+
 	private Unifier toUnifier(Map<Integer, Set<Integer>> assignment) {
 		Set<Definition> definitions = new HashSet<>();
 		for (Integer varId : goal.getAtomManager().getVariables()) {
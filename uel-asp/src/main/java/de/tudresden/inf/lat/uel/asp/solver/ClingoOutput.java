@@ -149,7 +149,7 @@ public class ClingoOutput implements AspOutput {
 				// one additional assignment
 				do {
 					finished = solver.computeMoreSolutions();
-					if (Thread.currentThread().isInterrupted()) {
+					if (Thread.currentThread().isInterrupted() || solver.isStopped()) {
 						return false;
 					}
 					try {
@@ -157,7 +157,7 @@ public class ClingoOutput implements AspOutput {
 					} catch (IOException ex) {
 						throw new RuntimeException(ex);
 					}
-				} while ((currentIndex + 1 >= assignments.size()) && !finished);
+				} while ((currentIndex + 1 >= assignments.size()) && !finished && !solver.isBudgetExceeded());
 				// check if we now have at least one new assignment
 				return currentIndex + 1 < assignments.size();
 			}
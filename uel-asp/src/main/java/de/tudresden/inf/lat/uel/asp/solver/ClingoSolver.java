@@ -15,6 +15,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import de.tudresden.inf.lat.uel.type.impl.Budget;
+
 /**
  * @author Stefan Borgwardt
  * 
@@ -29,13 +31,19 @@ public class ClingoSolver implements AspSolver {
 	// TODO: multi-threading?
 	private static String COMMON_ARGUMENTS = "--project --outf=2"; // --enum-mode=domRec";
 	private static String HEURISTIC_ARGUMENTS = "--enum-mode=domRec --dom-mod=5,16 --heu=Domain";
+	private static String TIME_LIMIT_ARGUMENT = "--time-limit=";
+	private static String SOLVE_LIMIT_ARGUMENT = "--solve-limit=";
 
+	private Budget budget = Budget.UNLIMITED;
+	private boolean budgetExceeded = false;
 	private boolean hasNegativePart;
 	private boolean types;
 	private boolean minimize;
 	private int maxSolutions = 1;
 	private String program;
 	private File outputFile;
+	private volatile Process process;
+	private volatile boolean stopped = false;
 
 	public ClingoSolver(boolean hasNegativePart, boolean types, boolean minimize) {
 		this.hasNegativePart = hasNegativePart;
@@ -48,10 +56,17 @@ public class ClingoSolver implements AspSolver {
 		}
 	}
 
+	/**
+	 * Stops clingo if it is currently running. Afterwards, no more solutions
+	 * are computed. This method can be called from another thread.
+	 */
 	@Override
 	public void cleanup() {
-		// TODO: implement asynchronous execution of clingo and stop the solver
-		// here if it is currently running
+		stopped = true;
+		Process current = process;
+		if (current != null) {
+			current.destroy();
+		}
 	}
 
 	private List<String> getClingoArguments() {
@@ -60,6 +75,14 @@ public class ClingoSolver implements AspSolver {
 		arguments.add(Integer.toString(maxSolutions));
 		maxSolutions *= 2;
 		arguments.addAll(Arrays.asList(COMMON_ARGUMENTS.split(" ")));
+		if (budget.hasDeadline()) {
+			// clingo expects whole seconds
+			long seconds = Math.max(1, (budget.getRemainingMillis() + 999) / 1000);
+			arguments.add(TIME_LIMIT_ARGUMENT + Math.min(seconds, Integer.MAX_VALUE));
+		}
+		if (budget.hasConflictLimit()) {
+			arguments.add(SOLVE_LIMIT_ARGUMENT + budget.getMaxConflicts());
+		}
 		if (minimize) {
 			arguments.addAll(Arrays.asList(HEURISTIC_ARGUMENTS.split(" ")));
 		}
@@ -82,13 +105,69 @@ public class ClingoSolver implements AspSolver {
 		return new ClingoOutput(this, input.getAtomManager());
 	}
 
+	/**
+	 * Limits the resources used by the subsequent calls of clingo. The
+	 * deadline is passed on as a time limit, and the number of conflicts as a
+	 * solve limit.
+	 * 
+	 * @param budget
+	 *            the budget
+	 */
+	public void setBudget(Budget budget) {
+		if (budget == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		this.budget = budget;
+	}
+
+	/**
+	 * Tells whether the last call of clingo was stopped because the budget
+	 * was exceeded. In this case, the solutions found so far are available,
+	 * but the search space has not been exhausted.
+	 * 
+	 * @return <code>true</code> if and only if the budget was exceeded
+	 */
+	public boolean isBudgetExceeded() {
+		return budgetExceeded;
+	}
+
+	/**
+	 * Tells whether this solver was stopped by {@link #cleanup()}.
+	 * 
+	 * @return <code>true</code> if and only if no more solutions are computed
+	 */
+	public boolean isStopped() {
+		return stopped;
+	}
+
 	public boolean computeMoreSolutions() {
 		Process pClingo = null;
+		budgetExceeded = false;
+		if (stopped) {
+			return false;
+		}
+		if (budget.isExpired()) {
+			budgetExceeded = true;
+			return false;
+		}
 
 		try {
 			// call clingo
 			ProcessBuilder pbClingo = new ProcessBuilder(getClingoArguments());
 			pClingo = pbClingo.start();
+			process = pClingo;
+			if (stopped) {
+				// cleanup() was called before the process was known
+				pClingo.destroy();
+				return false;
+			}
+
+			// collect the error output concurrently, so that clingo cannot
+			// block on a full pipe
+			ByteArrayOutputStream error = new ByteArrayOutputStream();
+			AsyncPipe pipeErr = new AsyncPipe(pClingo.getErrorStream(), error);
+			pipeErr.start();
 
 			// pipe .lp files and input.getProgram() as input
 			OutputStream clingoInput = pClingo.getOutputStream();
@@ -107,13 +186,27 @@ public class ClingoSolver implements AspSolver {
 			if (pipeOut.exception != null) {
 				throw pipeOut.exception;
 			}
+			pipeErr.join();
 			output.close();
+			if (stopped) {
+				return false;
+			}
+
+			boolean limited = budget.hasDeadline() || budget.hasConflictLimit();
+			// the bits 32, 64, and 128 signal an error, which is not hidden
+			// behind the budget
+			boolean failed = (clingoReturnCode & ~31) != 0;
+			if (limited && !failed && ((clingoReturnCode & 1) == 1 || clingoReturnCode == 0)) {
+				// clingo was interrupted by the time limit (lsb=1) or stopped
+				// by the solve limit without a result (0)
+				pClingo.destroy();
+				budgetExceeded = true;
+				return false;
+			}
 
 			// successful if there was no exception (lsb=0) and either a model
 			// was found (10) or the search space was exhausted (20)
 			if (((clingoReturnCode & 1) == 1) || (((clingoReturnCode & 10) == 0) && ((clingoReturnCode & 20) == 0))) {
-				ByteArrayOutputStream error = new ByteArrayOutputStream();
-				syncPipe(pClingo.getErrorStream(), error);
 				throw new IOException("clingo error (return code " + clingoReturnCode + "):\n" + error.toString());
 			}
 			pClingo.destroy();
@@ -123,12 +216,18 @@ public class ClingoSolver implements AspSolver {
 			if (pClingo != null) {
 				pClingo.destroy();
 			}
+			if (stopped) {
+				// the pipes fail after the process has been destroyed
+				return false;
+			}
 			if (ex instanceof InterruptedException) {
 				Thread.currentThread().interrupt();
 				return true;
 			} else {
 				throw new RuntimeException(ex);
 			}
+		} finally {
+			process = null;
 		}
 	}
 
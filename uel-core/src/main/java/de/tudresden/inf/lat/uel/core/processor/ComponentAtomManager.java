@@ -0,0 +1,179 @@
+package de.tudresden.inf.lat.uel.core.processor;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import de.tudresden.inf.lat.uel.type.api.Atom;
+import de.tudresden.inf.lat.uel.type.api.AtomManager;
+import de.tudresden.inf.lat.uel.type.impl.ConceptName;
+import de.tudresden.inf.lat.uel.type.impl.ExistentialRestriction;
+
+/**
+ * This class is a read-only view of an atom manager that is restricted to the
+ * variables of one component of a goal. The view contains all constants, the
+ * given variables, and the existential restrictions whose child is a constant
+ * or one of the given variables. Atom identifiers are the same as in the
+ * underlying atom manager.
+ *
+ * @author Stefan Borgwardt
+ */
+class ComponentAtomManager implements AtomManager {
+
+	private final Set<Integer> definitionVariables = new HashSet<>();
+	private final Set<Integer> existentialRestrictions = new HashSet<>();
+	private final Set<Integer> flatteningVariables = new HashSet<>();
+	private final AtomManager manager;
+	private final Set<Integer> userVariables = new HashSet<>();
+	private final Set<Integer> variables;
+
+	/**
+	 * Constructs a new view of an atom manager.
+	 *
+	 * @param manager
+	 *            the underlying atom manager
+	 * @param variables
+	 *            the variables of the component
+	 */
+	public ComponentAtomManager(AtomManager manager, Set<Integer> variables) {
+		if (manager == null || variables == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		this.manager = manager;
+		this.variables = Collections.unmodifiableSet(new HashSet<>(variables));
+		for (Integer atomId : manager.getExistentialRestrictions()) {
+			Integer child = manager.getChild(atomId);
+			if (manager.getConstants().contains(child) || variables.contains(child)) {
+				existentialRestrictions.add(atomId);
+			}
+		}
+		restrict(manager.getDefinitionVariables(), definitionVariables);
+		restrict(manager.getFlatteningVariables(), flatteningVariables);
+		restrict(manager.getUserVariables(), userVariables);
+	}
+
+	@Override
+	public Integer createConceptName(String conceptName) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Integer createExistentialRestriction(String roleName, Integer child) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Integer createUndefConceptName(Integer originId) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Atom getAtom(Integer atomId) {
+		return manager.getAtom(atomId);
+	}
+
+	@Override
+	public Integer getChild(Integer atomId) {
+		return manager.getChild(atomId);
+	}
+
+	@Override
+	public ConceptName getConceptName(Integer atomId) {
+		return manager.getConceptName(atomId);
+	}
+
+	@Override
+	public Set<Integer> getConstants() {
+		return manager.getConstants();
+	}
+
+	@Override
+	public Set<Integer> getDefinitionVariables() {
+		return Collections.unmodifiableSet(definitionVariables);
+	}
+
+	@Override
+	public ExistentialRestriction getExistentialRestriction(Integer atomId) {
+		return manager.getExistentialRestriction(atomId);
+	}
+
+	@Override
+	public Set<Integer> getExistentialRestrictions() {
+		return Collections.unmodifiableSet(existentialRestrictions);
+	}
+
+	@Override
+	public Set<Integer> getFlatteningVariables() {
+		return Collections.unmodifiableSet(flatteningVariables);
+	}
+
+	@Override
+	public Integer getIndex(Atom atom) {
+		return manager.getIndex(atom);
+	}
+
+	@Override
+	public Set<Integer> getRoleIds() {
+		return manager.getRoleIds();
+	}
+
+	@Override
+	public String getRoleName(Integer roleId) {
+		return manager.getRoleName(roleId);
+	}
+
+	@Override
+	public Set<Integer> getUserVariables() {
+		return Collections.unmodifiableSet(userVariables);
+	}
+
+	@Override
+	public Set<Integer> getVariables() {
+		return variables;
+	}
+
+	@Override
+	public void makeConstant(Integer atomId) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void makeDefinitionVariable(Integer atomId) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void makeFlatteningVariable(Integer atomId) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void makeUserVariable(Integer atomId) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public String printConceptName(Integer atomId) {
+		return manager.printConceptName(atomId);
+	}
+
+	@Override
+	public String printRoleName(Integer atomId) {
+		return manager.printRoleName(atomId);
+	}
+
+	private void restrict(Set<Integer> atomIds, Set<Integer> result) {
+		for (Integer atomId : atomIds) {
+			if (variables.contains(atomId)) {
+				result.add(atomId);
+			}
+		}
+	}
+
+	@Override
+	public int size() {
+		return manager.size();
+	}
+
+}
@@ -0,0 +1,214 @@
+package de.tudresden.inf.lat.uel.core.processor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.tudresden.inf.lat.uel.type.api.AtomManager;
+import de.tudresden.inf.lat.uel.type.api.Axiom;
+import de.tudresden.inf.lat.uel.type.api.Definition;
+import de.tudresden.inf.lat.uel.type.api.Disequation;
+import de.tudresden.inf.lat.uel.type.api.Dissubsumption;
+import de.tudresden.inf.lat.uel.type.api.Equation;
+import de.tudresden.inf.lat.uel.type.api.Goal;
+import de.tudresden.inf.lat.uel.type.api.Subsumption;
+
+/**
+ * This class is a part of a goal that does not share any variables with the
+ * other parts. Two variables belong to the same component if they occur in
+ * the same axiom, either directly or as the child of an existential
+ * restriction. Each variable belongs to exactly one component; axioms without
+ * variables are collected in a separate component.
+ *
+ * @author Stefan Borgwardt
+ */
+class ComponentGoal implements Goal {
+
+	/**
+	 * Splits a goal into its components.
+	 *
+	 * @param goal
+	 *            the goal
+	 * @return the list of components, which is empty only if the goal neither
+	 *         contains axioms nor variables
+	 */
+	public static List<ComponentGoal> decompose(Goal goal) {
+		if (goal == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		AtomManager manager = goal.getAtomManager();
+		Map<Integer, Integer> parent = new HashMap<>();
+		for (Integer varId : manager.getVariables()) {
+			parent.put(varId, varId);
+		}
+
+		List<Axiom> axioms = new ArrayList<>();
+		axioms.addAll(goal.getDefinitions());
+		axioms.addAll(goal.getEquations());
+		axioms.addAll(goal.getSubsumptions());
+		axioms.addAll(goal.getDisequations());
+		axioms.addAll(goal.getDissubsumptions());
+		for (Axiom axiom : axioms) {
+			Integer first = null;
+			for (Integer varId : getVariables(axiom, manager)) {
+				if (first == null) {
+					first = varId;
+				} else {
+					union(parent, first, varId);
+				}
+			}
+		}
+
+		Map<Integer, ComponentGoal> components = new LinkedHashMap<>();
+		for (Integer varId : manager.getVariables()) {
+			Integer root = find(parent, varId);
+			ComponentGoal component = components.get(root);
+			if (component == null) {
+				component = new ComponentGoal();
+				components.put(root, component);
+			}
+			component.variables.add(varId);
+		}
+		ComponentGoal groundComponent = new ComponentGoal();
+		for (Axiom axiom : axioms) {
+			Set<Integer> variables = getVariables(axiom, manager);
+			if (variables.isEmpty()) {
+				groundComponent.add(axiom);
+			} else {
+				components.get(find(parent, variables.iterator().next())).add(axiom);
+			}
+		}
+
+		List<ComponentGoal> ret = new ArrayList<>();
+		for (ComponentGoal component : components.values()) {
+			component.atomManager = new ComponentAtomManager(manager, component.variables);
+			ret.add(component);
+		}
+		if (groundComponent.size() > 0) {
+			groundComponent.atomManager = new ComponentAtomManager(manager, groundComponent.variables);
+			ret.add(groundComponent);
+		}
+		return ret;
+	}
+
+	private static Integer find(Map<Integer, Integer> parent, Integer atomId) {
+		Integer root = atomId;
+		while (!parent.get(root).equals(root)) {
+			root = parent.get(root);
+		}
+		Integer current = atomId;
+		while (!current.equals(root)) {
+			Integer next = parent.get(current);
+			parent.put(current, root);
+			current = next;
+		}
+		return root;
+	}
+
+	private static Set<Integer> getVariables(Axiom axiom, AtomManager manager) {
+		Set<Integer> ret = new HashSet<>();
+		addVariables(axiom.getLeft(), manager, ret);
+		addVariables(axiom.getRight(), manager, ret);
+		return ret;
+	}
+
+	private static void addVariables(Set<Integer> atomIds, AtomManager manager, Set<Integer> result) {
+		for (Integer atomId : atomIds) {
+			Integer conceptNameId = manager.getExistentialRestrictions().contains(atomId) ? manager.getChild(atomId)
+					: atomId;
+			if (manager.getVariables().contains(conceptNameId)) {
+				result.add(conceptNameId);
+			}
+		}
+	}
+
+	private static void union(Map<Integer, Integer> parent, Integer atomId1, Integer atomId2) {
+		Integer root1 = find(parent, atomId1);
+		Integer root2 = find(parent, atomId2);
+		if (!root1.equals(root2)) {
+			parent.put(root2, root1);
+		}
+	}
+
+	private AtomManager atomManager;
+	private final Set<Definition> definitions = new HashSet<>();
+	private final Set<Disequation> disequations = new HashSet<>();
+	private final Set<Dissubsumption> dissubsumptions = new HashSet<>();
+	private final Set<Equation> equations = new HashSet<>();
+	private final Set<Subsumption> subsumptions = new HashSet<>();
+	private final Set<Integer> variables = new HashSet<>();
+
+	private ComponentGoal() {
+	}
+
+	private void add(Axiom axiom) {
+		if (axiom instanceof Definition) {
+			definitions.add((Definition) axiom);
+		} else if (axiom instanceof Equation) {
+			equations.add((Equation) axiom);
+		} else if (axiom instanceof Subsumption) {
+			subsumptions.add((Subsumption) axiom);
+		} else if (axiom instanceof Disequation) {
+			disequations.add((Disequation) axiom);
+		} else if (axiom instanceof Dissubsumption) {
+			dissubsumptions.add((Dissubsumption) axiom);
+		}
+	}
+
+	@Override
+	public AtomManager getAtomManager() {
+		return atomManager;
+	}
+
+	@Override
+	public Set<Definition> getDefinitions() {
+		return Collections.unmodifiableSet(definitions);
+	}
+
+	@Override
+	public Set<Disequation> getDisequations() {
+		return Collections.unmodifiableSet(disequations);
+	}
+
+	@Override
+	public Set<Dissubsumption> getDissubsumptions() {
+		return Collections.unmodifiableSet(dissubsumptions);
+	}
+
+	@Override
+	public Set<Equation> getEquations() {
+		return Collections.unmodifiableSet(equations);
+	}
+
+	@Override
+	public Set<Subsumption> getSubsumptions() {
+		return Collections.unmodifiableSet(subsumptions);
+	}
+
+	/**
+	 * Tells whether this component contains user variables.
+	 *
+	 * @return <code>true</code> if and only if the component contains user
+	 *         variables
+	 */
+	public boolean hasUserVariables() {
+		return !atomManager.getUserVariables().isEmpty();
+	}
+
+	@Override
+	public boolean hasNegativePart() {
+		return !disequations.isEmpty() || !dissubsumptions.isEmpty();
+	}
+
+	private int size() {
+		return definitions.size() + equations.size() + subsumptions.size() + disequations.size()
+				+ dissubsumptions.size();
+	}
+
+}
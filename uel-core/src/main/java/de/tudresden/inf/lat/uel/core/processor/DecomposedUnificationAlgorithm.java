@@ -0,0 +1,399 @@
+package de.tudresden.inf.lat.uel.core.processor;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import de.tudresden.inf.lat.uel.type.api.Definition;
+import de.tudresden.inf.lat.uel.type.api.Goal;
+import de.tudresden.inf.lat.uel.type.api.UnificationAlgorithm;
+import de.tudresden.inf.lat.uel.type.impl.Budget;
+import de.tudresden.inf.lat.uel.type.impl.CancellationToken;
+import de.tudresden.inf.lat.uel.type.impl.UnificationStatus;
+import de.tudresden.inf.lat.uel.type.impl.Unifier;
+
+/**
+ * This unification algorithm splits the goal into components that do not share
+ * any variables (see {@link ComponentGoal}), and solves each component with a
+ * separate instance of another unification algorithm. The first unifiers of
+ * all components are computed concurrently on daemon threads. Afterwards, the
+ * next unifier of only the component that is asked for next is computed in
+ * the background while the combinations of the previous ones are consumed, so
+ * that the computation never runs more than one unifier ahead of the calls of
+ * {@link #computeNextUnifier()}.
+ *
+ * The unifiers of the whole goal are the combinations of the unifiers of the
+ * components. They are enumerated lazily: whenever a new unifier of a
+ * component is found, it is combined with all unifiers found so far for the
+ * other components, so that every combination is returned exactly once.
+ * Unifiers of a component that agree on all user variables are returned only
+ * once, and for components without user variables only the first unifier is
+ * used.
+ *
+ * A variable of one component is never assigned an existential restriction
+ * whose child is a variable of another component. Hence, the underlying
+ * algorithm has to restrict itself to minimal assignments; otherwise, this
+ * algorithm would compute fewer unifiers than the underlying algorithm applied
+ * to the whole goal.
+ *
+ * @author Stefan Borgwardt
+ */
+public class DecomposedUnificationAlgorithm implements UnificationAlgorithm {
+
+	/**
+	 * A component of the goal together with the unifiers computed for it so
+	 * far.
+	 */
+	private class Component {
+
+		private final UnificationAlgorithm algorithm;
+		private boolean exhausted = false;
+		private final ComponentGoal goal;
+		private Future<Unifier> next;
+		private final Set<Set<Definition>> projections = new HashSet<>();
+		private final List<Unifier> unifiers = new ArrayList<>();
+
+		Component(ComponentGoal goal) {
+			this.goal = goal;
+			this.algorithm = factory.apply(goal);
+		}
+
+		private Unifier computeNewUnifier() throws InterruptedException {
+			while (algorithm.computeNextUnifier()) {
+				Unifier unifier = algorithm.getUnifier();
+				if (projections.add(projectToUserVariables(unifier))) {
+					return unifier;
+				}
+			}
+			return null;
+		}
+
+		void prefetch() {
+			if (!exhausted && next == null) {
+				next = executor.submit(this::computeNewUnifier);
+			}
+		}
+
+		private Set<Definition> projectToUserVariables(Unifier unifier) {
+			Set<Definition> ret = new HashSet<>();
+			for (Definition definition : unifier.getDefinitions()) {
+				if (goal.getAtomManager().getUserVariables().contains(definition.getDefiniendum())) {
+					ret.add(definition);
+				}
+			}
+			return ret;
+		}
+
+		/**
+		 * Waits for the next unifier of this component.
+		 * 
+		 * @param budget
+		 *            the budget, of which only the deadline is used
+		 * @return <code>true</code> if a new unifier was added
+		 * @throws InterruptedException
+		 *             if the process is interrupted
+		 * @throws TimeoutException
+		 *             if the deadline passed before the next unifier was
+		 *             found; the computation continues in the background
+		 */
+		boolean take(Budget budget) throws InterruptedException, TimeoutException {
+			prefetch();
+			if (exhausted) {
+				return false;
+			}
+
+			Unifier unifier;
+			try {
+				if (budget.hasDeadline()) {
+					unifier = next.get(budget.getRemainingMillis(), TimeUnit.MILLISECONDS);
+				} else {
+					unifier = next.get();
+				}
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof InterruptedException) {
+					// the computation of the component was cancelled
+					throw (InterruptedException) e.getCause();
+				}
+				throw new RuntimeException(e.getCause());
+			}
+			next = null;
+			if (unifier == null) {
+				exhausted = true;
+				return false;
+			}
+
+			unifiers.add(unifier);
+			if (!goal.hasUserVariables()) {
+				exhausted = true;
+			}
+			return true;
+		}
+
+	}
+
+	private static final String algorithmName = "Decomposition into independent components";
+	private static final String keyLargestComponent = "Number of variables in largest component";
+	private static final String keyName = "Name";
+	private static final String keyNumberOfComponents = "Number of components";
+	private static final String keyNumberOfVariables = "Number of variables";
+
+	private CancellationToken cancellationToken = new CancellationToken();
+	private final CancellationToken componentToken = new CancellationToken();
+	private final Runnable componentTokenListener = componentToken::cancel;
+	private final List<Component> components = new ArrayList<>();
+	private ExecutorService executor;
+	private final Function<Goal, UnificationAlgorithm> factory;
+	private boolean finished = false;
+	private boolean firstTime = true;
+	private final Goal goal;
+	private int[] indices;
+	private int[] limits;
+	private int pivot = -1;
+	private boolean pending = false;
+	private Unifier result;
+
+	/**
+	 * Constructs a new decomposing unification algorithm.
+	 *
+	 * @param goal
+	 *            the unification problem
+	 * @param factory
+	 *            creates the algorithm used for each component
+	 */
+	public DecomposedUnificationAlgorithm(Goal goal, Function<Goal, UnificationAlgorithm> factory) {
+		if (goal == null || factory == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		this.goal = goal;
+		this.factory = factory;
+		for (ComponentGoal componentGoal : ComponentGoal.decompose(goal)) {
+			Component component = new Component(componentGoal);
+			component.algorithm.setCancellationToken(componentToken);
+			components.add(component);
+		}
+		this.indices = new int[components.size()];
+		this.limits = new int[components.size()];
+	}
+
+	private boolean addEntry(List<Entry<String, String>> list, String key, String value) {
+		return list.add(new SimpleEntry<String, String>(key, value));
+	}
+
+	/**
+	 * {@inheritDoc} The computations of the components that are still running
+	 * in the background are cancelled, and the algorithms of the components
+	 * are cleaned up only after all of them have stopped.
+	 */
+	@Override
+	public void cleanup() {
+		componentToken.cancel();
+		cancellationToken.removeListener(componentTokenListener);
+		if (executor != null) {
+			executor.shutdownNow();
+			try {
+				executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		for (Component component : components) {
+			component.algorithm.cleanup();
+		}
+	}
+
+	@Override
+	public boolean computeNextUnifier() throws InterruptedException {
+		return computeNextUnifier(Budget.UNLIMITED) == UnificationStatus.FOUND;
+	}
+
+	/**
+	 * {@inheritDoc} Only the deadline of the budget is used. The components
+	 * are solved in the background, and if the deadline passes while waiting
+	 * for a component, its computation continues and is picked up by the next
+	 * call.
+	 */
+	@Override
+	public UnificationStatus computeNextUnifier(Budget budget) throws InterruptedException {
+		if (budget == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		cancellationToken.check();
+		if (finished) {
+			return UnificationStatus.EXHAUSTED;
+		}
+		if (budget.isExpired()) {
+			return UnificationStatus.BUDGET_EXCEEDED;
+		}
+
+		try {
+			if (firstTime) {
+				if (executor == null) {
+					// daemon threads do not keep the virtual machine alive if
+					// this algorithm is not cleaned up
+					executor = Executors.newFixedThreadPool(
+							Math.max(1, Math.min(components.size(), Runtime.getRuntime().availableProcessors())),
+							runnable -> {
+								Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+								thread.setDaemon(true);
+								return thread;
+							});
+					for (Component component : components) {
+						component.prefetch();
+					}
+				}
+				for (Component component : components) {
+					if (component.unifiers.isEmpty() && !component.take(budget)) {
+						return finish();
+					}
+				}
+				firstTime = false;
+				// the combination of all first unifiers
+				pending = true;
+				prefetchAfter(pivot);
+			}
+
+			while (!pending) {
+				if (!selectNextPivot(budget)) {
+					return finish();
+				}
+			}
+		} catch (TimeoutException e) {
+			return UnificationStatus.BUDGET_EXCEEDED;
+		}
+
+		result = combine();
+		advance();
+		return UnificationStatus.FOUND;
+	}
+
+	private void advance() {
+		for (int i = 0; i < indices.length; i++) {
+			if (i != pivot) {
+				indices[i]++;
+				if (indices[i] < limits[i]) {
+					return;
+				}
+				indices[i] = 0;
+			}
+		}
+		pending = false;
+	}
+
+	private Unifier combine() {
+		Set<Definition> definitions = new HashSet<>();
+		for (int i = 0; i < indices.length; i++) {
+			definitions.addAll(components.get(i).unifiers.get(indices[i]).getDefinitions());
+		}
+		return new Unifier(definitions);
+	}
+
+	private UnificationStatus finish() {
+		finished = true;
+		cleanup();
+		return UnificationStatus.EXHAUSTED;
+	}
+
+	@Override
+	public Goal getGoal() {
+		return goal;
+	}
+
+	@Override
+	public List<Entry<String, String>> getInfo() {
+		List<Entry<String, String>> ret = new ArrayList<>();
+		addEntry(ret, keyName, algorithmName);
+		addEntry(ret, keyNumberOfComponents, "" + components.size());
+		int largest = 0;
+		for (Component component : components) {
+			largest = Math.max(largest, component.goal.getAtomManager().getVariables().size());
+		}
+		addEntry(ret, keyLargestComponent, "" + largest);
+		addEntry(ret, keyNumberOfVariables, "" + goal.getAtomManager().getVariables().size());
+		return Collections.unmodifiableList(ret);
+	}
+
+	@Override
+	public Unifier getUnifier() {
+		return result;
+	}
+
+	/**
+	 * Starts the computation of the next unifier of the first component after
+	 * the given one (in round-robin order) that may still have more unifiers,
+	 * which is the one that {@link #selectNextPivot(Budget)} asks next.
+	 *
+	 * @param index
+	 *            the index of the current pivot component, or -1 if there is
+	 *            none
+	 */
+	private void prefetchAfter(int index) {
+		for (int step = 1; step <= components.size(); step++) {
+			Component component = components.get((index + step) % components.size());
+			if (!component.exhausted) {
+				component.prefetch();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc} The algorithms of the components use a separate token,
+	 * which is cancelled together with the given one, so that their
+	 * computations in the background are stopped as well.
+	 */
+	@Override
+	public void setCancellationToken(CancellationToken token) {
+		if (token == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		cancellationToken.removeListener(componentTokenListener);
+		cancellationToken = token;
+		token.addListener(componentTokenListener);
+	}
+
+	/**
+	 * Obtains a new unifier for the next component (in round-robin order) that
+	 * may still have more unifiers, and prepares the combinations of this
+	 * unifier with the unifiers found so far for the other components.
+	 *
+	 * @param budget
+	 *            the budget
+	 * @return <code>false</code> if all components are exhausted
+	 * @throws InterruptedException
+	 *             if the process is interrupted
+	 * @throws TimeoutException
+	 *             if the deadline passed before a new unifier was found
+	 */
+	private boolean selectNextPivot(Budget budget) throws InterruptedException, TimeoutException {
+		for (int step = 1; step <= components.size(); step++) {
+			int candidate = (pivot + step) % components.size();
+			Component component = components.get(candidate);
+			if (component.take(budget)) {
+				pivot = candidate;
+				for (int i = 0; i < indices.length; i++) {
+					limits[i] = components.get(i).unifiers.size();
+					indices[i] = 0;
+				}
+				indices[pivot] = limits[pivot] - 1;
+				pending = true;
+				prefetchAfter(pivot);
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
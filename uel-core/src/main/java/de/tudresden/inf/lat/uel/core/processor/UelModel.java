@@ -25,6 +25,8 @@ import de.tudresden.inf.lat.uel.type.api.Definition;
 import de.tudresden.inf.lat.uel.type.api.Goal;
 import de.tudresden.inf.lat.uel.type.api.UnificationAlgorithm;
 import de.tudresden.inf.lat.uel.type.impl.AtomManagerImpl;
+import de.tudresden.inf.lat.uel.type.impl.Budget;
+import de.tudresden.inf.lat.uel.type.impl.UnificationStatus;
 import de.tudresden.inf.lat.uel.type.impl.Unifier;
 
 /**
@@ -115,6 +117,37 @@ public class UelModel {
 		return false;
 	}
 
+	/**
+	 * Uses the unification algorithm to obtain the next unifier within the
+	 * given budget, see {@link #computeNextUnifier()}. If the budget is
+	 * exceeded, the state of the unification algorithm is kept, and the
+	 * computation can be continued by calling this method again.
+	 * 
+	 * @param budget
+	 *            the limits of the computation
+	 * @return the status of the computation
+	 * @throws InterruptedException
+	 *             if the computation in this thread was interrupted from
+	 *             outside
+	 */
+	public UnificationStatus computeNextUnifier(Budget budget) throws InterruptedException {
+		if (!allUnifiersFound) {
+			UnificationStatus status;
+			while ((status = algorithm.computeNextUnifier(budget)) == UnificationStatus.FOUND) {
+				Unifier result = algorithm.getUnifier();
+				if (isNew(result)) {
+					unifierList.add(result);
+					return UnificationStatus.FOUND;
+				}
+			}
+			if (status == UnificationStatus.BUDGET_EXCEEDED) {
+				return status;
+			}
+		}
+		allUnifiersFound = true;
+		return UnificationStatus.EXHAUSTED;
+	}
+
 	/**
 	 * Creates a new anonymous ontology.
 	 * 
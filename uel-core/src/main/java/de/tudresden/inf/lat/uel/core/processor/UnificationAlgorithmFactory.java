@@ -1,11 +1,15 @@
 package de.tudresden.inf.lat.uel.core.processor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import de.tudresden.inf.lat.uel.asp.solver.AspUnificationAlgorithm;
 import de.tudresden.inf.lat.uel.rule.RuleBasedUnificationAlgorithm;
+import de.tudresden.inf.lat.uel.sat.solver.PortfolioSolver;
 import de.tudresden.inf.lat.uel.sat.solver.SatUnificationAlgorithm;
 import de.tudresden.inf.lat.uel.type.api.Goal;
 import de.tudresden.inf.lat.uel.type.api.UnificationAlgorithm;
@@ -18,13 +22,30 @@ import de.tudresden.inf.lat.uel.type.api.UnificationAlgorithm;
 public class UnificationAlgorithmFactory {
 
 	public static final String RULE_BASED_ALGORITHM = "Rule-based algorithm";
+	public static final String RULE_BASED_ALGORITHM_PARALLEL = "Rule-based algorithm (parallel)";
 	public static final String SAT_BASED_ALGORITHM = "SAT-based algorithm";
 	public static final String SAT_BASED_ALGORITHM_MINIMAL = "SAT-based algorithm (minimal assignments)";
+	public static final String SAT_BASED_ALGORITHM_MINIMAL_CORE_GUIDED = "SAT-based algorithm (minimal assignments, core-guided)";
+	public static final String SAT_BASED_ALGORITHM_MINIMAL_SHRINKING = "SAT-based algorithm (minimal assignments, model shrinking)";
+	public static final String SAT_BASED_ALGORITHM_LAZY = "SAT-based algorithm (lazy transitivity)";
+	public static final String SAT_BASED_ALGORITHM_LAZY_DISUNIFICATION = "SAT-based algorithm (lazy disunification)";
+	public static final String SAT_BASED_ALGORITHM_PARALLEL = "SAT-based algorithm (parallel encoding)";
+	public static final String SAT_BASED_ALGORITHM_PORTFOLIO = "SAT-based algorithm (solver portfolio)";
 	public static final String ASP_BASED_ALGORITHM = "ASP-based algorithm";
 	public static final String ASP_BASED_ALGORITHM_MINIMAL = "ASP-based algorithm (minimal assignments)";
+	public static final String DECOMPOSED_SUFFIX = " (decomposed)";
+
+	private static final Set<String> minimalAlgorithmNames = new HashSet<>(Arrays.asList(RULE_BASED_ALGORITHM,
+			RULE_BASED_ALGORITHM_PARALLEL, SAT_BASED_ALGORITHM_MINIMAL, SAT_BASED_ALGORITHM_MINIMAL_CORE_GUIDED,
+			SAT_BASED_ALGORITHM_MINIMAL_SHRINKING, ASP_BASED_ALGORITHM_MINIMAL));
 
 	/**
-	 * Creates an algorithm with a given UEL input.
+	 * Creates an algorithm with a given UEL input. If the name of the
+	 * algorithm ends with {@link #DECOMPOSED_SUFFIX}, the input is split into
+	 * independent components, which are solved by the algorithm named by the
+	 * rest of the name. Since the decomposition would lose unifiers that are
+	 * not minimal, this is only possible for algorithms that compute minimal
+	 * assignments.
 	 * 
 	 * @param name
 	 *            name of algorithm
@@ -34,12 +55,43 @@ public class UnificationAlgorithmFactory {
 	 */
 	public static UnificationAlgorithm instantiateAlgorithm(String name, Goal input) {
 		UnificationAlgorithm ret;
-		if (name.equals(RULE_BASED_ALGORITHM)) {
+		if (name.endsWith(DECOMPOSED_SUFFIX)) {
+			String componentAlgorithmName = name.substring(0, name.length() - DECOMPOSED_SUFFIX.length());
+			if (!minimalAlgorithmNames.contains(componentAlgorithmName)) {
+				throw new IllegalArgumentException("Algorithm cannot be decomposed : '" + componentAlgorithmName + "'.");
+			}
+			ret = new DecomposedUnificationAlgorithm(input,
+					goal -> instantiateAlgorithm(componentAlgorithmName, goal));
+		} else if (name.equals(RULE_BASED_ALGORITHM)) {
 			ret = new RuleBasedUnificationAlgorithm(input);
+		} else if (name.equals(RULE_BASED_ALGORITHM_PARALLEL)) {
+			ret = new RuleBasedUnificationAlgorithm(input, Runtime.getRuntime().availableProcessors());
 		} else if (name.equals(SAT_BASED_ALGORITHM)) {
 			ret = new SatUnificationAlgorithm(input, false);
 		} else if (name.equals(SAT_BASED_ALGORITHM_MINIMAL)) {
 			ret = new SatUnificationAlgorithm(input, true);
+		} else if (name.equals(SAT_BASED_ALGORITHM_MINIMAL_CORE_GUIDED)) {
+			SatUnificationAlgorithm algorithm = new SatUnificationAlgorithm(input, true);
+			algorithm.setCoreGuided(true);
+			ret = algorithm;
+		} else if (name.equals(SAT_BASED_ALGORITHM_MINIMAL_SHRINKING)) {
+			SatUnificationAlgorithm algorithm = new SatUnificationAlgorithm(input, true);
+			algorithm.setSubsetMinimal(true);
+			ret = algorithm;
+		} else if (name.equals(SAT_BASED_ALGORITHM_LAZY)) {
+			SatUnificationAlgorithm algorithm = new SatUnificationAlgorithm(input, false);
+			algorithm.setLazyTransitivity(true);
+			ret = algorithm;
+		} else if (name.equals(SAT_BASED_ALGORITHM_LAZY_DISUNIFICATION)) {
+			SatUnificationAlgorithm algorithm = new SatUnificationAlgorithm(input, false);
+			algorithm.setLazyDisunification(true);
+			ret = algorithm;
+		} else if (name.equals(SAT_BASED_ALGORITHM_PARALLEL)) {
+			ret = new SatUnificationAlgorithm(input, false, Runtime.getRuntime().availableProcessors());
+		} else if (name.equals(SAT_BASED_ALGORITHM_PORTFOLIO)) {
+			SatUnificationAlgorithm algorithm = new SatUnificationAlgorithm(input, false);
+			algorithm.setPortfolio(PortfolioSolver.DEFAULT_CONFIGURATIONS);
+			ret = algorithm;
 		} else if (name.equals(ASP_BASED_ALGORITHM)) {
 			ret = new AspUnificationAlgorithm(input, false);
 		} else if (name.equals(ASP_BASED_ALGORITHM_MINIMAL)) {
@@ -59,7 +111,16 @@ public class UnificationAlgorithmFactory {
 		List<String> ret = new ArrayList<>();
 		ret.add(SAT_BASED_ALGORITHM);
 		ret.add(SAT_BASED_ALGORITHM_MINIMAL);
+		ret.add(SAT_BASED_ALGORITHM_MINIMAL_CORE_GUIDED);
+		ret.add(SAT_BASED_ALGORITHM_MINIMAL_SHRINKING);
+		ret.add(SAT_BASED_ALGORITHM_LAZY);
+		ret.add(SAT_BASED_ALGORITHM_LAZY_DISUNIFICATION);
+		ret.add(SAT_BASED_ALGORITHM_PARALLEL);
+		ret.add(SAT_BASED_ALGORITHM_PORTFOLIO);
+		ret.add(SAT_BASED_ALGORITHM_MINIMAL + DECOMPOSED_SUFFIX);
 		ret.add(RULE_BASED_ALGORITHM);
+		ret.add(RULE_BASED_ALGORITHM_PARALLEL);
+		ret.add(RULE_BASED_ALGORITHM + DECOMPOSED_SUFFIX);
 		ret.add(ASP_BASED_ALGORITHM);
 		ret.add(ASP_BASED_ALGORITHM_MINIMAL);
 		return Collections.unmodifiableList(ret);
@@ -3,6 +3,7 @@ package de.tudresden.inf.lat.uel.core.main;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Set;
@@ -11,6 +12,7 @@ import java.util.stream.Stream;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import org.semanticweb.owlapi.model.OWLAxiom;
@@ -22,6 +24,7 @@ import org.semanticweb.owlapi.reasoner.OWLReasoner;
 
 import de.tudresden.inf.lat.jcel.owlapi.main.JcelReasonerFactory;
 import de.tudresden.inf.lat.uel.core.processor.UnificationAlgorithmFactory;
+import de.tudresden.inf.lat.uel.type.api.Goal;
 
 public class AlternativeUelStarterTest {
 
@@ -33,6 +36,11 @@ public class AlternativeUelStarterTest {
 	private static final String varFilename = "-variables.txt";
 	private static final String testFilename = ".test";
 	private static final int maxTest = 4;
+	private static final String[] algorithmNames = { UnificationAlgorithmFactory.SAT_BASED_ALGORITHM,
+			UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_LAZY_DISUNIFICATION };
+
+	@TempDir
+	Path cacheDirectory;
 
 	private static Stream<Arguments> data() {
 		Collection<Arguments> data = new ArrayList<>();
@@ -50,7 +58,10 @@ public class AlternativeUelStarterTest {
 				Integer numberOfUnifiers = Integer.parseInt(testFile.readLine());
 				testFile.close();
 
-				data.add(Arguments.of(mainOntology, subsumptions, dissubsumptions, variables, numberOfUnifiers));
+				for (String algorithmName : algorithmNames) {
+					data.add(Arguments.of(mainOntology, subsumptions, dissubsumptions, variables, algorithmName,
+							numberOfUnifiers));
+				}
 			} catch (OWLOntologyCreationException | IOException ex) {
 				throw new RuntimeException(ex);
 			}
@@ -59,16 +70,20 @@ public class AlternativeUelStarterTest {
 		return data.stream();
 	}
 
+	private static Stream<Arguments> encodingCacheData() {
+		return data().filter(arguments -> UnificationAlgorithmFactory.SAT_BASED_ALGORITHM.equals(arguments.get()[4]));
+	}
+
 	@ParameterizedTest(name = "{index}")
 	@MethodSource("data")
 	public void tryOntology(OWLOntology mainOntology, OWLOntology subsumptions, OWLOntology dissubsumptions,
-							Set<OWLClass> variables, Integer numberOfUnifiers) throws OWLOntologyCreationException, IOException {
+							Set<OWLClass> variables, String algorithmName, Integer numberOfUnifiers) throws OWLOntologyCreationException, IOException {
 
 		AlternativeUelStarter starter = new AlternativeUelStarter(mainOntology);
 		// starter.setVerbose(true);
 
 		UnifierIterator iterator = (UnifierIterator) starter.modifyOntologyAndSolve(subsumptions, dissubsumptions,
-				variables, UnificationAlgorithmFactory.SAT_BASED_ALGORITHM);
+				variables, algorithmName);
 
 		Set<OWLAxiom> background = iterator.getUelModel().renderDefinitions();
 
@@ -104,4 +119,31 @@ public class AlternativeUelStarterTest {
 
 		Assertions.assertEquals(numberOfUnifiers, actualNumberOfUnifiers);
 	}
+
+	@ParameterizedTest(name = "{index}")
+	@MethodSource("encodingCacheData")
+	public void tryOntologyWithEncodingCache(OWLOntology mainOntology, OWLOntology subsumptions,
+			OWLOntology dissubsumptions, Set<OWLClass> variables, String algorithmName, Integer numberOfUnifiers)
+			throws IOException, InterruptedException {
+		AlternativeUelStarter starter = new AlternativeUelStarter(mainOntology);
+		UnifierIterator iterator = (UnifierIterator) starter.modifyOntologyAndSolve(subsumptions, dissubsumptions,
+				variables, algorithmName);
+		Goal goal = iterator.getUelModel().getUnificationAlgorithm().getGoal();
+		Assertions.assertEquals(!dissubsumptions.getAxioms().isEmpty(), goal.hasNegativePart());
+		ProcessorTest.assertEncodingCacheReused(goal, cacheDirectory.toFile(), numberOfUnifiers);
+		iterator.cleanup();
+	}
+
+	@ParameterizedTest(name = "{index}")
+	@MethodSource("encodingCacheData")
+	public void tryOntologyWithRestart(OWLOntology mainOntology, OWLOntology subsumptions,
+			OWLOntology dissubsumptions, Set<OWLClass> variables, String algorithmName, Integer numberOfUnifiers)
+			throws InterruptedException {
+		AlternativeUelStarter starter = new AlternativeUelStarter(mainOntology);
+		UnifierIterator iterator = (UnifierIterator) starter.modifyOntologyAndSolve(subsumptions, dissubsumptions,
+				variables, algorithmName);
+		ProcessorTest.assertEnumerationRestarts(iterator.getUelModel().getUnificationAlgorithm().getGoal(),
+				numberOfUnifiers);
+		iterator.cleanup();
+	}
 }
@@ -1,24 +1,36 @@
 package de.tudresden.inf.lat.uel.core.main;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import org.sat4j.BasicLauncher;
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.io.StreamDocumentSource;
 import org.semanticweb.owlapi.krss2.parser.KRSS2OWLParser;
@@ -34,6 +46,16 @@ import org.semanticweb.owlapi.reasoner.OWLReasoner;
 import de.tudresden.inf.lat.jcel.owlapi.main.JcelReasonerFactory;
 import de.tudresden.inf.lat.uel.core.processor.BasicOntologyProvider;
 import de.tudresden.inf.lat.uel.core.processor.UelModel;
+import de.tudresden.inf.lat.uel.core.processor.UnificationAlgorithmFactory;
+import de.tudresden.inf.lat.uel.rule.RuleBasedUnificationAlgorithm;
+import de.tudresden.inf.lat.uel.rule.SelectionHeuristic;
+import de.tudresden.inf.lat.uel.sat.solver.SatUnificationAlgorithm;
+import de.tudresden.inf.lat.uel.sat.type.EncodingCache;
+import de.tudresden.inf.lat.uel.type.api.Goal;
+import de.tudresden.inf.lat.uel.type.api.UnificationAlgorithm;
+import de.tudresden.inf.lat.uel.type.impl.Budget;
+import de.tudresden.inf.lat.uel.type.impl.CancellationToken;
+import de.tudresden.inf.lat.uel.type.impl.UnificationStatus;
 import de.tudresden.inf.lat.uel.type.impl.Unifier;
 
 public class ProcessorTest {
@@ -43,10 +65,14 @@ public class ProcessorTest {
 	private static final String conceptC = "C";
 	private static final String conceptD = "D";
 	private static final String prefix = "testOntology-";
+	private static final String keyEncodingCache = "Encoding cache";
 	private static final String krss = ".krss";
 	private static final String test = ".test";
 	private static final int maxTest = 17;
 
+	@TempDir
+	Path cacheDirectory;
+
 	String getMemoryUsage() {
 		long totalMemory = Runtime.getRuntime().totalMemory() / 0x100000;
 		long freeMemory = Runtime.getRuntime().freeMemory() / 0x100000;
@@ -145,12 +171,102 @@ public class ProcessorTest {
 		}
 	}
 
-	@ParameterizedTest(name = "{index}: {0}, {4}")
-	@MethodSource("data")
-	public void tryOntology(String ontologyName, Set<String> varNames, Set<String> undefVarNames, Integer numberOfUnifiers,
-							String algorithmName) throws OWLOntologyCreationException, IOException, InterruptedException {
-		System.out.println("Testing " + ontologyName + " with " + algorithmName + " " + getMemoryUsage() + ".");
-		Map<String, OWLClass> idClassMap = new HashMap<>();
+	private static Stream<Arguments> budgetData() {
+		Set<String> algorithmNames = new HashSet<>(Arrays.asList(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM,
+				UnificationAlgorithmFactory.RULE_BASED_ALGORITHM + UnificationAlgorithmFactory.DECOMPOSED_SUFFIX,
+				UnificationAlgorithmFactory.SAT_BASED_ALGORITHM, UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_PORTFOLIO,
+				UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_MINIMAL + UnificationAlgorithmFactory.DECOMPOSED_SUFFIX));
+		return data().filter(arguments -> algorithmNames.contains(arguments.get()[4]));
+	}
+
+	/**
+	 * Enumerates the unifiers of a goal twice with the same encoding cache,
+	 * and checks that the second run loads the encoding from the cache and
+	 * finds the same unifiers.
+	 */
+	static void assertEncodingCacheReused(Goal goal, File directory, int numberOfUnifiers)
+			throws IOException, InterruptedException {
+		EncodingCache cache = new EncodingCache(directory, 1 << 26);
+		List<String> cacheStates = new ArrayList<>();
+		List<Set<Unifier>> results = new ArrayList<>();
+		for (int run = 0; run < 2; run++) {
+			SatUnificationAlgorithm algorithm = new SatUnificationAlgorithm(goal, false);
+			algorithm.setEncodingCache(cache);
+			Set<Unifier> unifiers = new HashSet<>();
+			int count = 0;
+			while (algorithm.computeNextUnifier()) {
+				unifiers.add(algorithm.getUnifier());
+				count++;
+			}
+			Assertions.assertEquals(numberOfUnifiers, count);
+			for (Entry<String, String> entry : algorithm.getInfo()) {
+				if (entry.getKey().equals(keyEncodingCache)) {
+					cacheStates.add(entry.getValue());
+				}
+			}
+			results.add(unifiers);
+			algorithm.cleanup();
+		}
+		Assertions.assertEquals(Arrays.asList("miss", "hit"), cacheStates);
+		Assertions.assertEquals(results.get(0), results.get(1));
+	}
+
+	private static int countUnifiers(UnificationAlgorithm algorithm) throws InterruptedException {
+		int count = 0;
+		while (algorithm.computeNextUnifier()) {
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Enumerates the unifiers of a goal, restarts the enumeration on the same
+	 * solver and enumerates them again. Also checks that the enumeration
+	 * cannot be restarted if only minimal assignments are computed or the
+	 * disunification clauses are generated lazily.
+	 */
+	static void assertEnumerationRestarts(Goal goal, int numberOfUnifiers) throws InterruptedException {
+		SatUnificationAlgorithm algorithm = new SatUnificationAlgorithm(goal, false);
+		algorithm.setKeepSolverHot(true);
+		Assertions.assertFalse(algorithm.restartEnumeration());
+		Assertions.assertEquals(numberOfUnifiers, countUnifiers(algorithm));
+		Assertions.assertTrue(algorithm.restartEnumeration());
+		Assertions.assertEquals(numberOfUnifiers, countUnifiers(algorithm));
+		algorithm.cleanup();
+
+		SatUnificationAlgorithm minimal = new SatUnificationAlgorithm(goal, true);
+		minimal.setKeepSolverHot(true);
+		countUnifiers(minimal);
+		Assertions.assertFalse(minimal.restartEnumeration());
+		minimal.cleanup();
+
+		SatUnificationAlgorithm lazy = new SatUnificationAlgorithm(goal, false);
+		lazy.setKeepSolverHot(true);
+		lazy.setLazyDisunification(true);
+		Assertions.assertEquals(numberOfUnifiers, countUnifiers(lazy));
+		// without a negative part, there are no disunification clauses
+		Assertions.assertEquals(!goal.hasNegativePart(), lazy.restartEnumeration());
+		lazy.cleanup();
+	}
+
+	private static Stream<Arguments> encodingCacheData() {
+		return data().filter(arguments -> UnificationAlgorithmFactory.SAT_BASED_ALGORITHM.equals(arguments.get()[4])
+				&& (Integer) arguments.get()[3] <= 128);
+	}
+
+	private static Stream<Arguments> externalSolverData() {
+		// each unifier starts a new process, so only goals with few unifiers
+		// are used
+		return data().filter(arguments -> UnificationAlgorithmFactory.SAT_BASED_ALGORITHM.equals(arguments.get()[4])
+				&& (Integer) arguments.get()[3] <= 3);
+	}
+
+	private static Stream<Arguments> ruleBasedData() {
+		return data().filter(arguments -> UnificationAlgorithmFactory.RULE_BASED_ALGORITHM.equals(arguments.get()[4]));
+	}
+
+	private static UelModel createModel(String ontologyName, Set<String> varNames, Set<String> undefVarNames,
+			String algorithmName, Map<String, OWLClass> idClassMap) throws OWLOntologyCreationException, IOException {
 		OWLOntology owlOntology = loadKRSSOntology(ontologyName);
 		OWLOntologyManager ontologyManager = owlOntology.getOWLOntologyManager();
 		UelModel uelModel = new UelModel(new BasicOntologyProvider(ontologyManager));
@@ -180,6 +296,16 @@ public class ProcessorTest {
 		uelModel.makeUndefClassesUserVariables(variables);
 
 		uelModel.initializeUnificationAlgorithm(algorithmName);
+		return uelModel;
+	}
+
+	@ParameterizedTest(name = "{index}: {0}, {4}")
+	@MethodSource("data")
+	public void tryOntology(String ontologyName, Set<String> varNames, Set<String> undefVarNames, Integer numberOfUnifiers,
+							String algorithmName) throws OWLOntologyCreationException, IOException, InterruptedException {
+		System.out.println("Testing " + ontologyName + " with " + algorithmName + " " + getMemoryUsage() + ".");
+		Map<String, OWLClass> idClassMap = new HashMap<>();
+		UelModel uelModel = createModel(ontologyName, varNames, undefVarNames, algorithmName, idClassMap);
 
 		while (uelModel.computeNextUnifier()) {
 		}
@@ -208,4 +334,158 @@ public class ProcessorTest {
 		System.out.println("Test OK " + getMemoryUsage() + ".");
 	}
 
+	@ParameterizedTest(name = "{index}: {0}, {4}")
+	@MethodSource("budgetData")
+	public void tryOntologyWithBudget(String ontologyName, Set<String> varNames, Set<String> undefVarNames,
+			Integer numberOfUnifiers, String algorithmName)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		UelModel uelModel = createModel(ontologyName, varNames, undefVarNames, algorithmName, new HashMap<>());
+		Assertions.assertEquals(UnificationStatus.BUDGET_EXCEEDED,
+				uelModel.computeNextUnifier(new Budget(System.currentTimeMillis() - 1, Long.MAX_VALUE)));
+
+		// start with a tiny budget and double it whenever it is exceeded
+		long maxConflicts = 1;
+		UnificationStatus status = uelModel.computeNextUnifier(new Budget(Long.MAX_VALUE, maxConflicts));
+		while (status != UnificationStatus.EXHAUSTED) {
+			if (status == UnificationStatus.BUDGET_EXCEEDED) {
+				maxConflicts *= 2;
+			}
+			status = uelModel.computeNextUnifier(new Budget(Long.MAX_VALUE, maxConflicts));
+		}
+		Assertions.assertEquals(numberOfUnifiers, (Integer) uelModel.getUnifierList().size());
+	}
+
+	@ParameterizedTest(name = "{index}: {0}, {4}")
+	@MethodSource("budgetData")
+	public void tryOntologyWithCancellation(String ontologyName, Set<String> varNames, Set<String> undefVarNames,
+			Integer numberOfUnifiers, String algorithmName)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		UelModel uelModel = createModel(ontologyName, varNames, undefVarNames, algorithmName, new HashMap<>());
+		CancellationToken token = new CancellationToken();
+		token.cancel();
+		uelModel.getUnificationAlgorithm().setCancellationToken(token);
+		Assertions.assertThrows(InterruptedException.class, () -> uelModel.computeNextUnifier());
+
+		// cancel the enumeration after the first unifier
+		UelModel otherModel = createModel(ontologyName, varNames, undefVarNames, algorithmName, new HashMap<>());
+		CancellationToken otherToken = new CancellationToken();
+		otherModel.getUnificationAlgorithm().setCancellationToken(otherToken);
+		if (otherModel.computeNextUnifier()) {
+			otherToken.cancel();
+			Assertions.assertThrows(InterruptedException.class, () -> otherModel.computeNextUnifier());
+		}
+
+		// cancel the enumeration from another thread while it is running
+		UelModel runningModel = createModel(ontologyName, varNames, undefVarNames, algorithmName, new HashMap<>());
+		CancellationToken runningToken = new CancellationToken();
+		runningModel.getUnificationAlgorithm().setCancellationToken(runningToken);
+		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+		long start = System.currentTimeMillis();
+		ScheduledFuture<?> cancellation = scheduler.schedule(runningToken::cancel, 5, TimeUnit.MILLISECONDS);
+		try {
+			while (runningModel.computeNextUnifier()) {
+			}
+			Assertions.assertEquals(numberOfUnifiers, (Integer) runningModel.getUnifierList().size());
+		} catch (InterruptedException e) {
+			Assertions.assertTrue(runningToken.isCancelled());
+		}
+		long duration = System.currentTimeMillis() - start;
+		try {
+			cancellation.get();
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+		scheduler.shutdown();
+		// the computation stopped soon after it was cancelled
+		Assertions.assertTrue(duration < 5000, "" + duration);
+
+		Assertions.assertFalse(Thread.currentThread().isInterrupted());
+		uelModel.getUnificationAlgorithm().cleanup();
+		otherModel.getUnificationAlgorithm().cleanup();
+		runningModel.getUnificationAlgorithm().cleanup();
+	}
+
+	@ParameterizedTest(name = "{index}: {0}, {4}")
+	@MethodSource("encodingCacheData")
+	public void tryOntologyWithRestart(String ontologyName, Set<String> varNames, Set<String> undefVarNames,
+			Integer numberOfUnifiers, String algorithmName)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		UelModel uelModel = createModel(ontologyName, varNames, undefVarNames, algorithmName, new HashMap<>());
+		assertEnumerationRestarts(uelModel.getUnificationAlgorithm().getGoal(), numberOfUnifiers);
+	}
+
+	@ParameterizedTest(name = "{index}: {0}, {4}")
+	@MethodSource("encodingCacheData")
+	public void tryOntologyWithEncodingCache(String ontologyName, Set<String> varNames, Set<String> undefVarNames,
+			Integer numberOfUnifiers, String algorithmName)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		UelModel uelModel = createModel(ontologyName, varNames, undefVarNames, algorithmName, new HashMap<>());
+		assertEncodingCacheReused(uelModel.getUnificationAlgorithm().getGoal(), cacheDirectory.toFile(),
+				numberOfUnifiers);
+	}
+
+	@ParameterizedTest(name = "{index}: {0}, {4}")
+	@MethodSource("externalSolverData")
+	public void tryOntologyWithExternalSolver(String ontologyName, Set<String> varNames, Set<String> undefVarNames,
+			Integer numberOfUnifiers, String algorithmName) throws Exception {
+		Assumptions.assumeTrue(new File("/dev/stdin").exists());
+		UelModel uelModel = createModel(ontologyName, varNames, undefVarNames, algorithmName, new HashMap<>());
+		Goal goal = uelModel.getUnificationAlgorithm().getGoal();
+
+		// the command line launcher of Sat4j serves as external solver
+		String sat4j = new File(BasicLauncher.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+				.getPath();
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		SatUnificationAlgorithm algorithm = new SatUnificationAlgorithm(goal, false);
+		algorithm.setExternalSolver(Arrays.asList(java, "-cp", sat4j, BasicLauncher.class.getName(), "/dev/stdin"));
+		int count = 0;
+		while (algorithm.computeNextUnifier()) {
+			count++;
+		}
+		Assertions.assertEquals(numberOfUnifiers, (Integer) count);
+		algorithm.cleanup();
+	}
+
+	@ParameterizedTest(name = "{index}: {0}, {4}")
+	@MethodSource("ruleBasedData")
+	public void tryOntologyWithSelectionHeuristics(String ontologyName, Set<String> varNames,
+			Set<String> undefVarNames, Integer numberOfUnifiers, String algorithmName)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		for (SelectionHeuristic heuristic : SelectionHeuristic.values()) {
+			UelModel uelModel = createModel(ontologyName, varNames, undefVarNames, algorithmName, new HashMap<>());
+			((RuleBasedUnificationAlgorithm) uelModel.getUnificationAlgorithm()).setSelectionHeuristic(heuristic);
+			while (uelModel.computeNextUnifier()) {
+			}
+			Assertions.assertEquals(numberOfUnifiers, (Integer) uelModel.getUnifierList().size(),
+					heuristic.toString());
+		}
+	}
+
+	@ParameterizedTest(name = "{index}: {0}, {4}")
+	@MethodSource("ruleBasedData")
+	public void tryOntologyInParallel(String ontologyName, Set<String> varNames, Set<String> undefVarNames,
+			Integer numberOfUnifiers, String algorithmName)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		UelModel uelModel = createModel(ontologyName, varNames, undefVarNames,
+				UnificationAlgorithmFactory.RULE_BASED_ALGORITHM_PARALLEL, new HashMap<>());
+		while (uelModel.computeNextUnifier()) {
+		}
+		Assertions.assertEquals(numberOfUnifiers, (Integer) uelModel.getUnifierList().size());
+		uelModel.getUnificationAlgorithm().cleanup();
+
+		// the parallel search visits the same leaves of the search tree
+		Goal goal = uelModel.getUnificationAlgorithm().getGoal();
+		UnificationAlgorithm sequential = new RuleBasedUnificationAlgorithm(goal);
+		UnificationAlgorithm parallel = new RuleBasedUnificationAlgorithm(goal, 4);
+		int numberOfLeaves = 0;
+		while (sequential.computeNextUnifier()) {
+			numberOfLeaves++;
+		}
+		while (parallel.computeNextUnifier()) {
+			numberOfLeaves--;
+		}
+		parallel.cleanup();
+		Assertions.assertEquals(0, numberOfLeaves);
+	}
+
 }
@@ -1,9 +1,9 @@
 package de.tudresden.inf.lat.uel.rule;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 import de.tudresden.inf.lat.uel.type.api.Atom;
@@ -11,156 +11,298 @@ import de.tudresden.inf.lat.uel.type.api.Atom;
 /**
  * An assignment of sets of non-variable atoms to variables. Such an assignment
  * should always be acyclic.
- * 
+ *
+ * The atoms are identified by their ranks in an {@link AtomIndex}, and the
+ * subsumers of each variable are stored as a bitset over these ranks. An
+ * assignment without an atom index is always empty.
+ *
+ * The dependencies between the variables that are needed to detect cycles are
+ * computed on the first cycle check, and afterwards maintained incrementally by
+ * {@link DependencyClosure}.
+ *
  * @author Stefan Borgwardt
  */
 public class Assignment {
 
-	private final Map<Atom, Set<Atom>> subs = new HashMap<>();
+	private static final long[][] noSubsumers = new long[0][];
 
-	/**
-	 * Create an empty assignment.
-	 */
-	Assignment() {
-	}
+	private DependencyClosure closure = null;
+	private final AtomIndex index;
+	private int[] keys = new int[0];
+	private int numberOfKeys = 0;
+	private int size = 0;
+	private long[][] subs = noSubsumers;
 
 	/**
-	 * Create a copy of another assignment.
-	 * 
-	 * @param other
-	 *            the other assignment
+	 * Create an empty assignment.
+	 *
+	 * @param index
+	 *            the ranks of the atoms that can be assigned, or 'null' if
+	 *            this assignment is to remain empty
 	 */
-	Assignment(Assignment other) {
-		addAll(other);
+	Assignment(AtomIndex index) {
+		this.index = index;
 	}
 
 	/**
 	 * Add an atom to the assignment of a variable.
-	 * 
+	 *
 	 * @param var
-	 *            the index of the variable
+	 *            the variable
 	 * @param at
 	 *            the new atom
 	 * @return true iff the assignment was changed as a result of this operation
 	 */
 	public boolean add(Atom var, Atom at) {
-		if (at == null) {
-			throw new IllegalArgumentException();
+		if ((var == null) || (at == null)) {
+			throw new IllegalArgumentException("Null argument.");
 		}
-		Set<Atom> flatAtoms = getOrInit(var);
-		return flatAtoms.add(at);
+		return add(rankOf(var), rankOf(at));
 	}
 
 	/**
-	 * Add a set of atoms to the assignment of a variable.
-	 * 
+	 * Add an atom to the assignment of a variable.
+	 *
 	 * @param var
-	 *            the index of the variable
+	 *            the rank of the variable
 	 * @param at
-	 *            the new atoms
+	 *            the rank of the new atom
 	 * @return true iff the assignment was changed as a result of this operation
 	 */
-	public boolean addAll(Atom var, Set<Atom> at) {
-		if (at == null)
+	boolean add(int var, int at) {
+		long[] bits = getOrInit(var);
+		long mask = 1L << at;
+		if ((bits[at >>> 6] & mask) != 0) {
 			return false;
-		Set<Atom> flatAtoms = getOrInit(var);
-		return flatAtoms.addAll(at);
+		}
+		bits[at >>> 6] |= mask;
+		size++;
+		if ((closure != null) && (index.getChild(at) >= 0)) {
+			closure.add(var, at);
+		}
+		return true;
 	}
 
 	/**
 	 * Add another variable assignment to this assignment.
-	 * 
+	 *
 	 * @param other
 	 *            the assignment to be merged into this one
 	 * @return true iff the assignment was changed as a result of this operation
 	 */
 	public boolean addAll(Assignment other) {
-		if (other == null)
+		if ((other == null) || other.isEmpty())
 			return false;
-		boolean ret = false;
-		for (Entry<Atom, Set<Atom>> entry : other.subs.entrySet()) {
-			if (addAll(entry.getKey(), entry.getValue()))
-				ret = true;
+		int oldSize = size;
+		for (int i = 0; i < other.numberOfKeys; i++) {
+			int var = other.keys[i];
+			long[] otherBits = other.subs[var];
+			long[] bits = getOrInit(var);
+			long[] nonGround = index.getNonGround();
+			for (int w = 0; w < bits.length; w++) {
+				long added = otherBits[w] & ~bits[w];
+				size += Long.bitCount(added);
+				bits[w] |= added;
+				if (closure != null) {
+					addDependencies(var, w, added & nonGround[w]);
+				}
+			}
+		}
+		return size != oldSize;
+	}
+
+	private void addDependencies(int var, int w, long word) {
+		while (word != 0) {
+			closure.add(var, (w << 6) + Long.numberOfTrailingZeros(word));
+			word &= word - 1;
 		}
-		return ret;
 	}
 
 	/**
-	 * Remove a set of atoms from the assignment of a variable.
-	 * 
+	 * Check whether an atom is assigned to a variable.
+	 *
 	 * @param var
-	 *            the index of the variable
+	 *            the variable
 	 * @param at
-	 *            the atoms to be removed
-	 * @return true iff the assignment was changed as a result of this operation
+	 *            the atom
+	 * @return true iff 'at' is a subsumer of 'var' in this assignment
 	 */
-	boolean removeAll(Atom var, Set<Atom> at) {
-		if (at == null)
+	public boolean contains(Atom var, Atom at) {
+		if (index == null) {
 			return false;
-		if (subs.get(var) == null)
+		}
+		int varRank = index.getRank(var);
+		int atRank = index.getRank(at);
+		if ((varRank < 0) || (atRank < 0)) {
 			return false;
-		return subs.get(var).removeAll(at);
+		}
+		return contains(varRank, atRank);
 	}
 
 	/**
-	 * Subtract another variable assignment from this assignment.
-	 * 
-	 * @param other
-	 *            the assignment to be removed from this one
-	 * @return true iff the assignment was changed as a result of this operation
+	 * Check whether an atom is assigned to a variable.
+	 *
+	 * @param var
+	 *            the rank of the variable
+	 * @param at
+	 *            the rank of the atom
+	 * @return true iff 'at' is a subsumer of 'var' in this assignment
 	 */
-	boolean removeAll(Assignment other) {
-		if (other == null)
-			return false;
-		boolean ret = false;
-		for (Entry<Atom, Set<Atom>> entry : other.subs.entrySet()) {
-			if (removeAll(entry.getKey(), entry.getValue()))
-				ret = true;
+	boolean contains(int var, int at) {
+		return (var < subs.length) && (subs[var] != null) && ((subs[var][at >>> 6] & (1L << at)) != 0);
+	}
+
+	private DependencyClosure getClosure() {
+		if (closure == null) {
+			closure = new DependencyClosure(index);
+			long[] nonGround = index.getNonGround();
+			for (int i = 0; i < numberOfKeys; i++) {
+				long[] bits = subs[keys[i]];
+				for (int w = 0; w < bits.length; w++) {
+					addDependencies(keys[i], w, bits[w] & nonGround[w]);
+				}
+			}
+			closure.commit();
 		}
-		return ret;
+		return closure;
+	}
+
+	/**
+	 * Retrieve the ranks of the atoms used by this assignment.
+	 *
+	 * @return the atom index
+	 */
+	AtomIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * Retrieve the rank of a variable that is explicitly assigned some
+	 * non-variable atoms by this assignment, for 0 &lt;= i &lt;
+	 * {@link #getNumberOfKeys()}. The set of assigned atoms might also be
+	 * empty.
+	 *
+	 * @param i
+	 *            the position of the variable
+	 * @return the rank of the variable
+	 */
+	int getKey(int i) {
+		return keys[i];
+	}
+
+	/**
+	 * Retrieve the number of variables that are explicitly assigned some
+	 * non-variable atoms by this assignment.
+	 *
+	 * @return the number of variables involved in this assignment
+	 */
+	int getNumberOfKeys() {
+		return numberOfKeys;
+	}
+
+	private long[] getOrInit(int var) {
+		if (index == null) {
+			throw new IllegalStateException("This assignment cannot assign any atoms.");
+		}
+		if (var >= subs.length) {
+			subs = Arrays.copyOf(subs, Math.max(var + 1, Math.min(2 * subs.length, index.getNumberOfVariables())));
+		}
+		long[] bits = subs[var];
+		if (bits == null) {
+			bits = new long[AtomIndex.words(index.size())];
+			subs[var] = bits;
+			if (numberOfKeys == keys.length) {
+				keys = Arrays.copyOf(keys, Math.max(4, 2 * numberOfKeys));
+			}
+			keys[numberOfKeys] = var;
+			numberOfKeys++;
+		}
+		return bits;
 	}
 
 	/**
 	 * Retrieve the subsumers of a given variable according to this assignment.
-	 * 
+	 * The returned set is a read-only view of this assignment.
+	 *
 	 * @param var
 	 *            the variable
 	 * @return the set of assigned subsumers
 	 */
 	public Set<Atom> getSubsumers(Atom var) {
-		return getOrInit(var);
+		int rank = (index == null) ? -1 : index.getRank(var);
+		return new SubsumerSet(rank);
 	}
 
 	/**
-	 * Retrieve the variable indices of the variables that are explicitly
-	 * assigned some non-variable atoms by this assignment. This assignment
-	 * might also be the empty set.
-	 * 
-	 * @return a set containing the indices of all variables involved in this
-	 *         assignment
+	 * Check whether this assignment is empty.
+	 *
+	 * @return true iff no variable is assigned any subsumer
 	 */
-	Set<Atom> getKeys() {
-		return subs.keySet();
+	boolean isEmpty() {
+		return size == 0;
 	}
 
-	private Set<Atom> getOrInit(Atom var) {
-		Set<Atom> flatAtoms = subs.get(var);
-		if (flatAtoms == null) {
-			flatAtoms = new HashSet<>();
-			subs.put(var, flatAtoms);
+	/**
+	 * Returns the rank of the next subsumer of a variable, starting from a
+	 * given rank.
+	 *
+	 * @param var
+	 *            the rank of the variable
+	 * @param from
+	 *            the rank to start from (inclusive)
+	 * @return the least rank &gt;= 'from' of a subsumer of 'var', or -1 if
+	 *         there is no such subsumer
+	 */
+	int nextSubsumer(int var, int from) {
+		if ((var < 0) || (var >= subs.length) || (subs[var] == null)) {
+			return -1;
 		}
-		return flatAtoms;
+		return nextSetBit(subs[var], from);
+	}
+
+	private static int nextSetBit(long[] bits, int from) {
+		int w = from >>> 6;
+		if (w >= bits.length) {
+			return -1;
+		}
+		long word = bits[w] & (-1L << from);
+		while (word == 0) {
+			w++;
+			if (w == bits.length) {
+				return -1;
+			}
+			word = bits[w];
+		}
+		return (w << 6) + Long.numberOfTrailingZeros(word);
+	}
+
+	private int rankOf(Atom at) {
+		int rank = (index == null) ? -1 : index.getRank(at);
+		if (rank < 0) {
+			throw new IllegalArgumentException("Unknown atom: " + at);
+		}
+		return rank;
 	}
 
 	/**
-	 * Check whether this assignment is empty.
-	 * 
-	 * @return true iff no variable is assigned any subsumer
+	 * Remove an atom from the assignment of a variable.
+	 *
+	 * @param var
+	 *            the rank of the variable
+	 * @param at
+	 *            the rank of the atom to be removed
+	 * @return true iff the assignment was changed as a result of this operation
 	 */
-	boolean isEmpty() {
-		for (Set<Atom> subsumers : subs.values()) {
-			if (!subsumers.isEmpty())
-				return false;
+	boolean remove(int var, int at) {
+		if (!contains(var, at)) {
+			return false;
+		}
+		subs[var][at >>> 6] &= ~(1L << at);
+		size--;
+		if ((closure != null) && (index.getChild(at) >= 0) && !closure.remove(var, at)) {
+			// the dependencies were not removed in the reverse order of their
+			// addition
+			closure = null;
 		}
 		return true;
 	}
@@ -168,35 +310,24 @@ public class Assignment {
 	/**
 	 * Checks if there is a dependency of 'a' on 'b', i.e., whether 'b' is
 	 * reachable from 'a' in the graph representation of the current assignment.
-	 * It is important that the current assignment is acyclic; otherwise, this
-	 * implementation might not terminate.
-	 * 
+	 * This takes constant time, apart from computing the dependencies anew if
+	 * subsumers were removed in a different order than they were added.
+	 *
 	 * @param a
-	 *            the start variable
+	 *            the rank of the start variable
 	 * @param b
-	 *            the goal variable
+	 *            the rank of the goal variable
 	 * @return true iff 'a' depends on 'b'
 	 */
-	boolean dependsOn(Atom a, Atom b) {
-		for (Atom at : getSubsumers(a)) {
-			if (!at.isGround()) {
-				Atom nextVar = at.getConceptName();
-				if (nextVar.equals(b)) {
-					return true;
-				}
-				if (dependsOn(nextVar, b)) {
-					return true;
-				}
-			}
-		}
-		return false;
+	boolean dependsOn(int a, int b) {
+		return getClosure().reaches(a, b);
 	}
 
 	/**
 	 * Checks if a new assignment would make this assignment cyclic.
-	 * 
+	 *
 	 * @param var
-	 *            the variable index
+	 *            the variable
 	 * @param at
 	 *            the new atom
 	 * @return true iff the resulting assignment would be cyclic
@@ -204,17 +335,32 @@ public class Assignment {
 	public boolean makesCyclic(Atom var, Atom at) {
 		if (at.isGround())
 			return false;
-		Atom conceptName = at.getConceptName();
-		if (conceptName.equals(var))
+		return makesCyclic(rankOf(var), rankOf(at));
+	}
+
+	/**
+	 * Checks if a new assignment would make this assignment cyclic.
+	 *
+	 * @param var
+	 *            the rank of the variable
+	 * @param at
+	 *            the rank of the new atom
+	 * @return true iff the resulting assignment would be cyclic
+	 */
+	boolean makesCyclic(int var, int at) {
+		int conceptName = index.getChild(at);
+		if (conceptName < 0)
+			return false;
+		if (conceptName == var)
 			return true;
 		return dependsOn(conceptName, var);
 	}
 
 	/**
 	 * Checks if a new assignment would make this assignment cyclic.
-	 * 
+	 *
 	 * @param var
-	 *            the variable index
+	 *            the variable
 	 * @param newAtoms
 	 *            the new atoms
 	 * @return true iff the resulting assignment would be cyclic
@@ -232,14 +378,80 @@ public class Assignment {
 	public String toString() {
 		StringBuffer buf = new StringBuffer();
 		buf.append("[");
-		for (Entry<Atom, Set<Atom>> e : subs.entrySet()) {
-			buf.append(e.getKey());
+		for (int i = 0; i < numberOfKeys; i++) {
+			buf.append(index.getAtom(keys[i]));
 			buf.append("=");
-			buf.append(e.getValue());
+			buf.append(new SubsumerSet(keys[i]));
 			buf.append(";");
 		}
 		buf.append("]");
 		return buf.toString();
 	}
 
+	/**
+	 * A read-only view of the subsumers of a variable.
+	 */
+	private final class SubsumerSet extends AbstractSet<Atom> {
+
+		private final int var;
+
+		SubsumerSet(int var) {
+			this.var = var;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (!(o instanceof Atom)) {
+				return false;
+			}
+			if (var < 0) {
+				return false;
+			}
+			int rank = index.getRank((Atom) o);
+			return (rank >= 0) && Assignment.this.contains(var, rank);
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return nextSubsumer(var, 0) < 0;
+		}
+
+		@Override
+		public Iterator<Atom> iterator() {
+			return new Iterator<Atom>() {
+
+				private int next = nextSubsumer(var, 0);
+
+				@Override
+				public boolean hasNext() {
+					return next >= 0;
+				}
+
+				@Override
+				public Atom next() {
+					if (next < 0) {
+						throw new NoSuchElementException();
+					}
+					Atom at = index.getAtom(next);
+					next = nextSubsumer(var, next + 1);
+					return at;
+				}
+
+			};
+		}
+
+		@Override
+		public int size() {
+			if ((var < 0) || (var >= subs.length) || (subs[var] == null)) {
+				return 0;
+			}
+			int count = 0;
+			for (long word : subs[var]) {
+				count += Long.bitCount(word);
+			}
+			return count;
+		}
+
+	}
+
 }
@@ -0,0 +1,174 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.tudresden.inf.lat.uel.type.api.Atom;
+import de.tudresden.inf.lat.uel.type.api.AtomManager;
+
+/**
+ * A numbering of all atoms that can occur during the rule-based search by dense
+ * ranks, starting at 0. The variables are numbered first, so that the ranks of
+ * the variables are exactly the numbers below {@link #getNumberOfVariables()}.
+ * The ranks are used as bit positions in the bitsets of an
+ * {@link Assignment}.
+ *
+ * @author Stefan Borgwardt
+ */
+class AtomIndex {
+
+	private final Atom[] atoms;
+	private final int[] children;
+	private final int[] ids;
+	private final long[] nonGround;
+	private final int numberOfVariables;
+	private final Map<Atom, Integer> ranks = new HashMap<>();
+
+	/**
+	 * Construct the ranks of all atoms that occur in the given goal, including
+	 * the concept names that occur in existential restrictions.
+	 *
+	 * @param goal
+	 *            the goal subsumptions
+	 * @param atomManager
+	 *            the atom manager that provides the identifiers of the atoms
+	 */
+	AtomIndex(NormalizedGoal goal, AtomManager atomManager) {
+		Set<Atom> occurring = new LinkedHashSet<>();
+		for (FlatSubsumption sub : goal) {
+			for (Atom at : sub.getBody()) {
+				addWithChild(at, occurring);
+			}
+			addWithChild(sub.getHead(), occurring);
+		}
+
+		List<Atom> sorted = new ArrayList<>();
+		for (Atom at : occurring) {
+			if (at.isVariable()) {
+				sorted.add(at);
+			}
+		}
+		numberOfVariables = sorted.size();
+		for (Atom at : occurring) {
+			if (!at.isVariable()) {
+				sorted.add(at);
+			}
+		}
+
+		atoms = sorted.toArray(new Atom[sorted.size()]);
+		ids = new int[atoms.length];
+		children = new int[atoms.length];
+		for (int rank = 0; rank < atoms.length; rank++) {
+			ranks.put(atoms[rank], rank);
+			ids[rank] = atomManager.getIndex(atoms[rank]);
+		}
+		nonGround = new long[words(atoms.length)];
+		for (int rank = 0; rank < atoms.length; rank++) {
+			if (atoms[rank].isGround()) {
+				children[rank] = -1;
+			} else {
+				children[rank] = ranks.get(atoms[rank].getConceptName());
+				nonGround[rank >>> 6] |= 1L << rank;
+			}
+		}
+	}
+
+	private static void addWithChild(Atom at, Set<Atom> occurring) {
+		if (at.isExistentialRestriction()) {
+			occurring.add(at.getConceptName());
+		}
+		occurring.add(at);
+	}
+
+	/**
+	 * Returns the number of 64-bit words needed for a bitset of the given
+	 * length.
+	 *
+	 * @param length
+	 *            the number of bits
+	 * @return the number of words
+	 */
+	static int words(int length) {
+		return (length + 63) >>> 6;
+	}
+
+	/**
+	 * Retrieve the atom with the given rank.
+	 *
+	 * @param rank
+	 *            the rank
+	 * @return the atom
+	 */
+	Atom getAtom(int rank) {
+		return atoms[rank];
+	}
+
+	/**
+	 * Retrieve the rank of the variable that occurs in a non-ground atom.
+	 *
+	 * @param rank
+	 *            the rank of the atom
+	 * @return the rank of its concept name, or -1 if the atom is ground
+	 */
+	int getChild(int rank) {
+		return children[rank];
+	}
+
+	/**
+	 * Retrieve the identifier of the atom with the given rank in the atom
+	 * manager.
+	 *
+	 * @param rank
+	 *            the rank
+	 * @return the atom identifier
+	 */
+	int getId(int rank) {
+		return ids[rank];
+	}
+
+	/**
+	 * Returns the bitset of the ranks of all non-ground atoms, i.e., of the
+	 * atoms that contain a variable. The array must not be modified.
+	 *
+	 * @return the bitset of non-ground atoms
+	 */
+	long[] getNonGround() {
+		return nonGround;
+	}
+
+	/**
+	 * Returns the number of variables, which are the atoms with the lowest
+	 * ranks.
+	 *
+	 * @return the number of variables
+	 */
+	int getNumberOfVariables() {
+		return numberOfVariables;
+	}
+
+	/**
+	 * Retrieve the rank of an atom.
+	 *
+	 * @param at
+	 *            the atom
+	 * @return the rank, or -1 if the atom does not occur in the goal
+	 */
+	int getRank(Atom at) {
+		Integer rank = ranks.get(at);
+		return (rank == null) ? -1 : rank;
+	}
+
+	/**
+	 * Returns the number of atoms.
+	 *
+	 * @return the number of atoms
+	 */
+	int size() {
+		return atoms.length;
+	}
+
+}
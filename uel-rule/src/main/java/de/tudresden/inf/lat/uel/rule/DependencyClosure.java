@@ -0,0 +1,168 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.util.Arrays;
+
+/**
+ * The transitive closure of the dependencies between the variables of an
+ * {@link Assignment}. A variable 'x' directly depends on a variable 'y' if an
+ * existential restriction with 'y' as its concept name is assigned to 'x'. For
+ * each variable, the set of variables it depends on is stored as a bitset over
+ * the variable ranks, so that a dependency can be checked in constant time.
+ *
+ * The closure is extended incrementally when a dependency is added. Each
+ * extension is recorded, and can be undone when the dependencies are removed
+ * again in the reverse order, as it is done by the search trail.
+ *
+ * @author Stefan Borgwardt
+ */
+class DependencyClosure {
+
+	private final AtomIndex index;
+	private int[] edgeAtoms = new int[16];
+	private int[] edgeMarks = new int[16];
+	private int[] edgeVariables = new int[16];
+	private long[] logBits = new long[64];
+	private int logSize = 0;
+	private int[] logVariables = new int[64];
+	private int[] logWords = new int[64];
+	private int numberOfEdges = 0;
+	private final long[][] reach;
+
+	/**
+	 * Construct the closure of an empty set of dependencies.
+	 *
+	 * @param index
+	 *            the ranks of the atoms
+	 */
+	DependencyClosure(AtomIndex index) {
+		this.index = index;
+		this.reach = new long[index.getNumberOfVariables()][];
+	}
+
+	/**
+	 * Add the dependency that is caused by assigning a non-ground atom to a
+	 * variable.
+	 *
+	 * @param var
+	 *            the rank of the variable
+	 * @param at
+	 *            the rank of the non-ground atom
+	 */
+	void add(int var, int at) {
+		int child = index.getChild(at);
+		if (numberOfEdges == edgeVariables.length) {
+			edgeAtoms = Arrays.copyOf(edgeAtoms, 2 * numberOfEdges);
+			edgeMarks = Arrays.copyOf(edgeMarks, 2 * numberOfEdges);
+			edgeVariables = Arrays.copyOf(edgeVariables, 2 * numberOfEdges);
+		}
+		edgeAtoms[numberOfEdges] = at;
+		edgeMarks[numberOfEdges] = logSize;
+		edgeVariables[numberOfEdges] = var;
+		numberOfEdges++;
+
+		if (reaches(var, child) && contains(reach[var], reach[child])) {
+			// nothing new is reachable from 'var' or its predecessors
+			return;
+		}
+		extend(var, child);
+		for (int u = 0; u < reach.length; u++) {
+			if ((u != var) && reaches(u, var)) {
+				extend(u, child);
+			}
+		}
+	}
+
+	private static boolean contains(long[] bits, long[] subset) {
+		if (subset == null) {
+			return true;
+		}
+		for (int w = 0; w < subset.length; w++) {
+			if ((subset[w] & ~bits[w]) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Forget the recorded extensions, which makes all current dependencies
+	 * permanent for the purpose of {@link #remove(int, int)}.
+	 */
+	void commit() {
+		numberOfEdges = 0;
+		logSize = 0;
+	}
+
+	private void extend(int u, int child) {
+		long[] bits = reach[u];
+		if (bits == null) {
+			bits = new long[AtomIndex.words(reach.length)];
+			reach[u] = bits;
+		}
+		long[] childBits = reach[child];
+		for (int w = 0; w < bits.length; w++) {
+			long added = (childBits == null) ? 0 : childBits[w];
+			if (w == (child >>> 6)) {
+				added |= 1L << child;
+			}
+			added &= ~bits[w];
+			if (added != 0) {
+				log(u, w, added);
+				bits[w] |= added;
+			}
+		}
+	}
+
+	private void log(int u, int w, long added) {
+		if (logSize == logBits.length) {
+			logBits = Arrays.copyOf(logBits, 2 * logSize);
+			logVariables = Arrays.copyOf(logVariables, 2 * logSize);
+			logWords = Arrays.copyOf(logWords, 2 * logSize);
+		}
+		logBits[logSize] = added;
+		logVariables[logSize] = u;
+		logWords[logSize] = w;
+		logSize++;
+	}
+
+	/**
+	 * Checks whether variable 'a' depends on variable 'b', directly or
+	 * indirectly.
+	 *
+	 * @param a
+	 *            the rank of the first variable
+	 * @param b
+	 *            the rank of the second variable
+	 * @return true iff 'b' is reachable from 'a'
+	 */
+	boolean reaches(int a, int b) {
+		long[] bits = reach[a];
+		return (bits != null) && ((bits[b >>> 6] & (1L << b)) != 0);
+	}
+
+	/**
+	 * Remove the dependency that was caused by assigning a non-ground atom to
+	 * a variable. This is only possible if it is the last recorded dependency.
+	 *
+	 * @param var
+	 *            the rank of the variable
+	 * @param at
+	 *            the rank of the non-ground atom
+	 * @return true iff the dependency was removed; otherwise, this closure is
+	 *         not changed and has to be computed anew
+	 */
+	boolean remove(int var, int at) {
+		if ((numberOfEdges == 0) || (edgeVariables[numberOfEdges - 1] != var)
+				|| (edgeAtoms[numberOfEdges - 1] != at)) {
+			return false;
+		}
+		numberOfEdges--;
+		int mark = edgeMarks[numberOfEdges];
+		while (logSize > mark) {
+			logSize--;
+			reach[logVariables[logSize]][logWords[logSize]] &= ~logBits[logSize];
+		}
+		return true;
+	}
+
+}
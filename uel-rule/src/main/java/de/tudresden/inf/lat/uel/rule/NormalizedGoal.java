@@ -79,6 +79,7 @@ class NormalizedGoal implements Set<FlatSubsumption> {
 	private int maxSize;
 	private Map<Atom, Set<FlatSubsumption>> variableBodyIndex;
 	private Map<Atom, Set<FlatSubsumption>> variableHeadIndex;
+	private Worklist worklist;
 
 	/**
 	 * Construct a new goal from a set of equations given by a UelInput object.
@@ -94,6 +95,7 @@ class NormalizedGoal implements Set<FlatSubsumption> {
 		for (FlatSubsumption sub : goal) {
 			addToIndex(sub);
 		}
+		setSelectionHeuristic(SelectionHeuristic.FAIL_FIRST);
 	}
 
 	@Override
@@ -104,6 +106,9 @@ class NormalizedGoal implements Set<FlatSubsumption> {
 		if (goal.size() > maxSize)
 			maxSize = goal.size();
 		addToIndex(sub);
+		if (!sub.isSolved()) {
+			worklist.add(sub);
+		}
 		return true;
 	}
 
@@ -116,6 +121,9 @@ class NormalizedGoal implements Set<FlatSubsumption> {
 			maxSize = goal.size();
 		for (FlatSubsumption sub : c) {
 			addToIndex(sub);
+			if (!sub.isSolved()) {
+				worklist.add(sub);
+			}
 		}
 		return true;
 	}
@@ -135,6 +143,8 @@ class NormalizedGoal implements Set<FlatSubsumption> {
 	public void clear() {
 		goal.clear();
 		variableBodyIndex.clear();
+		variableHeadIndex.clear();
+		worklist.clear();
 	}
 
 	@Override
@@ -158,9 +168,14 @@ class NormalizedGoal implements Set<FlatSubsumption> {
 	 */
 	Set<FlatSubsumption> expand(Assignment assign) {
 		Set<FlatSubsumption> newSubs = new HashSet<>();
-		for (Atom var : assign.getKeys()) {
-			for (FlatSubsumption sub : getOrInitHeadIndex(var)) {
-				expand(sub, assign.getSubsumers(var), newSubs);
+		AtomIndex index = assign.getIndex();
+		for (int i = 0; i < assign.getNumberOfKeys(); i++) {
+			Atom var = index.getAtom(assign.getKey(i));
+			Set<Atom> subsumers = assign.getSubsumers(var);
+			if (!subsumers.isEmpty()) {
+				for (FlatSubsumption sub : getOrInitHeadIndex(var)) {
+					expand(sub, subsumers, newSubs);
+				}
 			}
 		}
 		return newSubs;
@@ -192,6 +207,16 @@ class NormalizedGoal implements Set<FlatSubsumption> {
 		}
 	}
 
+	/**
+	 * Retrieve the heuristic that determines the order in which the unsolved
+	 * subsumptions are returned by {@link #getNextUnsolvedSubsumption()}.
+	 * 
+	 * @return the selection heuristic
+	 */
+	SelectionHeuristic getSelectionHeuristic() {
+		return worklist.getHeuristic();
+	}
+
 	/**
 	 * Retrieve the maximal number of subsumptions observed so far.
 	 * 
@@ -215,6 +240,29 @@ class NormalizedGoal implements Set<FlatSubsumption> {
 		return variableHeadIndex.get(var);
 	}
 
+	/**
+	 * Return the unsolved subsumption that should be solved next according to
+	 * the selection heuristic.
+	 * 
+	 * @return an unsolved subsumption, or 'null' if all subsumptions are
+	 *         solved
+	 */
+	FlatSubsumption getNextUnsolvedSubsumption() {
+		return worklist.peek();
+	}
+
+	/**
+	 * Return the unsolved goal subsumption that is equal to the given one.
+	 * 
+	 * @param sub
+	 *            a subsumption, which need not be contained in this goal
+	 * @return the equal unsolved subsumption of this goal, or 'null' if there
+	 *         is none
+	 */
+	FlatSubsumption getUnsolvedSubsumption(FlatSubsumption sub) {
+		return worklist.get(sub);
+	}
+
 	/**
 	 * Return all stored subsumptions that have the specified variable on the
 	 * top-level of their body.
@@ -255,6 +303,7 @@ class NormalizedGoal implements Set<FlatSubsumption> {
 			return false;
 		}
 		removeFromIndex((FlatSubsumption) o);
+		worklist.remove(o);
 		return true;
 	}
 
@@ -266,6 +315,7 @@ class NormalizedGoal implements Set<FlatSubsumption> {
 		for (Object o : c) {
 			if (o instanceof FlatSubsumption) {
 				removeFromIndex((FlatSubsumption) o);
+				worklist.remove(o);
 			}
 		}
 		return true;
@@ -287,6 +337,39 @@ class NormalizedGoal implements Set<FlatSubsumption> {
 		throw new UnsupportedOperationException();
 	}
 
+	/**
+	 * Set the heuristic that determines the order in which the unsolved
+	 * subsumptions are returned by {@link #getNextUnsolvedSubsumption()}.
+	 * 
+	 * @param heuristic
+	 *            the selection heuristic
+	 */
+	void setSelectionHeuristic(SelectionHeuristic heuristic) {
+		worklist = new Worklist(this, heuristic);
+		for (FlatSubsumption sub : goal) {
+			if (!sub.isSolved()) {
+				worklist.add(sub);
+			}
+		}
+	}
+
+	/**
+	 * Set the 'solved' status of a goal subsumption.
+	 * 
+	 * @param sub
+	 *            the subsumption
+	 * @param solved
+	 *            a flag indicating whether the subsumption is solved
+	 */
+	void setSolved(FlatSubsumption sub, boolean solved) {
+		sub.setSolved(solved);
+		if (solved) {
+			worklist.remove(sub);
+		} else if (goal.contains(sub)) {
+			worklist.add(sub);
+		}
+	}
+
 	@Override
 	public int size() {
 		return goal.size();
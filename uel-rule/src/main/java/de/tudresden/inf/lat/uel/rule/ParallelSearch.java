@@ -0,0 +1,226 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import de.tudresden.inf.lat.uel.type.impl.Budget;
+import de.tudresden.inf.lat.uel.type.impl.CancellationToken;
+import de.tudresden.inf.lat.uel.type.impl.UnificationStatus;
+import de.tudresden.inf.lat.uel.type.impl.Unifier;
+
+/**
+ * An exploration of the search tree of the rule-based algorithm by several
+ * threads of a fork/join pool. Each task explores the subtree below one node
+ * of the search tree, using the search state owned by its worker thread, see
+ * {@link RuleBasedUnificationAlgorithm#explore(List, ParallelSearch, Task)}.
+ * When the pool runs out of tasks, a worker gives away the alternatives at the
+ * shallowest node of its subtree that still has some, and idle workers steal
+ * the resulting tasks. The unifiers are collected in a bounded queue, from
+ * which they are returned one at a time.
+ *
+ * @author Stefan Borgwardt
+ */
+class ParallelSearch {
+
+	private static final int queueCapacity = 1024;
+	private static final long pollMillis = 10;
+
+	private volatile Unifier current = null;
+	private final AtomicReference<RuntimeException> error = new AtomicReference<>();
+	private volatile boolean finished = false;
+	private final ForkJoinPool pool;
+	private final ThreadLocal<RuleBasedUnificationAlgorithm> states;
+	private volatile boolean stopped = false;
+	private volatile CancellationToken token;
+	private final BlockingQueue<Unifier> unifiers = new LinkedBlockingQueue<>(queueCapacity);
+	private final List<RuleBasedUnificationAlgorithm> workers = Collections.synchronizedList(new ArrayList<>());
+
+	/**
+	 * Start a new parallel search.
+	 *
+	 * @param parallelism
+	 *            the number of threads
+	 * @param stateFactory
+	 *            a function creating a new search state for each worker thread
+	 * @param token
+	 *            the token that cancels the search
+	 */
+	ParallelSearch(int parallelism, Supplier<RuleBasedUnificationAlgorithm> stateFactory, CancellationToken token) {
+		this.token = token;
+		this.pool = new ForkJoinPool(parallelism);
+		this.states = ThreadLocal.withInitial(() -> {
+			RuleBasedUnificationAlgorithm state = stateFactory.get();
+			workers.add(state);
+			return state;
+		});
+		pool.execute(new Task(null, Collections.emptyList()));
+	}
+
+	/**
+	 * Add a unifier found by a worker. If the queue of unifiers is full, this
+	 * method waits until space becomes available.
+	 *
+	 * @param unifier
+	 *            the unifier
+	 * @throws InterruptedException
+	 *             if the search was stopped
+	 */
+	void addUnifier(Unifier unifier) throws InterruptedException {
+		while (!unifiers.offer(unifier, pollMillis, TimeUnit.MILLISECONDS)) {
+			check();
+		}
+	}
+
+	/**
+	 * Throws an exception if the search was stopped or cancelled.
+	 *
+	 * @throws InterruptedException
+	 *             if the search was stopped or cancelled
+	 */
+	void check() throws InterruptedException {
+		if (stopped || token.isCancelled()) {
+			throw new InterruptedException();
+		}
+	}
+
+	/**
+	 * Retrieve the last unifier returned by {@link #next(Budget)}.
+	 *
+	 * @return the last unifier
+	 */
+	Unifier getUnifier() {
+		return current;
+	}
+
+	/**
+	 * Retrieve the search states of the worker threads.
+	 *
+	 * @return a copy of the list of search states
+	 */
+	List<RuleBasedUnificationAlgorithm> getWorkers() {
+		synchronized (workers) {
+			return new ArrayList<>(workers);
+		}
+	}
+
+	/**
+	 * Wait for the next unifier.
+	 *
+	 * @param budget
+	 *            the budget limiting the waiting time
+	 * @return {@link UnificationStatus#FOUND} if a new unifier is available,
+	 *         {@link UnificationStatus#EXHAUSTED} if the whole search tree has
+	 *         been explored, and {@link UnificationStatus#BUDGET_EXCEEDED} if
+	 *         the deadline passed first
+	 * @throws InterruptedException
+	 *             if the search was cancelled
+	 */
+	UnificationStatus next(Budget budget) throws InterruptedException {
+		while (true) {
+			token.check();
+			if (budget.isExpired()) {
+				return UnificationStatus.BUDGET_EXCEEDED;
+			}
+			boolean done = finished;
+			Unifier next = unifiers.poll(Math.min(pollMillis, Math.max(1, budget.getRemainingMillis())),
+					TimeUnit.MILLISECONDS);
+			if (next != null) {
+				current = next;
+				return UnificationStatus.FOUND;
+			}
+			if (done) {
+				// all unifiers were added before 'finished' was set
+				if (error.get() != null) {
+					throw error.get();
+				}
+				return UnificationStatus.EXHAUSTED;
+			}
+		}
+	}
+
+	/**
+	 * Set the token that cancels the search.
+	 *
+	 * @param token
+	 *            the cancellation token
+	 */
+	void setCancellationToken(CancellationToken token) {
+		this.token = token;
+	}
+
+	/**
+	 * Stop all workers and release the thread pool.
+	 */
+	void stop() {
+		stopped = true;
+		pool.shutdownNow();
+	}
+
+	/**
+	 * A task exploring the subtree below a node of the search tree.
+	 */
+	final class Task extends CountedCompleter<Void> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<Result> path;
+
+		private Task(Task parent, List<Result> path) {
+			super(parent);
+			this.path = path;
+		}
+
+		@Override
+		public void compute() {
+			try {
+				if (!stopped) {
+					states.get().explore(path, ParallelSearch.this, this);
+				}
+			} catch (InterruptedException e) {
+				// the search was stopped
+			} catch (RuntimeException e) {
+				error.compareAndSet(null, e);
+				stopped = true;
+			}
+			tryComplete();
+		}
+
+		/**
+		 * Give away the subtree below another node as a new task.
+		 *
+		 * @param path
+		 *            the rule applications leading from the root of the search
+		 *            tree to the node
+		 */
+		void fork(List<Result> path) {
+			addToPendingCount(1);
+			new Task(this, path).fork();
+		}
+
+		/**
+		 * Checks whether the other workers need more tasks.
+		 *
+		 * @return true iff there are no queued tasks that could be stolen
+		 */
+		boolean isHungry() {
+			return getSurplusQueuedTaskCount() <= 0;
+		}
+
+		@Override
+		public void onCompletion(CountedCompleter<?> caller) {
+			if (getCompleter() == null) {
+				finished = true;
+			}
+		}
+
+	}
+
+}
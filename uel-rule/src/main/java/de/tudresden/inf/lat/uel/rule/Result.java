@@ -19,7 +19,7 @@ public final class Result {
 	private final Set<FlatSubsumption> newUnsolvedSubsumptions = new HashSet<>();
 	private final Set<FlatSubsumption> newSolvedSubsumptions = new HashSet<>();
 	private final Set<FlatSubsumption> solvedSubsumptions = new HashSet<>();
-	private final Assignment newSubsumers = new Assignment();
+	private final Assignment newSubsumers;
 	private boolean successful;
 
 	/**
@@ -36,11 +36,31 @@ public final class Result {
 		this.subsumption = subsumption;
 		this.application = application;
 		this.successful = successful;
+		this.newSubsumers = new Assignment(null);
 	}
 
 	/**
 	 * Construct a new rule application result, assuming that the application
-	 * was successful.
+	 * was successful, that can contain new subsumers of variables.
+	 * 
+	 * @param subsumption
+	 *            the subsumption that triggered the rule application
+	 * @param application
+	 *            the rule application
+	 * @param assign
+	 *            the current assignment, whose atom ranks are also used for
+	 *            the new subsumers
+	 */
+	public Result(FlatSubsumption subsumption, Application application, Assignment assign) {
+		this.subsumption = subsumption;
+		this.application = application;
+		this.successful = true;
+		this.newSubsumers = new Assignment(assign.getIndex());
+	}
+
+	/**
+	 * Construct a new rule application result, assuming that the application
+	 * was successful and does not assign new subsumers.
 	 * 
 	 * @param subsumption
 	 *            the subsumption that triggered the rule application
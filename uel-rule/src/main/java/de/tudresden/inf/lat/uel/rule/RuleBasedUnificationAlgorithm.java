@@ -4,6 +4,7 @@ import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -26,6 +27,9 @@ import de.tudresden.inf.lat.uel.type.api.AtomManager;
 import de.tudresden.inf.lat.uel.type.api.Definition;
 import de.tudresden.inf.lat.uel.type.api.Goal;
 import de.tudresden.inf.lat.uel.type.api.UnificationAlgorithm;
+import de.tudresden.inf.lat.uel.type.impl.Budget;
+import de.tudresden.inf.lat.uel.type.impl.CancellationToken;
+import de.tudresden.inf.lat.uel.type.impl.UnificationStatus;
 import de.tudresden.inf.lat.uel.type.impl.Unifier;
 
 /**
@@ -53,6 +57,8 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 	private static final String keyTreeSize = "Size of the search tree (so far)";
 	private static final String keyDeadEnds = "Number of encountered dead ends (so far)";
 	private static final String keyNumberOfVariables = "Number of variables";
+	private static final String keySelectionHeuristic = "Selection heuristic";
+	private static final String keyNumberOfThreads = "Number of threads";
 	private static final String algorithmName = "Rule-based algorithm";
 
 	private List<EagerRule> staticEagerRules;
@@ -61,13 +67,18 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 
 	private Goal input;
 	private NormalizedGoal goal;
-	private Assignment assignment;
+	private final Assignment assignment;
+	private final Trail trail;
 	private final int initialSize;
 	private int treeSize = 1;
 	private int deadEnds = 0;
 	private final int numVariables;
 
 	private Deque<Result> searchStack = null;
+	private boolean suspended = false;
+	private CancellationToken cancellationToken = new CancellationToken();
+	private final int parallelism;
+	private ParallelSearch parallelSearch = null;
 
 	/**
 	 * Initialize a new unification problem with goal subsumptions.
@@ -77,13 +88,37 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 	 *            solved
 	 */
 	public RuleBasedUnificationAlgorithm(Goal input) {
+		this(input, 1);
+	}
+
+	/**
+	 * Initialize a new unification problem with goal subsumptions, whose
+	 * search tree is explored by several threads.
+	 * 
+	 * Each thread owns a copy of the search state, which it moves to a node of
+	 * the search tree by replaying the rule applications leading to this node
+	 * from the root. When the pool runs out of work, a thread gives away the
+	 * alternatives at the shallowest node of its subtree that has any. The
+	 * unifiers are returned in the order in which they are found, and the
+	 * conflict limit of a budget is ignored.
+	 * 
+	 * @param input
+	 *            a UelInput object that will return the subsumptions to be
+	 *            solved
+	 * @param parallelism
+	 *            the number of threads; the value 1 disables the parallel
+	 *            search
+	 */
+	public RuleBasedUnificationAlgorithm(Goal input, int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
 		this.goal = new NormalizedGoal(input);
 		this.input = input;
 		if (input.hasNegativePart()) {
 			throw new UnsupportedOperationException(
 					"The rule-based algorithm cannot deal with dissubsubmptions or disequations!");
 		}
-		this.assignment = new Assignment();
+		this.assignment = new Assignment(new AtomIndex(goal, input.getAtomManager()));
+		this.trail = new Trail(goal, assignment);
 		this.initialSize = goal.size();
 		this.numVariables = input.getAtomManager().getVariables().size();
 
@@ -91,7 +126,7 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 			if (sub.getHead().isVariable()) {
 				// subsumptions with a variable on the right-hand side are
 				// always solved
-				sub.setSolved(true);
+				goal.setSolved(sub, true);
 			}
 		}
 
@@ -100,8 +135,14 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 
 	@Override
 	public void cleanup() {
+		if (parallelSearch != null) {
+			parallelSearch.stop();
+			parallelSearch = null;
+		}
 		// reset computation of results
+		trail.reset();
 		searchStack = null;
+		suspended = false;
 	}
 
 	public Goal getGoal() {
@@ -117,9 +158,19 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 		addEntry(ret, keyName, algorithmName);
 		addEntry(ret, keyInitialSubs, "" + initialSize);
 		addEntry(ret, keyMaxSubs, "" + goal.getMaxSize());
-		addEntry(ret, keyTreeSize, "" + treeSize);
-		addEntry(ret, keyDeadEnds, "" + deadEnds);
+		int totalTreeSize = treeSize;
+		int totalDeadEnds = deadEnds;
+		if (parallelSearch != null) {
+			for (RuleBasedUnificationAlgorithm worker : parallelSearch.getWorkers()) {
+				totalTreeSize += worker.treeSize - 1;
+				totalDeadEnds += worker.deadEnds;
+			}
+		}
+		addEntry(ret, keyTreeSize, "" + totalTreeSize);
+		addEntry(ret, keyDeadEnds, "" + totalDeadEnds);
 		addEntry(ret, keyNumberOfVariables, "" + numVariables);
+		addEntry(ret, keySelectionHeuristic, goal.getSelectionHeuristic().toString());
+		addEntry(ret, keyNumberOfThreads, "" + parallelism);
 		return ret;
 	}
 
@@ -149,73 +200,315 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 	 *         subsumptions
 	 */
 	public boolean computeNextUnifier() throws InterruptedException {
-		if (searchStack == null) {
-			searchStack = new ArrayDeque<>();
+		return computeNextUnifier(Budget.UNLIMITED) == UnificationStatus.FOUND;
+	}
 
-			// apply eager rules to each unsolved subsumption
-			Result res = applyEagerRules(goal, staticEagerRules, null);
-			if (!res.wasSuccessful())
-				return false;
-			for (FlatSubsumption sub : res.getSolvedSubsumptions()) {
-				sub.setSolved(true);
+	/**
+	 * {@inheritDoc} Each dead end of the search tree counts as a conflict. If
+	 * the budget is exceeded, the search is suspended and continues from the
+	 * same node of the search tree in the next call. In a parallel search, the
+	 * threads continue the search in the background, and the conflict limit is
+	 * ignored.
+	 */
+	@Override
+	public UnificationStatus computeNextUnifier(Budget budget) throws InterruptedException {
+		if (budget == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		cancellationToken.check();
+		if (budget.isExpired()) {
+			return UnificationStatus.BUDGET_EXCEEDED;
+		}
+
+		if (parallelism > 1) {
+			if (parallelSearch == null) {
+				parallelSearch = new ParallelSearch(parallelism, this::newWorker, cancellationToken);
 			}
-			Assignment tmp = new Assignment();
-			res = applyEagerRules(goal, dynamicEagerRules, tmp);
-			if (!res.wasSuccessful())
-				return false;
-			if (!commitResult(res, tmp))
-				return false;
+			UnificationStatus status = parallelSearch.next(budget);
+			if (status == UnificationStatus.EXHAUSTED) {
+				// release the threads of the pool
+				parallelSearch.stop();
+			}
+			return status;
+		}
 
-			// exhaustively apply eager rules to the result of this initial
-			// iteration
-			applyEagerRules(res);
+		if (searchStack == null) {
+			if (!initialize())
+				return UnificationStatus.EXHAUSTED;
+		} else if (suspended) {
+			// continue the search where it was suspended
+			suspended = false;
 		} else {
 			// we already have a search stack --> try to backtrack from last
 			// solution
-			if (!backtrack()) {
-				return false;
+			if (!backtrack(0)) {
+				return UnificationStatus.EXHAUSTED;
 			}
 		}
-		return solve();
+		return solve(budget);
+	}
+
+	/**
+	 * Start the search by exhaustively applying the eager rules to the goal
+	 * subsumptions.
+	 * 
+	 * @return true iff all rule applications were successful
+	 */
+	private boolean initialize() {
+		searchStack = new ArrayDeque<>();
+
+		// apply eager rules to each unsolved subsumption
+		Result res = applyEagerRules(goal, staticEagerRules, false);
+		if (!res.wasSuccessful())
+			return false;
+		for (FlatSubsumption sub : res.getSolvedSubsumptions()) {
+			trail.solve(sub);
+		}
+		res = applyEagerRules(goal, dynamicEagerRules, true);
+		if (!res.wasSuccessful())
+			return false;
+		if (!commitResult(res, true))
+			return false;
+
+		// exhaustively apply eager rules to the result of this initial
+		// iteration
+		return applyEagerRules(res);
+	}
+
+	private RuleBasedUnificationAlgorithm newWorker() {
+		RuleBasedUnificationAlgorithm worker = new RuleBasedUnificationAlgorithm(input);
+		worker.setSelectionHeuristic(goal.getSelectionHeuristic());
+		return worker;
+	}
+
+	/**
+	 * Explores the subtree of the search tree below a given node, as a task of
+	 * a parallel search. The node is reached by replaying a sequence of rule
+	 * applications, starting from the root. The alternatives at the nodes on
+	 * this path belong to other tasks. If the other workers are idle, the
+	 * alternatives at the shallowest node below that has any are given away
+	 * as new tasks.
+	 * 
+	 * @param path
+	 *            the rule applications leading to the node, which may have
+	 *            been obtained by another instance of this class
+	 * @param search
+	 *            the parallel search
+	 * @param task
+	 *            the current task
+	 * @throws InterruptedException
+	 *             if the search was stopped
+	 */
+	void explore(List<Result> path, ParallelSearch search, ParallelSearch.Task task) throws InterruptedException {
+		cleanup();
+		if (!initialize())
+			return;
+		for (Result step : path) {
+			search.check();
+			if (!replay(step))
+				return;
+		}
+		if (!path.isEmpty()) {
+			treeSize++;
+		}
+
+		int minDepth = path.size();
+		while (true) {
+			search.check();
+			FlatSubsumption sub = goal.getNextUnsolvedSubsumption();
+			if (sub == null) {
+				search.addUnifier(getUnifier());
+			} else if (applyNextNondeterministicRule(sub, null)) {
+				if (task.isHungry()) {
+					minDepth = donate(minDepth, task);
+				}
+				continue;
+			} else {
+				deadEnds++;
+			}
+			if (!backtrack(minDepth))
+				return;
+		}
+	}
+
+	/**
+	 * Gives away the alternatives at the shallowest node on the search stack
+	 * that has any, starting at a given depth.
+	 * 
+	 * @param minDepth
+	 *            the depth of the shallowest node whose alternatives belong to
+	 *            this worker
+	 * @param task
+	 *            the current task
+	 * @return the new minimal depth
+	 */
+	private int donate(int minDepth, ParallelSearch.Task task) {
+		List<Result> nodes = new ArrayList<>(searchStack);
+		Collections.reverse(nodes);
+		for (int depth = minDepth; depth < nodes.size(); depth++) {
+			List<Result> alternatives = getAlternatives(nodes.get(depth));
+			if (!alternatives.isEmpty()) {
+				for (Result alternative : alternatives) {
+					List<Result> path = new ArrayList<>(nodes.subList(0, depth));
+					path.add(alternative);
+					task.fork(path);
+				}
+				return depth + 1;
+			}
+		}
+		return nodes.size();
+	}
+
+	/**
+	 * Returns the rule applications that have not been tried yet at a node of
+	 * the search tree. The nondeterministic rules do not depend on the
+	 * assignment to find their applications, so that the current assignment
+	 * can be used instead of the one at the node.
+	 * 
+	 * @param node
+	 *            the entry of the search stack
+	 * @return the remaining applications
+	 */
+	private List<Result> getAlternatives(Result node) {
+		List<Result> alternatives = new ArrayList<>();
+		FlatSubsumption sub = node.getSubsumption();
+		Rule.Application previous = node.getApplication();
+		Iterator<Rule> iter = nondeterministicRules.listIterator(indexOfRule(previous));
+		while (iter.hasNext()) {
+			Rule rule = iter.next();
+			Rule.Application next = (previous == null) ? rule.getFirstApplication(sub, assignment)
+					: rule.getNextApplication(sub, assignment, previous);
+			while (next != null) {
+				alternatives.add(new Result(sub, next));
+				next = rule.getNextApplication(sub, assignment, next);
+			}
+			previous = null;
+		}
+		return alternatives;
+	}
+
+	/**
+	 * Returns the position of the rule that was applied in the list of
+	 * nondeterministic rules. The application may have been obtained by
+	 * another instance of this class.
+	 * 
+	 * @param application
+	 *            the rule application
+	 * @return the position of the rule
+	 */
+	private int indexOfRule(Rule.Application application) {
+		for (int i = 0; i < nondeterministicRules.size(); i++) {
+			if (nondeterministicRules.get(i).getClass() == application.rule().getClass()) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Unknown rule application: " + application);
+	}
+
+	/**
+	 * Applies a nondeterministic rule application that was obtained from
+	 * another search state with the same path from the root.
+	 * 
+	 * @param step
+	 *            the entry of the search stack of the other search state
+	 * @return true iff the application and the subsequent application of the
+	 *         eager rules were successful
+	 */
+	private boolean replay(Result step) {
+		FlatSubsumption sub = goal.getUnsolvedSubsumption(step.getSubsumption());
+		if (sub == null) {
+			throw new IllegalStateException("Cannot replay the rule application " + step.getApplication() + " to "
+					+ step.getSubsumption() + ".");
+		}
+		Rule rule = nondeterministicRules.get(indexOfRule(step.getApplication()));
+		Result res = rule.apply(sub, assignment, step.getApplication());
+		return res.wasSuccessful() && commitBranch(res);
+	}
+
+	/**
+	 * {@inheritDoc} The token is checked before each step of the search.
+	 */
+	@Override
+	public void setCancellationToken(CancellationToken token) {
+		if (token == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		cancellationToken = token;
+		if (parallelSearch != null) {
+			parallelSearch.setCancellationToken(token);
+		}
+	}
+
+	/**
+	 * Sets the heuristic that selects the next unsolved subsumption to which a
+	 * nondeterministic rule is applied. The default is
+	 * {@link SelectionHeuristic#FAIL_FIRST}.
+	 * 
+	 * @param heuristic
+	 *            the selection heuristic
+	 */
+	public void setSelectionHeuristic(SelectionHeuristic heuristic) {
+		if (heuristic == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		goal.setSelectionHeuristic(heuristic);
 	}
 
 	@Override
 	public Unifier getUnifier() {
+		if (parallelSearch != null) {
+			return parallelSearch.getUnifier();
+		}
+
 		// convert current assignment to a set of definitions
 		AtomManager atomManager = input.getAtomManager();
+		AtomIndex index = assignment.getIndex();
 		Set<Definition> definitions = new HashSet<>();
 		for (Integer varId : atomManager.getVariables()) {
 			Set<Integer> body = new HashSet<>();
-			for (Atom subsumer : assignment.getSubsumers(atomManager.getAtom(varId))) {
-				body.add(atomManager.getIndex(subsumer));
+			int var = index.getRank(atomManager.getAtom(varId));
+			for (int at = assignment.nextSubsumer(var, 0); at >= 0; at = assignment.nextSubsumer(var, at + 1)) {
+				body.add(index.getId(at));
 			}
 			definitions.add(new Definition(varId, body, false));
 		}
 		return new Unifier(definitions);
 	}
 
-	private boolean solve() throws InterruptedException {
+	private UnificationStatus solve(Budget budget) throws InterruptedException {
+		long maxDeadEnds = budget.hasConflictLimit() ? deadEnds + budget.getMaxConflicts() : Long.MAX_VALUE;
 		while (true) {
 
-			if (Thread.interrupted()) {
-				throw new InterruptedException();
+			cancellationToken.check();
+			if (budget.isExpired() || deadEnds >= maxDeadEnds) {
+				suspended = true;
+				return UnificationStatus.BUDGET_EXCEEDED;
 			}
 
-			FlatSubsumption sub = chooseUnsolvedSubsumption();
+			FlatSubsumption sub = goal.getNextUnsolvedSubsumption();
 			if (sub == null)
-				return true;
+				return UnificationStatus.FOUND;
 			if (applyNextNondeterministicRule(sub, null))
 				continue;
 			deadEnds++;
-			if (!backtrack())
-				return false;
+			if (!backtrack(0))
+				return UnificationStatus.EXHAUSTED;
 		}
 	}
 
-	private boolean backtrack() {
-		while (!searchStack.isEmpty()) {
+	/**
+	 * Backtrack to the next alternative on the search stack.
+	 * 
+	 * @param minDepth
+	 *            the number of entries at the bottom of the search stack whose
+	 *            alternatives are not tried
+	 * @return true iff an alternative was found
+	 */
+	private boolean backtrack(int minDepth) {
+		while (searchStack.size() > minDepth) {
 			Result res = searchStack.pop();
-			rollBackResult(res);
+			trail.backtrack();
 			if (applyNextNondeterministicRule(res.getSubsumption(), res.getApplication())) {
 				return true;
 			}
@@ -223,29 +516,47 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 		return false;
 	}
 
-	private FlatSubsumption chooseUnsolvedSubsumption() {
-		for (FlatSubsumption sub : goal) {
-			if (!sub.isSolved())
-				return sub;
-		}
-		return null;
-	}
-
-	private Result applyEagerRules(Collection<FlatSubsumption> subs, List<EagerRule> rules,
-			Assignment currentAssignment) {
-		Result res = new Result(null, null);
+	/**
+	 * Apply the first applicable eager rule to each of the given unsolved
+	 * subsumptions.
+	 * 
+	 * @param subs
+	 *            the subsumptions
+	 * @param rules
+	 *            the eager rules
+	 * @param assign
+	 *            a flag indicating whether the rules depend on the current
+	 *            assignment; if it is 'true', the new subsumers of each rule
+	 *            application are assigned immediately, so that subsequent
+	 *            rule applications take them into account, and the result
+	 *            contains only those subsumers that were not assigned before
+	 * @return the combined result of the rule applications, or the result of
+	 *         the first rule application that failed
+	 */
+	private Result applyEagerRules(Collection<FlatSubsumption> subs, List<EagerRule> rules, boolean assign) {
+		Result res = new Result(null, null, assignment);
 		for (FlatSubsumption sub : subs) {
 			if (!sub.isSolved()) {
 				for (Rule rule : rules) {
-					Result r = tryApplyRule(sub, rule, null, currentAssignment);
+					Result r = tryApplyRule(sub, rule, null, assign ? assignment : null);
 					if (r == null)
 						continue;
 					if (!r.wasSuccessful())
 						return r;
 					res.getSolvedSubsumptions().add(sub);
-					res.getNewSubsumers().addAll(r.getNewSubsumers());
-					if (currentAssignment != null) {
-						currentAssignment.addAll(r.getNewSubsumers());
+					if (assign) {
+						Assignment newSubsumers = r.getNewSubsumers();
+						for (int i = 0; i < newSubsumers.getNumberOfKeys(); i++) {
+							int var = newSubsumers.getKey(i);
+							for (int at = newSubsumers.nextSubsumer(var, 0); at >= 0; at = newSubsumers
+									.nextSubsumer(var, at + 1)) {
+								if (trail.assign(var, at)) {
+									res.getNewSubsumers().add(var, at);
+								}
+							}
+						}
+					} else {
+						res.getNewSubsumers().addAll(r.getNewSubsumers());
 					}
 					break;
 				}
@@ -255,8 +566,7 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 	}
 
 	private boolean applyNextNondeterministicRule(FlatSubsumption sub, Rule.Application previous) {
-		Iterator<Rule> iter = nondeterministicRules
-				.listIterator((previous == null) ? 0 : nondeterministicRules.indexOf(previous.rule()));
+		Iterator<Rule> iter = nondeterministicRules.listIterator((previous == null) ? 0 : indexOfRule(previous));
 
 		while (iter.hasNext()) {
 			Rule rule = iter.next();
@@ -269,22 +579,9 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 					continue;
 
 				// now 'res' is the result of a successful nondeterministic rule
-				// application ->
-				// apply eager rules, put result on the stack
-				if (!commitResult(res, null)) {
-					// application of static eager rules failed -> roll back
-					// changes and continue search
-					deadEnds++;
-					rollBackResult(res);
+				// application
+				if (!commitBranch(res))
 					continue;
-				}
-				if (!applyEagerRules(res)) {
-					// exhaustive application of eager rules failed
-					deadEnds++;
-					rollBackResult(res);
-					continue;
-				}
-				searchStack.push(res);
 				treeSize++;
 				return true;
 			}
@@ -293,25 +590,54 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 		return false;
 	}
 
+	/**
+	 * Applies the eager rules to the result of a successful nondeterministic
+	 * rule application in a new decision level, and puts the result on the
+	 * search stack.
+	 * 
+	 * @param res
+	 *            the result of the rule application
+	 * @return true iff all rule applications were successful; otherwise, the
+	 *         changes are rolled back
+	 */
+	private boolean commitBranch(Result res) {
+		trail.newLevel();
+		if (!commitResult(res, false)) {
+			// application of static eager rules failed -> roll back
+			// changes and continue search
+			deadEnds++;
+			trail.backtrack();
+			return false;
+		}
+		if (!applyEagerRules(res)) {
+			// exhaustive application of eager rules failed
+			deadEnds++;
+			trail.backtrack();
+			return false;
+		}
+		// the changes are recorded by the trail, so only the rule
+		// application is needed for backtracking
+		searchStack.push(new Result(res.getSubsumption(), res.getApplication()));
+		return true;
+	}
+
 	/**
 	 * Exhaustively apply all applicable eager rules to the goal subsumptions.
 	 * 
 	 * @param parent
-	 *            the previous result of a nondeterministic rule application to
-	 *            which the results of the eager rule applications should be
-	 *            added; if it is 'null', then no results are stored
+	 *            the committed result of the previous rule application, whose
+	 *            new subsumptions and subsumers trigger the eager rules
 	 * @return true iff all rule applications were successful
 	 */
 	private boolean applyEagerRules(Result parent) {
 		Result currentResult = parent;
-		Result nextResult = new Result(null, null);
-		Assignment tmp = new Assignment(assignment);
 
 		do {
+			Result nextResult = new Result(null, null, assignment);
 
 			// apply dynamic eager rules to each new unsolved subsumption
 			{
-				Result res = applyEagerRules(currentResult.getNewUnsolvedSubsumptions(), dynamicEagerRules, tmp);
+				Result res = applyEagerRules(currentResult.getNewUnsolvedSubsumptions(), dynamicEagerRules, true);
 				if (!res.wasSuccessful())
 					return false;
 				nextResult.getSolvedSubsumptions().addAll(res.getSolvedSubsumptions());
@@ -320,9 +646,12 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 
 			// apply dynamic eager rules for each new assignment
 			Assignment newSubsumers = currentResult.getNewSubsumers();
-			for (Atom var : newSubsumers.getKeys()) {
-				if (!newSubsumers.getSubsumers(var).isEmpty()) {
-					Result res = applyEagerRules(goal.getSubsumptionsByBodyVariable(var), dynamicEagerRules, tmp);
+			for (int i = 0; i < newSubsumers.getNumberOfKeys(); i++) {
+				int var = newSubsumers.getKey(i);
+				if (newSubsumers.nextSubsumer(var, 0) >= 0) {
+					Result res = applyEagerRules(
+							goal.getSubsumptionsByBodyVariable(assignment.getIndex().getAtom(var)), dynamicEagerRules,
+							true);
 					if (!res.wasSuccessful())
 						return false;
 					nextResult.getSolvedSubsumptions().addAll(res.getSolvedSubsumptions());
@@ -330,14 +659,10 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 				}
 			}
 
-			boolean commitSuccessful = commitResult(nextResult, tmp);
-			parent.amend(nextResult);
-			if (!commitSuccessful)
+			if (!commitResult(nextResult, true))
 				return false;
 
 			currentResult = nextResult;
-			nextResult = new Result(null, null);
-			tmp = new Assignment(assignment);
 		} while (!currentResult.getNewSubsumers().isEmpty() || !currentResult.getNewUnsolvedSubsumptions().isEmpty());
 
 		return true;
@@ -377,30 +702,31 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 	 * In the process, the result is changed to reflect the exact changes that
 	 * are made. For example, a created subsumption that is already in the goal
 	 * is removed from the result. Additionally, the result of goal expansion is
-	 * added to the result.
+	 * added to the result. All changes are recorded by the trail.
 	 * 
 	 * @param res
 	 *            the result to be considered; will be changed in-place
-	 * @param newAssignment
-	 *            the new assignment that will replace the current assignment;
-	 *            if this is 'null', then the change will be computed from
-	 *            'res.getNewSubsumers()'
+	 * @param assigned
+	 *            a flag indicating whether 'res.getNewSubsumers()' have
+	 *            already been assigned (and contain only the subsumers that
+	 *            were not assigned before); if it is 'false', they are
+	 *            assigned here
 	 * @return <code>true</code> if and only if the execution was successful
 	 */
-	private boolean commitResult(Result res, Assignment newAssignment) {
+	private boolean commitResult(Result res, boolean assigned) {
 		// solve subsumption that triggered the rule
 		if (res.getSubsumption() != null) {
-			res.getSubsumption().setSolved(true);
+			trail.solve(res.getSubsumption());
 		}
 
 		// add new unsolved subsumptions to the goal
 		res.getNewUnsolvedSubsumptions().removeAll(goal);
-		goal.addAll(res.getNewUnsolvedSubsumptions());
 		for (FlatSubsumption sub : res.getNewUnsolvedSubsumptions()) {
+			trail.add(sub);
 			if (sub.getHead().isVariable()) {
 				// subsumptions with a variable on the right-hand side are
 				// always solved
-				sub.setSolved(true);
+				trail.solve(sub);
 				res.getNewSolvedSubsumptions().add(sub);
 			}
 		}
@@ -412,55 +738,42 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 			 * we can assume that all new solved subsumptions have a variable in
 			 * the head
 			 */
-			Set<FlatSubsumption> newSubs = goal.expand(sub, assignment.getSubsumers(sub.getHead()));
+			Set<FlatSubsumption> newSubs = trail.expand(sub, assignment.getSubsumers(sub.getHead()));
 			res.getNewUnsolvedSubsumptions().addAll(newSubs);
 		}
 
 		// solve subsumptions in 'res.solvedSubsumptions'
 		for (FlatSubsumption sub : res.getSolvedSubsumptions()) {
-			sub.setSolved(true);
+			trail.solve(sub);
 		}
 
 		// update current assignment
-		res.getNewSubsumers().removeAll(assignment);
-		if (newAssignment == null) {
-			assignment.addAll(res.getNewSubsumers());
-		} else {
-			assignment = newAssignment;
+		if (!assigned) {
+			Assignment newSubsumers = res.getNewSubsumers();
+			for (int i = 0; i < newSubsumers.getNumberOfKeys(); i++) {
+				int var = newSubsumers.getKey(i);
+				for (int at = newSubsumers.nextSubsumer(var, 0); at >= 0; at = newSubsumers.nextSubsumer(var,
+						at + 1)) {
+					if (!trail.assign(var, at)) {
+						newSubsumers.remove(var, at);
+					}
+				}
+			}
 		}
 
 		// goal expansion (II)
-		Set<FlatSubsumption> newSubs = goal.expand(res.getNewSubsumers());
+		Set<FlatSubsumption> newSubs = trail.expand(res.getNewSubsumers());
 		res.getNewUnsolvedSubsumptions().addAll(newSubs);
 
 		// try to solve new unsolved subsumptions by static eager rules
-		Result eagerRes = applyEagerRules(res.getNewUnsolvedSubsumptions(), staticEagerRules, null);
+		Result eagerRes = applyEagerRules(res.getNewUnsolvedSubsumptions(), staticEagerRules, false);
 		if (!eagerRes.wasSuccessful())
 			return false;
 		for (FlatSubsumption sub : eagerRes.getSolvedSubsumptions()) {
-			sub.setSolved(true);
+			trail.solve(sub);
 		}
 		res.amend(eagerRes);
 		return true;
 	}
 
-	/**
-	 * Undo the changes made to the goal by a result.
-	 * 
-	 * @param res
-	 *            the result to undo
-	 */
-	private void rollBackResult(Result res) {
-
-		assignment.removeAll(res.getNewSubsumers());
-		goal.removeAll(res.getNewSolvedSubsumptions());
-		goal.removeAll(res.getNewUnsolvedSubsumptions());
-
-		for (FlatSubsumption sub : res.getSolvedSubsumptions()) {
-			sub.setSolved(false);
-		}
-
-		res.getSubsumption().setSolved(false);
-	}
-
 }
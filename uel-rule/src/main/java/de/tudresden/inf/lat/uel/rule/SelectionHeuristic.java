@@ -0,0 +1,77 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import de.tudresden.inf.lat.uel.type.api.Atom;
+import de.tudresden.inf.lat.uel.type.impl.ExistentialRestriction;
+
+/**
+ * The heuristics available for selecting the next unsolved subsumption to
+ * which a nondeterministic rule is applied by the rule-based algorithm. The
+ * priority of a subsumption is computed when it becomes unsolved.
+ *
+ * @author Stefan Borgwardt
+ */
+public enum SelectionHeuristic {
+
+	/**
+	 * Selects the subsumption with the fewest applications of nondeterministic
+	 * rules, so that dead ends are found as early as possible.
+	 */
+	FAIL_FIRST,
+
+	/** Selects the subsumptions in the order in which they became unsolved. */
+	FIFO,
+
+	/**
+	 * Selects a subsumption whose body contains the variable that occurs in
+	 * the bodies of the most goal subsumptions, so that the choices for the
+	 * most constrained variables are made first.
+	 */
+	MOST_CONSTRAINED_VARIABLE;
+
+	/**
+	 * Computes the priority of an unsolved subsumption. Subsumptions with a
+	 * lower priority are selected first.
+	 *
+	 * @param sub
+	 *            the subsumption
+	 * @param goal
+	 *            the goal containing the subsumption
+	 * @return the priority
+	 */
+	int getPriority(FlatSubsumption sub, NormalizedGoal goal) {
+		switch (this) {
+		case FAIL_FIRST:
+			return countChoices(sub);
+		case MOST_CONSTRAINED_VARIABLE:
+			int max = 0;
+			for (Atom at : sub.getBody()) {
+				if (at.isVariable()) {
+					max = Math.max(max, goal.getSubsumptionsByBodyVariable(at).size());
+				}
+			}
+			return -max;
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * Counts the possible applications of the rules 'Decomposition' and
+	 * 'Extension' to a subsumption.
+	 */
+	private static int countChoices(FlatSubsumption sub) {
+		Integer role = sub.getHead().isExistentialRestriction()
+				? ((ExistentialRestriction) sub.getHead()).getRoleId() : null;
+		int choices = 0;
+		for (Atom at : sub.getBody()) {
+			if (at.isVariable()) {
+				choices++;
+			} else if ((role != null) && at.isExistentialRestriction()
+					&& ((ExistentialRestriction) at).getRoleId().equals(role)) {
+				choices++;
+			}
+		}
+		return choices;
+	}
+
+}
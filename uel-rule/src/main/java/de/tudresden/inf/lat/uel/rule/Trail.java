@@ -0,0 +1,195 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import de.tudresden.inf.lat.uel.type.api.Atom;
+
+/**
+ * An undo log of the changes made to the state of the rule-based search, i.e.,
+ * to the current assignment, to the set of goal subsumptions, and to the
+ * 'solved' flags of the subsumptions. All changes to the state have to be made
+ * through this class.
+ *
+ * The changes are grouped into decision levels, one for each nondeterministic
+ * rule application on the search stack. Backtracking undoes the changes of the
+ * last level in reverse order, which takes time linear in the number of these
+ * changes, and no copies of the assignment are needed.
+ *
+ * @author Stefan Borgwardt
+ */
+class Trail {
+
+	private static final byte assignedAtom = 0;
+	private static final byte addedSubsumption = 1;
+	private static final byte solvedSubsumption = 2;
+
+	private final Assignment assignment;
+	private final NormalizedGoal goal;
+	private byte[] kinds = new byte[64];
+	private int[] levels = new int[16];
+	private int numberOfLevels = 0;
+	private int size = 0;
+	private Object[] subjects = new Object[64];
+	private int[] values = new int[64];
+	private int[] variables = new int[64];
+
+	/**
+	 * Construct a new empty trail for the given search state.
+	 *
+	 * @param goal
+	 *            the goal subsumptions
+	 * @param assignment
+	 *            the current assignment
+	 */
+	Trail(NormalizedGoal goal, Assignment assignment) {
+		this.goal = goal;
+		this.assignment = assignment;
+	}
+
+	/**
+	 * Add a new subsumption to the goal.
+	 *
+	 * @param sub
+	 *            the new subsumption
+	 * @return true iff the subsumption was not already in the goal
+	 */
+	boolean add(FlatSubsumption sub) {
+		if (!goal.add(sub)) {
+			return false;
+		}
+		push(addedSubsumption, sub);
+		return true;
+	}
+
+	/**
+	 * Add an atom to the assignment of a variable.
+	 *
+	 * @param var
+	 *            the rank of the variable
+	 * @param at
+	 *            the rank of the new atom
+	 * @return true iff the assignment was changed as a result of this operation
+	 */
+	boolean assign(int var, int at) {
+		if (!assignment.add(var, at)) {
+			return false;
+		}
+		push(assignedAtom, null);
+		variables[size - 1] = var;
+		values[size - 1] = at;
+		return true;
+	}
+
+	/**
+	 * Undo the changes of the last decision level and remove this level.
+	 */
+	void backtrack() {
+		if (numberOfLevels == 0) {
+			throw new IllegalStateException("There is no decision level to backtrack from.");
+		}
+		numberOfLevels--;
+		undoTo(levels[numberOfLevels]);
+	}
+
+	/**
+	 * Expand all goal subsumptions with a certain variable on the right-hand
+	 * side using a set of new subsumers, see
+	 * {@link NormalizedGoal#expand(Assignment)}.
+	 *
+	 * @param assign
+	 *            an assignment specifying the new subsumers
+	 * @return a set containing the subsumptions added as a result of this
+	 *         operation
+	 */
+	Set<FlatSubsumption> expand(Assignment assign) {
+		return log(goal.expand(assign));
+	}
+
+	/**
+	 * Expand a goal subsumption using a set of subsumers, see
+	 * {@link NormalizedGoal#expand(FlatSubsumption, Set)}.
+	 *
+	 * @param sub
+	 *            a goal subsumption with a variable on the right-hand side
+	 * @param subsumers
+	 *            a set of subsumers of the variable
+	 * @return a set containing the subsumptions added as a result of this
+	 *         operation
+	 */
+	Set<FlatSubsumption> expand(FlatSubsumption sub, Set<Atom> subsumers) {
+		return log(goal.expand(sub, subsumers));
+	}
+
+	private Set<FlatSubsumption> log(Set<FlatSubsumption> newSubs) {
+		for (FlatSubsumption sub : newSubs) {
+			push(addedSubsumption, sub);
+		}
+		return newSubs;
+	}
+
+	/**
+	 * Start a new decision level. All following changes are undone by the next
+	 * call of {@link #backtrack()}.
+	 */
+	void newLevel() {
+		if (numberOfLevels == levels.length) {
+			levels = Arrays.copyOf(levels, 2 * levels.length);
+		}
+		levels[numberOfLevels] = size;
+		numberOfLevels++;
+	}
+
+	private void push(byte kind, Object subject) {
+		if (size == kinds.length) {
+			kinds = Arrays.copyOf(kinds, 2 * size);
+			subjects = Arrays.copyOf(subjects, 2 * size);
+			values = Arrays.copyOf(values, 2 * size);
+			variables = Arrays.copyOf(variables, 2 * size);
+		}
+		kinds[size] = kind;
+		subjects[size] = subject;
+		size++;
+	}
+
+	/**
+	 * Undo all changes, including those that were made before the first
+	 * decision level, and remove all decision levels.
+	 */
+	void reset() {
+		numberOfLevels = 0;
+		undoTo(0);
+	}
+
+	/**
+	 * Mark a subsumption as solved.
+	 *
+	 * @param sub
+	 *            the subsumption
+	 */
+	void solve(FlatSubsumption sub) {
+		if (!sub.isSolved()) {
+			goal.setSolved(sub, true);
+			push(solvedSubsumption, sub);
+		}
+	}
+
+	private void undoTo(int mark) {
+		while (size > mark) {
+			size--;
+			switch (kinds[size]) {
+			case assignedAtom:
+				assignment.remove(variables[size], values[size]);
+				break;
+			case addedSubsumption:
+				goal.remove(subjects[size]);
+				break;
+			default:
+				goal.setSolved((FlatSubsumption) subjects[size], false);
+				break;
+			}
+			subjects[size] = null;
+		}
+	}
+
+}
@@ -0,0 +1,188 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An indexed priority queue of the unsolved subsumptions of a goal. The order
+ * is determined by a {@link SelectionHeuristic}; subsumptions with the same
+ * priority are ordered by the time at which they were added. Adding, removing
+ * and selecting a subsumption take logarithmic time.
+ *
+ * @author Stefan Borgwardt
+ */
+class Worklist {
+
+	private final NormalizedGoal goal;
+	private FlatSubsumption[] heap = new FlatSubsumption[64];
+	private final SelectionHeuristic heuristic;
+	private final Map<FlatSubsumption, Integer> positions = new HashMap<>();
+	private int[] priorities = new int[64];
+	private long sequence = 0;
+	private long[] sequences = new long[64];
+	private int size = 0;
+
+	/**
+	 * Construct a new empty worklist.
+	 *
+	 * @param goal
+	 *            the goal containing the subsumptions
+	 * @param heuristic
+	 *            the heuristic that determines the priorities
+	 */
+	Worklist(NormalizedGoal goal, SelectionHeuristic heuristic) {
+		this.goal = goal;
+		this.heuristic = heuristic;
+	}
+
+	/**
+	 * Add a subsumption to this worklist.
+	 *
+	 * @param sub
+	 *            the unsolved subsumption
+	 * @return true iff the subsumption was not already contained in this
+	 *         worklist
+	 */
+	boolean add(FlatSubsumption sub) {
+		if (positions.containsKey(sub)) {
+			return false;
+		}
+		if (size == heap.length) {
+			heap = Arrays.copyOf(heap, 2 * size);
+			priorities = Arrays.copyOf(priorities, 2 * size);
+			sequences = Arrays.copyOf(sequences, 2 * size);
+		}
+		set(size, sub, heuristic.getPriority(sub, goal), sequence++);
+		size++;
+		siftUp(size - 1);
+		return true;
+	}
+
+	/**
+	 * Remove all subsumptions from this worklist.
+	 */
+	void clear() {
+		Arrays.fill(heap, 0, size, null);
+		positions.clear();
+		size = 0;
+	}
+
+	/**
+	 * Retrieve the subsumption in this worklist that is equal to the given one.
+	 *
+	 * @param sub
+	 *            a subsumption
+	 * @return the equal subsumption in this worklist, or 'null' if there is
+	 *         none
+	 */
+	FlatSubsumption get(FlatSubsumption sub) {
+		Integer position = positions.get(sub);
+		return (position == null) ? null : heap[position];
+	}
+
+	/**
+	 * Retrieve the heuristic that determines the order of this worklist.
+	 *
+	 * @return the selection heuristic
+	 */
+	SelectionHeuristic getHeuristic() {
+		return heuristic;
+	}
+
+	private boolean less(int i, int j) {
+		if (priorities[i] != priorities[j]) {
+			return priorities[i] < priorities[j];
+		}
+		return sequences[i] < sequences[j];
+	}
+
+	/**
+	 * Retrieve the subsumption that should be solved next, without removing
+	 * it.
+	 *
+	 * @return the subsumption with the least priority, or 'null' if this
+	 *         worklist is empty
+	 */
+	FlatSubsumption peek() {
+		return (size == 0) ? null : heap[0];
+	}
+
+	/**
+	 * Remove a subsumption from this worklist.
+	 *
+	 * @param o
+	 *            the subsumption
+	 * @return true iff the subsumption was contained in this worklist
+	 */
+	boolean remove(Object o) {
+		Integer position = positions.remove(o);
+		if (position == null) {
+			return false;
+		}
+		int i = position;
+		size--;
+		if (i < size) {
+			set(i, heap[size], priorities[size], sequences[size]);
+			heap[size] = null;
+			siftDown(i);
+			siftUp(i);
+		} else {
+			heap[size] = null;
+		}
+		return true;
+	}
+
+	private void set(int i, FlatSubsumption sub, int priority, long seq) {
+		heap[i] = sub;
+		priorities[i] = priority;
+		sequences[i] = seq;
+		positions.put(sub, i);
+	}
+
+	private void siftDown(int i) {
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size) {
+				return;
+			}
+			if ((child + 1 < size) && less(child + 1, child)) {
+				child++;
+			}
+			if (!less(child, i)) {
+				return;
+			}
+			swap(i, child);
+			i = child;
+		}
+	}
+
+	private void siftUp(int i) {
+		while (i > 0) {
+			int parent = (i - 1) / 2;
+			if (!less(i, parent)) {
+				return;
+			}
+			swap(i, parent);
+			i = parent;
+		}
+	}
+
+	/**
+	 * Returns the number of subsumptions in this worklist.
+	 *
+	 * @return the number of unsolved subsumptions
+	 */
+	int size() {
+		return size;
+	}
+
+	private void swap(int i, int j) {
+		FlatSubsumption sub = heap[i];
+		int priority = priorities[i];
+		long seq = sequences[i];
+		set(i, heap[j], priorities[j], sequences[j]);
+		set(j, sub, priority, seq);
+	}
+
+}
@@ -43,8 +43,7 @@ public final class DecompositionRule extends Rule {
 			Atom at = sub.getBody().get(i);
 			if (at.isExistentialRestriction()) {
 				if (((ExistentialRestriction) at).getRoleId().equals(appl.role)) {
-					appl.at = sub.getBody().get(i);
-					return appl;
+					return new Application(appl.role, at);
 				}
 			}
 		}
@@ -71,8 +70,8 @@ public final class DecompositionRule extends Rule {
 
 	private final class Application extends Rule.Application {
 
-		protected Integer role;
-		protected Atom at;
+		protected final Integer role;
+		protected final Atom at;
 
 		protected Application(Integer role, Atom at) {
 			this.role = role;
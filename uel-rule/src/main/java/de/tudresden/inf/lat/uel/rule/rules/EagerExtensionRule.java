@@ -34,7 +34,7 @@ public final class EagerExtensionRule extends EagerRule {
 		// check whether the rest of the body is contained in the assignment of
 		// the variable
 		for (Atom at : sub.getBody()) {
-			if (!at.isVariable() && !assign.getSubsumers(var).contains(at)) {
+			if (!at.isVariable() && !assign.contains(var, at)) {
 				return null;
 			}
 		}
@@ -50,7 +50,7 @@ public final class EagerExtensionRule extends EagerRule {
 		if (assign.makesCyclic(appl.var, sub.getHead())) {
 			return new Result(sub, application, false);
 		}
-		Result res = new Result(sub, application);
+		Result res = new Result(sub, application, assign);
 		res.getNewSubsumers().add(appl.var, sub.getHead());
 		return res;
 	}
@@ -18,7 +18,7 @@ public final class EagerSolving2Rule extends EagerRule {
 		Atom head = sub.getHead();
 		for (Atom at : sub.getBody()) {
 			if (at.isVariable()) {
-				if (assign.getSubsumers(at).contains(head)) {
+				if (assign.contains(at, head)) {
 					return new Application();
 				}
 			}
@@ -31,8 +31,7 @@ public final class ExtensionRule extends Rule {
 		Application appl = (Application) previous;
 		for (int i = sub.getBody().indexOf(appl.at) + 1; i < sub.getBody().size(); i++) {
 			if (sub.getBody().get(i).isVariable()) {
-				appl.at = sub.getBody().get(i);
-				return appl;
+				return new Application(sub.getBody().get(i));
 			}
 		}
 		return null;
@@ -47,7 +46,7 @@ public final class ExtensionRule extends Rule {
 		if (assign.makesCyclic(appl.at, sub.getHead())) {
 			return new Result(sub, application, false);
 		}
-		Result res = new Result(sub, application);
+		Result res = new Result(sub, application, assign);
 		res.getNewSubsumers().add(appl.at, sub.getHead());
 		return res;
 	}
@@ -59,7 +58,7 @@ public final class ExtensionRule extends Rule {
 
 	private final class Application extends Rule.Application {
 
-		protected Atom at;
+		protected final Atom at;
 
 		protected Application(Atom at) {
 			this.at = at;
@@ -32,7 +32,8 @@ public abstract class Rule {
 	/**
 	 * Returns the next application of this rule to the given subsumption. It is
 	 * important that the parameters 'sub' and 'assign' are the same as those
-	 * used to obtain 'previous'.
+	 * used to obtain 'previous'. The object 'previous' is not changed, so that
+	 * it can still be applied later, also by another instance of this rule.
 	 * 
 	 * @param sub
 	 *            the subsumption this rule shall be applied to
@@ -1,65 +1,124 @@
 /**
- * 
+ *
  */
 package de.tudresden.inf.lat.uel.sat.literals;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Arrays;
 
-import de.tudresden.inf.lat.uel.sat.type.SatInput;
-import de.tudresden.inf.lat.uel.type.api.IndexedSet;
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
 
 /**
+ * An object of this class encodes the choice of exactly one out of a number of
+ * alternatives, using fresh choice literals. Each alternative is represented
+ * by a set of literals whose disjunction is false if and only if the
+ * alternative is chosen. Hence, a clause that only has to hold under a
+ * certain alternative is obtained by adding these literals to the clause.
+ * The subclasses differ in how the alternatives are represented and how the
+ * choice of exactly one of them is enforced, see {@link ChoiceEncoding}.
+ *
  * @author Stefan Borgwardt
  *
  */
-public class Choice {
+public abstract class Choice {
 
-	private static int choiceLiteralCount = 0;
+	private final LiteralManager literalManager;
+	private final int numberOfChoices;
 
-	private Integer[] choiceLiterals;
-	private IndexedSet<Literal> literalManager;
-	private int log;
-	private int numberOfChoices;
+	/**
+	 * Constructs a new choice.
+	 *
+	 * @param literalManager
+	 *            the literal manager providing the fresh choice literals
+	 * @param numberOfChoices
+	 *            the number of alternatives, which must be positive
+	 */
+	protected Choice(LiteralManager literalManager, int numberOfChoices) {
+		if (literalManager == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (numberOfChoices < 1) {
+			throw new IllegalArgumentException("Number of choices must be positive: " + numberOfChoices + ".");
+		}
 
-	public Choice(IndexedSet<Literal> literalManager, int numberOfChoices) {
 		this.literalManager = literalManager;
 		this.numberOfChoices = numberOfChoices;
-		this.log = (int) Math.ceil(Math.log(numberOfChoices) / Math.log(2));
-		choiceLiterals = new Integer[log];
-		for (int i = 0; i < log; i++) {
-			choiceLiterals[i] = getFreshChoiceLiteral();
-		}
 	}
 
-	public Set<Integer> addChoiceLiterals(Set<Integer> previousChoiceLiterals, int j) {
-		Set<Integer> literals = getChoiceLiterals(j);
-		literals.addAll(previousChoiceLiterals);
-		return literals;
+	/**
+	 * Returns the literals representing an alternative, preceded by the given
+	 * literals, e.g. those representing an enclosing choice.
+	 *
+	 * @param previousChoiceLiterals
+	 *            the literals to be prepended
+	 * @param j
+	 *            the index of the alternative, starting from 0
+	 * @return a new array containing the previous literals and the literals
+	 *         of the alternative
+	 */
+	public int[] addChoiceLiterals(int[] previousChoiceLiterals, int j) {
+		int length = previousChoiceLiterals.length;
+		int[] ret = Arrays.copyOf(previousChoiceLiterals, length + getNumberOfChoiceLiterals());
+		copyChoiceLiterals(j, ret, length);
+		return ret;
 	}
 
-	public Set<Integer> getChoiceLiterals(int j) {
-		Set<Integer> literals = new HashSet<>();
-		for (int i = 0; i < log; i++) {
-			int digitMask = (int) Math.pow(2, i);
-			boolean digitIsOne = (j & digitMask) == digitMask;
-			Integer choiceLiteralId = digitIsOne ? choiceLiterals[i] : ((-1) * choiceLiterals[i]);
-			literals.add(choiceLiteralId);
-		}
-		return literals;
+	/**
+	 * Writes the literals representing an alternative into a buffer.
+	 *
+	 * @param j
+	 *            the index of the alternative, starting from 0
+	 * @param buffer
+	 *            the buffer
+	 * @param offset
+	 *            the position of the first literal in the buffer
+	 */
+	protected abstract void copyChoiceLiterals(int j, int[] buffer, int offset);
+
+	/**
+	 * Returns the literals representing an alternative.
+	 *
+	 * @param j
+	 *            the index of the alternative, starting from 0
+	 * @return a new array containing the literals of the alternative
+	 */
+	public int[] getChoiceLiterals(int j) {
+		int[] ret = new int[getNumberOfChoiceLiterals()];
+		copyChoiceLiterals(j, ret, 0);
+		return ret;
 	}
 
-	private Integer getFreshChoiceLiteral() {
-		Literal literal = new ChoiceLiteral(choiceLiteralCount);
-		choiceLiteralCount++;
-		return literalManager.addAndGetIndex(literal);
+	/**
+	 * Creates a new choice literal.
+	 *
+	 * @return the identifier of the new choice literal
+	 */
+	protected int getFreshChoiceLiteral() {
+		return literalManager.getFreshChoiceLiteral();
 	}
 
-	public void ruleOutOtherChoices(SatInput input) {
-		for (int j = numberOfChoices; j < Math.pow(2, log); j++) {
-			input.add(addChoiceLiterals(Collections.<Integer> emptySet(), j));
-		}
+	/**
+	 * Returns the number of alternatives.
+	 *
+	 * @return the number of alternatives
+	 */
+	public int getNumberOfChoices() {
+		return numberOfChoices;
 	}
 
+	/**
+	 * Returns the number of literals representing each alternative.
+	 *
+	 * @return the number of literals per alternative
+	 */
+	public abstract int getNumberOfChoiceLiterals();
+
+	/**
+	 * Adds the clauses ensuring that exactly one of the alternatives is
+	 * chosen.
+	 *
+	 * @param input
+	 *            the clause sink
+	 */
+	public abstract void ruleOutOtherChoices(ClauseSink input);
+
 }
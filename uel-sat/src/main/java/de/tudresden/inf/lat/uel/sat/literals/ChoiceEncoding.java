@@ -0,0 +1,74 @@
+package de.tudresden.inf.lat.uel.sat.literals;
+
+/**
+ * The encodings available for choosing one out of a number of alternatives,
+ * see {@link Choice}.
+ *
+ * @author Stefan Borgwardt
+ */
+public enum ChoiceEncoding {
+
+	/**
+	 * Selects the encoding depending on the number of alternatives: the
+	 * binary encoding for at most {@link #MAX_LOG_CHOICES} alternatives, the
+	 * sequential counter for at most {@link #MAX_SEQUENTIAL_COUNTER_CHOICES}
+	 * alternatives, and the product encoding otherwise.
+	 */
+	AUTOMATIC,
+
+	/** the commander encoding, see {@link CommanderChoice} */
+	COMMANDER,
+
+	/** the binary encoding, see {@link LogChoice} */
+	LOG,
+
+	/** the product encoding, see {@link ProductChoice} */
+	PRODUCT,
+
+	/** the sequential counter, see {@link SequentialCounterChoice} */
+	SEQUENTIAL_COUNTER;
+
+	/**
+	 * The maximal number of alternatives for which {@link #AUTOMATIC} uses the
+	 * binary encoding, which then extends the clauses by at most two literals.
+	 */
+	public static final int MAX_LOG_CHOICES = 4;
+
+	/**
+	 * The maximal number of alternatives for which {@link #AUTOMATIC} uses the
+	 * sequential counter instead of the product encoding, which needs fewer
+	 * auxiliary variables for large numbers of alternatives.
+	 */
+	public static final int MAX_SEQUENTIAL_COUNTER_CHOICES = 32;
+
+	/**
+	 * Creates a new choice using this encoding.
+	 *
+	 * @param literalManager
+	 *            the literal manager providing the fresh choice literals
+	 * @param numberOfChoices
+	 *            the number of alternatives, which must be positive
+	 * @return a new choice
+	 */
+	public Choice newChoice(LiteralManager literalManager, int numberOfChoices) {
+		switch (this) {
+		case COMMANDER:
+			return new CommanderChoice(literalManager, numberOfChoices);
+		case LOG:
+			return new LogChoice(literalManager, numberOfChoices);
+		case PRODUCT:
+			return new ProductChoice(literalManager, numberOfChoices);
+		case SEQUENTIAL_COUNTER:
+			return new SequentialCounterChoice(literalManager, numberOfChoices);
+		default:
+			if (numberOfChoices <= MAX_LOG_CHOICES) {
+				return new LogChoice(literalManager, numberOfChoices);
+			} else if (numberOfChoices <= MAX_SEQUENTIAL_COUNTER_CHOICES) {
+				return new SequentialCounterChoice(literalManager, numberOfChoices);
+			} else {
+				return new ProductChoice(literalManager, numberOfChoices);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,56 @@
+package de.tudresden.inf.lat.uel.sat.literals;
+
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
+
+/**
+ * An object of this class encodes a choice by selector literals, using the
+ * commander encoding of W. Klieber, G. Kwon, "Efficient CNF Encoding for
+ * Selecting 1 from N Objects", CFV 2007, to express that at most one selector
+ * is true. The selectors are divided into small groups, within which the
+ * constraint is expressed pairwise. Each group has a commander variable that
+ * is implied by all selectors of the group, and the constraint is applied
+ * recursively to the commanders.
+ *
+ * @author Stefan Borgwardt
+ */
+public class CommanderChoice extends SelectorChoice {
+
+	private static final int groupSize = 3;
+
+	/**
+	 * Constructs a new choice.
+	 *
+	 * @param literalManager
+	 *            the literal manager providing the fresh choice literals
+	 * @param numberOfChoices
+	 *            the number of alternatives
+	 */
+	public CommanderChoice(LiteralManager literalManager, int numberOfChoices) {
+		super(literalManager, numberOfChoices);
+	}
+
+	@Override
+	protected void addAtMostOne(int[] literals, ClauseSink input) {
+		if (literals.length <= groupSize + 1) {
+			addPairwiseAtMostOne(literals, 0, literals.length, input);
+			return;
+		}
+
+		int[] commanders = new int[(literals.length + groupSize - 1) / groupSize];
+		for (int group = 0; group < commanders.length; group++) {
+			int from = group * groupSize;
+			int to = Math.min(from + groupSize, literals.length);
+			if (to - from == 1) {
+				commanders[group] = literals[from];
+			} else {
+				commanders[group] = getFreshChoiceLiteral();
+				addPairwiseAtMostOne(literals, from, to, input);
+				for (int i = from; i < to; i++) {
+					input.add((-1) * literals[i], commanders[group]);
+				}
+			}
+		}
+		addAtMostOne(commanders, input);
+	}
+
+}
@@ -0,0 +1,226 @@
+package de.tudresden.inf.lat.uel.sat.literals;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * An object of this class assigns identifiers to the propositional variables
+ * used in the SAT encoding. The identifiers of subsumption and order literals
+ * are computed arithmetically from the ranks of their atoms, so that no
+ * objects have to be created or looked up during the encoding. Identifiers for
+ * choice literals are allocated after the last order literal.
+ *
+ * The identifiers are laid out as follows, where <i>n</i> is the number of
+ * atoms and <i>m</i> is the number of variables:
+ * <ul>
+ * <li>1 + rank(A) * <i>n</i> + rank(B) for the subsumption literal [A
+ * ⊑ B],</li>
+ * <li>1 + <i>n</i><sup>2</sup> + rank(X) * <i>m</i> + rank(Y) for the order
+ * literal [X &gt; Y],</li>
+ * <li>1 + <i>n</i><sup>2</sup> + <i>m</i><sup>2</sup> + <i>k</i> for the
+ * <i>k</i>-th choice literal.</li>
+ * </ul>
+ *
+ * @author Stefan Borgwardt
+ */
+public class LiteralManager {
+
+	private static int[] computeRanks(int[] ids, int size) {
+		int[] ranks = new int[size];
+		Arrays.fill(ranks, -1);
+		for (int rank = 0; rank < ids.length; rank++) {
+			ranks[ids[rank]] = rank;
+		}
+		return ranks;
+	}
+
+	private static int[] toSortedArray(Collection<Integer> ids) {
+		int[] ret = new int[ids.size()];
+		int index = 0;
+		for (Integer id : ids) {
+			ret[index] = id;
+			index++;
+		}
+		Arrays.sort(ret);
+		return ret;
+	}
+
+	private final int[] atomIds;
+	private final int[] atomRanks;
+	private final int firstChoiceLiteral;
+	private final int firstOrderLiteral;
+	private int lastId;
+	private final int[] variableIds;
+	private final int[] variableRanks;
+
+	/**
+	 * Constructs a new literal manager.
+	 *
+	 * @param atomIds
+	 *            the identifiers of all atoms that can occur in subsumption
+	 *            literals
+	 * @param variableIds
+	 *            the identifiers of all variables that can occur in order
+	 *            literals
+	 */
+	public LiteralManager(Collection<Integer> atomIds, Collection<Integer> variableIds) {
+		if (atomIds == null || variableIds == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		this.atomIds = toSortedArray(atomIds);
+		this.variableIds = toSortedArray(variableIds);
+		int size = 1 + Math.max(getMaxId(this.atomIds), getMaxId(this.variableIds));
+		this.atomRanks = computeRanks(this.atomIds, size);
+		this.variableRanks = computeRanks(this.variableIds, size);
+		this.firstOrderLiteral = 1 + this.atomIds.length * this.atomIds.length;
+		this.firstChoiceLiteral = this.firstOrderLiteral + this.variableIds.length * this.variableIds.length;
+		this.lastId = this.firstChoiceLiteral - 1;
+	}
+
+	private int getMaxId(int[] sortedIds) {
+		return (sortedIds.length == 0) ? 0 : sortedIds[sortedIds.length - 1];
+	}
+
+	/**
+	 * Returns the literal represented by a given identifier. The returned
+	 * object is created on demand and is only meant for decoding and
+	 * debugging.
+	 *
+	 * @param literalId
+	 *            the (positive) literal identifier
+	 * @return the literal represented by the identifier
+	 */
+	public Literal get(int literalId) {
+		if (literalId <= 0 || literalId > lastId) {
+			throw new IllegalArgumentException("Unknown literal identifier: " + literalId + ".");
+		}
+
+		if (isSubsumption(literalId)) {
+			return new SubsumptionLiteral(getFirst(literalId), getSecond(literalId));
+		} else if (literalId < firstChoiceLiteral) {
+			return new OrderLiteral(getFirst(literalId), getSecond(literalId));
+		} else {
+			return new ChoiceLiteral(literalId - firstChoiceLiteral);
+		}
+	}
+
+	/**
+	 * Returns the first atom of a subsumption or order literal.
+	 *
+	 * @param literalId
+	 *            the (positive) identifier of a subsumption or order literal
+	 * @return the identifier of the first atom
+	 */
+	public int getFirst(int literalId) {
+		if (isSubsumption(literalId)) {
+			return atomIds[(literalId - 1) / atomIds.length];
+		} else {
+			return variableIds[(literalId - firstOrderLiteral) / variableIds.length];
+		}
+	}
+
+	/**
+	 * Creates a new choice literal.
+	 *
+	 * @return the identifier of the new choice literal
+	 */
+	public int getFreshChoiceLiteral() {
+		lastId++;
+		return lastId;
+	}
+
+	/**
+	 * Allocates choice literals until the given identifier is in use, e.g.
+	 * because clauses using these choice literals were created earlier by
+	 * another literal manager for the same atoms.
+	 *
+	 * @param literalId
+	 *            a literal identifier
+	 */
+	public void ensureMaxIndex(int literalId) {
+		if (literalId > lastId) {
+			lastId = literalId;
+		}
+	}
+
+	/**
+	 * Returns the greatest literal identifier used so far.
+	 *
+	 * @return the greatest literal identifier
+	 */
+	public int getMaxIndex() {
+		return lastId;
+	}
+
+	/**
+	 * Returns the identifier of the order literal [X &gt; Y].
+	 *
+	 * @param variableId1
+	 *            the identifier of the variable X
+	 * @param variableId2
+	 *            the identifier of the variable Y
+	 * @return the identifier of the order literal
+	 */
+	public int getOrderLiteral(int variableId1, int variableId2) {
+		return firstOrderLiteral + getRank(variableRanks, variableId1) * variableIds.length
+				+ getRank(variableRanks, variableId2);
+	}
+
+	private int getRank(int[] ranks, int id) {
+		if (id < 0 || id >= ranks.length || ranks[id] == -1) {
+			throw new IllegalArgumentException("Unknown atom identifier: " + id + ".");
+		}
+		return ranks[id];
+	}
+
+	/**
+	 * Returns the second atom of a subsumption or order literal.
+	 *
+	 * @param literalId
+	 *            the (positive) identifier of a subsumption or order literal
+	 * @return the identifier of the second atom
+	 */
+	public int getSecond(int literalId) {
+		if (isSubsumption(literalId)) {
+			return atomIds[(literalId - 1) % atomIds.length];
+		} else {
+			return variableIds[(literalId - firstOrderLiteral) % variableIds.length];
+		}
+	}
+
+	/**
+	 * Returns the identifier of the subsumption literal [A ⊑ B].
+	 *
+	 * @param atomId1
+	 *            the identifier of the atom A
+	 * @param atomId2
+	 *            the identifier of the atom B
+	 * @return the identifier of the subsumption literal
+	 */
+	public int getSubsumptionLiteral(int atomId1, int atomId2) {
+		return 1 + getRank(atomRanks, atomId1) * atomIds.length + getRank(atomRanks, atomId2);
+	}
+
+	/**
+	 * Tells whether a literal identifier represents a subsumption literal.
+	 *
+	 * @param literalId
+	 *            the (positive) literal identifier
+	 * @return <code>true</code> if and only if the identifier represents a
+	 *         subsumption literal
+	 */
+	public boolean isSubsumption(int literalId) {
+		return literalId < firstOrderLiteral;
+	}
+
+	/**
+	 * Returns the number of literals managed by this object.
+	 *
+	 * @return the number of literals
+	 */
+	public int size() {
+		return lastId;
+	}
+
+}
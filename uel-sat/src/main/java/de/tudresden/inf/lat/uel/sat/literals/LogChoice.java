@@ -0,0 +1,56 @@
+package de.tudresden.inf.lat.uel.sat.literals;
+
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
+
+/**
+ * An object of this class encodes a choice in binary notation: the <i>n</i>
+ * alternatives are represented by the assignments to &lceil;log<sub>2</sub>
+ * <i>n</i>&rceil; choice literals, and the assignments not corresponding to an
+ * alternative are ruled out by additional clauses. No further variables are
+ * needed, but each clause under an alternative is extended by all choice
+ * literals.
+ *
+ * @author Stefan Borgwardt
+ */
+public class LogChoice extends Choice {
+
+	private final int[] choiceLiterals;
+
+	/**
+	 * Constructs a new choice.
+	 *
+	 * @param literalManager
+	 *            the literal manager providing the fresh choice literals
+	 * @param numberOfChoices
+	 *            the number of alternatives
+	 */
+	public LogChoice(LiteralManager literalManager, int numberOfChoices) {
+		super(literalManager, numberOfChoices);
+		int log = 32 - Integer.numberOfLeadingZeros(numberOfChoices - 1);
+		choiceLiterals = new int[log];
+		for (int i = 0; i < log; i++) {
+			choiceLiterals[i] = getFreshChoiceLiteral();
+		}
+	}
+
+	@Override
+	protected void copyChoiceLiterals(int j, int[] buffer, int offset) {
+		for (int i = 0; i < choiceLiterals.length; i++) {
+			boolean digitIsOne = ((j >>> i) & 1) == 1;
+			buffer[offset + i] = digitIsOne ? choiceLiterals[i] : ((-1) * choiceLiterals[i]);
+		}
+	}
+
+	@Override
+	public int getNumberOfChoiceLiterals() {
+		return choiceLiterals.length;
+	}
+
+	@Override
+	public void ruleOutOtherChoices(ClauseSink input) {
+		for (int j = getNumberOfChoices(); j < (1 << choiceLiterals.length); j++) {
+			input.add(getChoiceLiterals(j));
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+package de.tudresden.inf.lat.uel.sat.literals;
+
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
+
+/**
+ * An object of this class encodes a choice by selector literals, using the
+ * product encoding of J. Chen, "A New SAT Encoding of the At-Most-One
+ * Constraint", ModRef 2010, to express that at most one selector is true. The
+ * selectors are arranged in a grid of about &radic;<i>n</i> rows and columns.
+ * Each selector implies the variables of its row and column, and the
+ * constraint is applied recursively to the rows and to the columns. For
+ * <i>n</i> alternatives, this needs about 2&radic;<i>n</i> auxiliary
+ * variables and 2<i>n</i> + 4&radic;<i>n</i> binary clauses.
+ *
+ * @author Stefan Borgwardt
+ */
+public class ProductChoice extends SelectorChoice {
+
+	private static final int maxPairwise = 4;
+
+	/**
+	 * Constructs a new choice.
+	 *
+	 * @param literalManager
+	 *            the literal manager providing the fresh choice literals
+	 * @param numberOfChoices
+	 *            the number of alternatives
+	 */
+	public ProductChoice(LiteralManager literalManager, int numberOfChoices) {
+		super(literalManager, numberOfChoices);
+	}
+
+	@Override
+	protected void addAtMostOne(int[] literals, ClauseSink input) {
+		if (literals.length <= maxPairwise) {
+			addPairwiseAtMostOne(literals, 0, literals.length, input);
+			return;
+		}
+
+		int numberOfRows = (int) Math.ceil(Math.sqrt(literals.length));
+		int numberOfColumns = (literals.length + numberOfRows - 1) / numberOfRows;
+		int[] rows = new int[numberOfRows];
+		for (int r = 0; r < numberOfRows; r++) {
+			rows[r] = getFreshChoiceLiteral();
+		}
+		int[] columns = new int[numberOfColumns];
+		for (int c = 0; c < numberOfColumns; c++) {
+			columns[c] = getFreshChoiceLiteral();
+		}
+		for (int i = 0; i < literals.length; i++) {
+			input.add((-1) * literals[i], rows[i / numberOfColumns]);
+			input.add((-1) * literals[i], columns[i % numberOfColumns]);
+		}
+		addAtMostOne(rows, input);
+		addAtMostOne(columns, input);
+	}
+
+}
@@ -0,0 +1,87 @@
+package de.tudresden.inf.lat.uel.sat.literals;
+
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
+
+/**
+ * An object of this class encodes a choice by one selector literal per
+ * alternative. Each alternative is represented by the negation of its
+ * selector, so that clauses under an alternative are extended by only one
+ * literal. One clause requires that at least one selector is true; the
+ * subclasses provide different encodings of the constraint that at most one
+ * selector is true.
+ *
+ * @author Stefan Borgwardt
+ */
+public abstract class SelectorChoice extends Choice {
+
+	/**
+	 * Adds the binary clauses ensuring that at most one of the given literals
+	 * is true.
+	 *
+	 * @param literals
+	 *            an array containing the literals
+	 * @param from
+	 *            the index of the first literal
+	 * @param to
+	 *            the index after the last literal
+	 * @param input
+	 *            the clause sink
+	 */
+	protected static void addPairwiseAtMostOne(int[] literals, int from, int to, ClauseSink input) {
+		for (int i = from; i < to; i++) {
+			for (int k = i + 1; k < to; k++) {
+				input.add((-1) * literals[i], (-1) * literals[k]);
+			}
+		}
+	}
+
+	private final int[] selectors;
+
+	/**
+	 * Constructs a new choice.
+	 *
+	 * @param literalManager
+	 *            the literal manager providing the fresh choice literals
+	 * @param numberOfChoices
+	 *            the number of alternatives
+	 */
+	protected SelectorChoice(LiteralManager literalManager, int numberOfChoices) {
+		super(literalManager, numberOfChoices);
+		selectors = new int[(numberOfChoices == 1) ? 0 : numberOfChoices];
+		for (int j = 0; j < selectors.length; j++) {
+			selectors[j] = getFreshChoiceLiteral();
+		}
+	}
+
+	/**
+	 * Adds the clauses ensuring that at most one of the selectors is true.
+	 *
+	 * @param selectors
+	 *            the selector literals
+	 * @param input
+	 *            the clause sink
+	 */
+	protected abstract void addAtMostOne(int[] selectors, ClauseSink input);
+
+	@Override
+	protected void copyChoiceLiterals(int j, int[] buffer, int offset) {
+		if (selectors.length > 0) {
+			buffer[offset] = (-1) * selectors[j];
+		}
+	}
+
+	@Override
+	public int getNumberOfChoiceLiterals() {
+		// a single alternative does not need a selector
+		return (selectors.length > 0) ? 1 : 0;
+	}
+
+	@Override
+	public void ruleOutOtherChoices(ClauseSink input) {
+		if (selectors.length > 0) {
+			input.add(selectors);
+			addAtMostOne(selectors, input);
+		}
+	}
+
+}
@@ -0,0 +1,43 @@
+package de.tudresden.inf.lat.uel.sat.literals;
+
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
+
+/**
+ * An object of this class encodes a choice by selector literals, using the
+ * sequential counter of C. Sinz, "Towards an Optimal CNF Encoding of Boolean
+ * Cardinality Constraints", CP 2005, to express that at most one selector is
+ * true. For <i>n</i> alternatives, this needs <i>n</i>-1 auxiliary variables
+ * and 3<i>n</i>-4 binary clauses.
+ *
+ * @author Stefan Borgwardt
+ */
+public class SequentialCounterChoice extends SelectorChoice {
+
+	/**
+	 * Constructs a new choice.
+	 *
+	 * @param literalManager
+	 *            the literal manager providing the fresh choice literals
+	 * @param numberOfChoices
+	 *            the number of alternatives
+	 */
+	public SequentialCounterChoice(LiteralManager literalManager, int numberOfChoices) {
+		super(literalManager, numberOfChoices);
+	}
+
+	@Override
+	protected void addAtMostOne(int[] selectors, ClauseSink input) {
+		// 'previous' is true if one of the selectors up to the current one is
+		int previous = getFreshChoiceLiteral();
+		input.add((-1) * selectors[0], previous);
+		for (int i = 1; i < selectors.length - 1; i++) {
+			int current = getFreshChoiceLiteral();
+			input.add((-1) * selectors[i], current);
+			input.add((-1) * previous, current);
+			input.add((-1) * selectors[i], (-1) * previous);
+			previous = current;
+		}
+		input.add((-1) * selectors[selectors.length - 1], (-1) * previous);
+	}
+
+}
@@ -1,22 +1,20 @@
 package de.tudresden.inf.lat.uel.sat.solver;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
-import java.util.StringTokenizer;
 
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
 import de.tudresden.inf.lat.uel.sat.type.SatInput;
 import de.tudresden.inf.lat.uel.sat.type.SatOutput;
 import de.tudresden.inf.lat.uel.sat.type.Solver;
 
 /**
- * This class runs an external MaxSAT solver on a constructed WCNF input file.
+ * This class runs an external MaxSAT solver on a constructed WCNF input. The
+ * input is piped to the solver and its answer is read from its output by an
+ * {@link ExternalSolver} in weighted mode.
  *
  * @author Stefan Borgwardt
  */
@@ -35,108 +33,102 @@ public class CNFMaxSatSolver implements Solver {
 	/** the options for the CLASP solver */
 	public static final String[] CLASP_OPTIONS = new String[] { "--quiet=1,1" };
 
-	private String[] commandOptions;
-
-	private final File inputFile;
-	// private File outputFile;
-	private Integer nbVars;
+	private final ExternalSolver solver;
+	private volatile boolean stopped = false;
 
 	/**
 	 * Construct a new MaxSat solver of the given type.
-	 * 
+	 *
 	 * @param solver
 	 *            the type of the solver (AKMAXSAT or CLASP)
-	 * @throws IOException
-	 *             if an I/O error occurs
 	 */
-	public CNFMaxSatSolver(int solver) throws IOException {
-		this.inputFile = File.createTempFile("WCNFinput", ".tmp");
-
+	public CNFMaxSatSolver(int solver) {
+		List<String> command = new ArrayList<>();
 		switch (solver) {
-		case CLASP:
-			initCommandOptions(CLASP_COMMAND, CLASP_OPTIONS);
-			break;
 		case AKMAXSAT:
-			initCommandOptions(AKMAXSAT_COMMAND, AKMAXSAT_OPTIONS);
+			command.add(AKMAXSAT_COMMAND);
+			command.addAll(Arrays.asList(AKMAXSAT_OPTIONS));
+			break;
+		case CLASP:
+		default:
+			command.add(CLASP_COMMAND);
+			command.addAll(Arrays.asList(CLASP_OPTIONS));
 			break;
 		}
+		this.solver = new ExternalSolver(command);
+		this.solver.setWeighted(true);
 	}
 
 	public void cleanup() {
+		this.solver.cleanup();
 	}
 
-	private SatOutput convertToSatOutput(Process p) throws IOException {
-
-		BufferedReader reader = new BufferedReader(new InputStreamReader(p.getInputStream()));
-
-		Set<Integer> clause = new HashSet<>();
-		boolean[] satisfiable = new boolean[1];
-		satisfiable[0] = false;
-		reader.lines() //
-				.filter(line -> line.startsWith("v")) //
-				.forEach(line -> {
-					satisfiable[0] = true;
-					StringTokenizer stok = new StringTokenizer(line.substring(2));
-					while (stok.hasMoreTokens()) {
-						clause.add(Integer.parseInt(stok.nextToken()));
-					}
-				});
-		reader.close();
-		p.destroy();
-		clause.remove(Solver.END_OF_CLAUSE);
-
-		return new SatOutput(satisfiable[0], clause);
+	@Override
+	public ClauseSink newInput() throws IOException {
+		this.stopped = false;
+		return this.solver.newInput();
 	}
 
-	private void initCommandOptions(String command, String[] options) {
-		this.commandOptions = new String[2 + CLASP_OPTIONS.length];
-		this.commandOptions[0] = CLASP_COMMAND;
-		for (int i = 0; i < CLASP_OPTIONS.length; i++) {
-			this.commandOptions[i + 1] = CLASP_OPTIONS[i];
+	@Override
+	public SatOutput solve() throws IOException {
+		if (this.stopped) {
+			return SatOutput.unknown();
 		}
-		this.commandOptions[CLASP_OPTIONS.length + 1] = this.inputFile.getPath();
-	}
-
-	private Process solve() throws IOException {
 		try {
-			ProcessBuilder pb = new ProcessBuilder(this.commandOptions);
-			pb.redirectErrorStream();
-			Process p = pb.start();
-			p.waitFor();
-			return p;
-		} catch (InterruptedException e) {
-			throw new RuntimeException(e);
+			return this.solver.solve();
+		} catch (IOException e) {
+			if (this.stopped) {
+				// the pipes fail after the process has been destroyed
+				return SatOutput.unknown();
+			}
+			throw e;
 		}
 	}
 
 	@Override
 	public SatOutput solve(SatInput input) throws IOException {
+		if (input == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
 
-		this.nbVars = input.getLastId();
-		BufferedWriter writer = new BufferedWriter(new FileWriter(this.inputFile));
-		writer.write(input.toWCNF(this.nbVars + 1));
-		writer.close();
+		if (this.stopped) {
+			return SatOutput.unknown();
+		}
+		try {
+			return this.solver.solve(input);
+		} catch (IOException e) {
+			if (this.stopped) {
+				// the pipes fail after the process has been destroyed
+				return SatOutput.unknown();
+			}
+			throw e;
+		}
+	}
 
-		return convertToSatOutput(solve());
+	/**
+	 * Destroys the process of a running computation of this solver, which
+	 * then returns an unknown output, as do all later computations until a
+	 * new input is created. This method can be called from another thread.
+	 */
+	@Override
+	public void stop() {
+		this.stopped = true;
+		this.solver.stop();
 	}
 
 	@Override
 	public SatOutput update(Set<Integer> clause) throws IOException {
-		BufferedReader reader = new BufferedReader(new FileReader(this.inputFile));
-		StringTokenizer stok = new StringTokenizer(reader.readLine());
-		stok.nextToken();
-		stok.nextToken();
-		stok.nextToken();
-		int nbClauses = Integer.parseInt(stok.nextToken());
-		reader.close();
-
-		BufferedWriter writer = new BufferedWriter(new FileWriter(this.inputFile));
-		StringBuffer sbuf = new StringBuffer();
-		SatInput.appendWCNFLine(sbuf, nbVars, nbClauses + 1, nbVars + 1);
-		SatInput.appendWCNFClause(sbuf, clause, nbVars + 1);
-		writer.write(sbuf.toString());
-		writer.close();
-
-		return convertToSatOutput(solve());
+		if (this.stopped) {
+			return SatOutput.unknown();
+		}
+		try {
+			return this.solver.update(clause);
+		} catch (IOException e) {
+			if (this.stopped) {
+				// the pipes fail after the process has been destroyed
+				return SatOutput.unknown();
+			}
+			throw e;
+		}
 	}
 }
@@ -0,0 +1,494 @@
+package de.tudresden.inf.lat.uel.sat.solver;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
+import de.tudresden.inf.lat.uel.sat.type.DimacsChannelWriter;
+import de.tudresden.inf.lat.uel.sat.type.SatInput;
+import de.tudresden.inf.lat.uel.sat.type.SatOutput;
+import de.tudresden.inf.lat.uel.sat.type.Solver;
+
+/**
+ * An object of this class runs an external SAT or MaxSAT solver as a child
+ * process. The problem is written directly to the standard input of the
+ * process, and the answer is read from its standard output as soon as it
+ * arrives, so that no temporary files are needed. The solver has to read
+ * DIMACS CNF (or WCNF) from its standard input and report its answer in the
+ * format of the SAT competitions, i.e., by a status line 's SATISFIABLE', 's
+ * OPTIMUM FOUND' or 's UNSATISFIABLE', followed by 'v' lines containing the
+ * model and terminated by 0. In the weighted format, the model can also be
+ * given as a single string of 0s and 1s.
+ *
+ * Since the header of a DIMACS file contains the number of clauses, the
+ * clauses are collected in memory and written to the solver only when the
+ * problem is solved. Each call of {@link #update(Set)} runs the solver again on
+ * the whole problem.
+ *
+ * In incremental mode, the solver is started once and kept alive. The problem
+ * is written in the incremental CNF (iCNF) format, which has a header without
+ * counts, so that the clauses are passed on to the solver as soon as they are
+ * added. Every line 'a [assumptions] 0' asks the solver to solve the problem
+ * given so far under the given assumptions, and to report its answer as
+ * above. New clauses are then appended to the same input. Retractable clauses
+ * are extended by a fresh selector variable that is assumed to be true.
+ *
+ * @author Stefan Borgwardt
+ */
+public class ExternalSolver implements Solver {
+
+	/**
+	 * The string that signals the start of an incremental CNF file.
+	 */
+	public static final String P_INCCNF = "p inccnf";
+
+	/**
+	 * Discards an output of a child process by writing it to the null device.
+	 * An output that is neither read nor redirected can fill up its pipe and
+	 * block the process.
+	 */
+	static final ProcessBuilder.Redirect DISCARD = ProcessBuilder.Redirect
+			.to(new File(System.getProperty("os.name").startsWith("Windows") ? "NUL" : "/dev/null"));
+
+	private static final String assumptionPrefix = "a";
+	private static final String modelPrefix = "v";
+	private static final String statusOptimum = "OPTIMUM FOUND";
+	private static final String statusPrefix = "s";
+	private static final String statusSat = "SATISFIABLE";
+	private static final String statusUnsat = "UNSATISFIABLE";
+
+	/**
+	 * A clause sink that writes the clauses to the solver.
+	 */
+	private class StreamingClauseSink implements ClauseSink {
+
+		private final String hardWeight;
+		private int lastId = 0;
+		private int nbClauses = 0;
+
+		StreamingClauseSink(String hardWeight) {
+			this.hardWeight = hardWeight;
+		}
+
+		@Override
+		public boolean add(int[] clause, int length) {
+			if (clause == null) {
+				throw new IllegalArgumentException("Null argument.");
+			}
+			if (length == 0) {
+				throw new IllegalArgumentException("Clause cannot be empty.");
+			}
+
+			for (int i = 0; i < length; i++) {
+				int literal = clause[i];
+				if (literal == Solver.END_OF_CLAUSE) {
+					throw new IllegalArgumentException("Clause cannot contain " + Solver.END_OF_CLAUSE + ".");
+				}
+				int absLiteral = literal < 0 ? (-1) * literal : literal;
+				if (absLiteral > lastId) {
+					lastId = absLiteral;
+				}
+			}
+			try {
+				writer.writeClause(hardWeight, clause, length);
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+			nbClauses++;
+			return true;
+		}
+
+		@Override
+		public boolean addMinimizeLiteral(Integer literal) {
+			if (hardWeight == null) {
+				throw new UnsupportedOperationException();
+			}
+
+			try {
+				writer.writeClause("1", new int[] { (-1) * literal }, 1);
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+			return true;
+		}
+
+		@Override
+		public int getLastId() {
+			return lastId;
+		}
+
+		@Override
+		public int getNumberOfClauses() {
+			return nbClauses;
+		}
+
+	}
+
+	private final List<String> command;
+	private boolean incremental = false;
+	private SatInput input;
+	private int lastSelector = 0;
+	private volatile Process process;
+	private BufferedReader reader;
+	private final List<Integer> selectors = new ArrayList<>();
+	private StreamingClauseSink sink;
+	private boolean weighted = false;
+	private DimacsChannelWriter writer;
+
+	/**
+	 * Constructs a new external solver.
+	 *
+	 * @param command
+	 *            the command that starts the solver, followed by its options
+	 */
+	public ExternalSolver(List<String> command) {
+		if (command == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (command.isEmpty()) {
+			throw new IllegalArgumentException("The command cannot be empty.");
+		}
+
+		this.command = Collections.unmodifiableList(new ArrayList<>(command));
+	}
+
+	@Override
+	public void cleanup() {
+		if (process != null) {
+			try {
+				writer.close();
+				reader.close();
+			} catch (IOException e) {
+				// the process is destroyed anyway
+			}
+			process.destroy();
+			process = null;
+			writer = null;
+			reader = null;
+		}
+	}
+
+	/**
+	 * Returns the command that starts the solver.
+	 *
+	 * @return the command, followed by its options
+	 */
+	public List<String> getCommand() {
+		return command;
+	}
+
+	/**
+	 * Tells whether the solver is used in incremental mode.
+	 *
+	 * @return <code>true</code> if and only if the solver is kept alive and
+	 *         receives the problem in iCNF format
+	 */
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+	/**
+	 * Tells whether the problem is written in WCNF format.
+	 *
+	 * @return <code>true</code> if and only if the literals to be minimized
+	 *         are passed to the solver as soft clauses
+	 */
+	public boolean isWeighted() {
+		return weighted;
+	}
+
+	@Override
+	public ClauseSink newInput() throws IOException {
+		cleanup();
+		selectors.clear();
+		lastSelector = 0;
+		if (incremental) {
+			startProcess();
+			writer.writeLine(P_INCCNF);
+			sink = new StreamingClauseSink(null);
+			return sink;
+		} else {
+			input = new SatInput();
+			return input;
+		}
+	}
+
+	/**
+	 * Parses a line containing (a part of) a model.
+	 *
+	 * @param tokens
+	 *            the tokens of the line, starting with the prefix 'v'
+	 * @param nbVars
+	 *            the number of variables of the problem
+	 * @param model
+	 *            the set of literals that receives the model
+	 * @return <code>true</code> if and only if the model is complete
+	 */
+	private boolean parseModel(String[] tokens, int nbVars, Set<Integer> model) {
+		if (weighted && tokens.length == 2 && tokens[1].length() == nbVars && nbVars > 1
+				&& tokens[1].matches("[01]+")) {
+			String values = tokens[1];
+			for (int i = 0; i < values.length(); i++) {
+				model.add(values.charAt(i) == '1' ? i + 1 : (-1) * (i + 1));
+			}
+			return true;
+		}
+
+		for (int i = 1; i < tokens.length; i++) {
+			int literal = Integer.parseInt(tokens[i]);
+			if (literal == Solver.END_OF_CLAUSE) {
+				return true;
+			}
+			model.add(literal);
+		}
+		return false;
+	}
+
+	/**
+	 * Reads the answer of the solver to the current problem.
+	 *
+	 * @param nbVars
+	 *            the number of variables of the problem
+	 * @return the output of the solver
+	 * @throws IOException
+	 *             if an I/O error occurs, or the solver does not report an
+	 *             answer or a complete model
+	 */
+	private SatOutput readAnswer(int nbVars) throws IOException {
+		Boolean satisfiable = null;
+		boolean complete = false;
+		Set<Integer> model = new HashSet<>();
+		String line;
+		while (!complete && (line = reader.readLine()) != null) {
+			String[] tokens = line.trim().split("\\s+");
+			if (tokens[0].equals(statusPrefix)) {
+				String status = line.trim().substring(statusPrefix.length()).trim();
+				if (status.equals(statusUnsat)) {
+					satisfiable = false;
+					complete = true;
+				} else if (status.equals(statusSat) || status.equals(statusOptimum)) {
+					satisfiable = true;
+				} else {
+					throw new IOException("The solver could not solve the problem: '" + status + "'.");
+				}
+			} else if (tokens[0].equals(modelPrefix)) {
+				complete = parseModel(tokens, nbVars, model);
+			}
+		}
+
+		if (satisfiable == null) {
+			throw new IOException("The solver terminated without reporting an answer.");
+		}
+		if (!complete) {
+			// a model without its terminating 0 may have been cut off
+			throw new IOException("The solver terminated without reporting a complete model.");
+		}
+		return new SatOutput(satisfiable, model);
+	}
+
+	@Override
+	public void retractAll() {
+		if (!supportsRetractableClauses()) {
+			throw new UnsupportedOperationException();
+		}
+
+		try {
+			for (Integer selector : selectors) {
+				// the selector is not needed anymore
+				writer.writeClause(null, new int[] { (-1) * selector }, 1);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		selectors.clear();
+	}
+
+	/**
+	 * Sets whether the solver is kept alive between calls and receives the
+	 * problem in iCNF format. The solver must support this format.
+	 *
+	 * @param incremental
+	 *            <code>true</code> if the solver should be used in
+	 *            incremental mode
+	 */
+	public void setIncremental(boolean incremental) {
+		if (incremental && weighted) {
+			throw new IllegalStateException("The incremental mode does not support the WCNF format.");
+		}
+
+		this.incremental = incremental;
+	}
+
+	/**
+	 * Sets whether the problem is written in WCNF format, where the literals to
+	 * be minimized are represented by soft clauses. The solver must be a
+	 * MaxSAT solver.
+	 *
+	 * @param weighted
+	 *            <code>true</code> if the WCNF format should be used
+	 */
+	public void setWeighted(boolean weighted) {
+		if (weighted && incremental) {
+			throw new IllegalStateException("The incremental mode does not support the WCNF format.");
+		}
+
+		this.weighted = weighted;
+	}
+
+	@Override
+	public SatOutput solve() throws IOException {
+		if (incremental) {
+			if (sink == null || process == null) {
+				throw new IllegalStateException("No input was created.");
+			}
+
+			lastSelector = Math.max(lastSelector, sink.getLastId());
+			int[] assumptions = new int[selectors.size()];
+			for (int i = 0; i < assumptions.length; i++) {
+				assumptions[i] = selectors.get(i);
+			}
+			writer.writeClause(assumptionPrefix, assumptions, assumptions.length);
+			writer.flush();
+			return readAnswer(lastSelector);
+
+		} else {
+			if (input == null) {
+				throw new IllegalStateException("No input was created.");
+			}
+
+			return runSolver();
+		}
+	}
+
+	@Override
+	public SatOutput solve(SatInput input) throws IOException {
+		if (input == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		if (incremental) {
+			input.copyTo(newInput());
+			return solve();
+		} else {
+			newInput();
+			this.input.addAll(input);
+			return runSolver();
+		}
+	}
+
+	/**
+	 * Runs the solver on the collected clauses, which are written in DIMACS
+	 * CNF or WCNF format to the standard input of a new process.
+	 *
+	 * @return the output of the solver
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	private SatOutput runSolver() throws IOException {
+		cleanup();
+		startProcess();
+		try {
+			int nbVars = input.getLastId();
+			int nbClauses = input.getNumberOfClauses();
+			int nbMinimizeLiterals = input.getMinimizeLiterals().size();
+			String hardWeight = null;
+			if (weighted) {
+				int top = nbMinimizeLiterals + 1;
+				hardWeight = Integer.toString(top);
+				writer.writeLine(P_WCNF + SPACE + nbVars + SPACE + (nbClauses + nbMinimizeLiterals) + SPACE + top);
+			} else {
+				if (nbMinimizeLiterals > 0) {
+					throw new UnsupportedOperationException(
+							"The DIMACS CNF format cannot represent literals to be minimized.");
+				}
+				writer.writeLine(P_CNF + SPACE + nbVars + SPACE + nbClauses);
+			}
+			input.copyTo(new StreamingClauseSink(hardWeight));
+			writer.close();
+
+			SatOutput ret = readAnswer(nbVars);
+			// skip the remaining output so that the solver can terminate
+			while (reader.readLine() != null) {
+			}
+			return ret;
+		} finally {
+			cleanup();
+		}
+	}
+
+	private void startProcess() throws IOException {
+		ProcessBuilder pb = new ProcessBuilder(command);
+		pb.redirectError(DISCARD);
+		process = pb.start();
+		writer = new DimacsChannelWriter(process.getOutputStream());
+		reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * Destroys the process of a running computation of this solver, which then
+	 * throws an exception. This method can be called from another thread.
+	 */
+	@Override
+	public void stop() {
+		Process current = process;
+		if (current != null) {
+			current.destroy();
+		}
+	}
+
+	@Override
+	public boolean supportsRetractableClauses() {
+		return incremental;
+	}
+
+	@Override
+	public SatOutput update(Set<Integer> clause) throws IOException {
+		if (clause == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		if (incremental) {
+			if (sink == null) {
+				throw new IllegalStateException("No input was created.");
+			}
+			sink.add(clause);
+			return solve();
+		} else {
+			if (input == null) {
+				throw new IllegalStateException("No input was created.");
+			}
+			input.add(clause);
+			return runSolver();
+		}
+	}
+
+	@Override
+	public SatOutput updateRetractable(Set<Integer> clause) throws IOException {
+		if (clause == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (!supportsRetractableClauses()) {
+			throw new UnsupportedOperationException();
+		}
+		if (sink == null) {
+			throw new IllegalStateException("No input was created.");
+		}
+
+		lastSelector = Math.max(lastSelector, sink.getLastId()) + 1;
+		int[] literals = new int[clause.size() + 1];
+		System.arraycopy(SatInput.toArray(clause), 0, literals, 0, clause.size());
+		literals[clause.size()] = (-1) * lastSelector;
+		writer.writeClause(null, literals, literals.length);
+		selectors.add(lastSelector);
+		return solve();
+	}
+
+}
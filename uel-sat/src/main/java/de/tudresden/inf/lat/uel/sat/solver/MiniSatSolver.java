@@ -3,13 +3,13 @@ package de.tudresden.inf.lat.uel.sat.solver;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.StringTokenizer;
 
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
+import de.tudresden.inf.lat.uel.sat.type.DimacsClauseSink;
 import de.tudresden.inf.lat.uel.sat.type.SatInput;
 import de.tudresden.inf.lat.uel.sat.type.SatOutput;
 import de.tudresden.inf.lat.uel.sat.type.Solver;
@@ -25,6 +25,10 @@ public class MiniSatSolver implements Solver {
 	private static final String tempPrefix = "uelMiniSat";
 	private static final String tempSuffix = ".tmp";
 
+	private volatile Process process;
+	private DimacsClauseSink sink;
+	private volatile boolean stopped = false;
+
 	/**
 	 * Constructs a new solver.
 	 */
@@ -34,32 +38,54 @@ public class MiniSatSolver implements Solver {
 	public void cleanup() {
 	}
 
-	private void runMiniSat(File satinput, File satoutput) throws IOException {
+	private void runMiniSat(File satinput, File satoutput) throws IOException, InterruptedException {
+		ProcessBuilder pb = new ProcessBuilder(minisatCommand, satinput.toString(), satoutput.toString());
+		// the answer is written to 'satoutput'
+		pb.redirectOutput(ExternalSolver.DISCARD);
+		pb.redirectError(ExternalSolver.DISCARD);
+		Process p = pb.start();
+		process = p;
 		try {
-			ProcessBuilder pb = new ProcessBuilder(minisatCommand, satinput.toString(), satoutput.toString());
-			Process p = pb.start();
 			p.waitFor();
+		} finally {
+			process = null;
 			p.destroy();
-		} catch (InterruptedException e) {
-			throw new RuntimeException(e);
 		}
 	}
 
 	@Override
-	public SatOutput solve(SatInput input) throws IOException {
-		if (input == null) {
-			throw new IllegalArgumentException("Null argument.");
+	public ClauseSink newInput() throws IOException {
+		stopped = false;
+		sink = new DimacsClauseSink(File.createTempFile(tempPrefix, tempSuffix));
+		return sink;
+	}
+
+	@Override
+	public SatOutput solve() throws IOException, InterruptedException {
+		if (sink == null) {
+			throw new IllegalStateException("No input was created.");
 		}
 
-		File satinput = File.createTempFile(tempPrefix, tempSuffix);
+		sink.close();
+		File satinput = sink.getFile();
+		if (stopped) {
+			satinput.delete();
+			return SatOutput.unknown();
+		}
 		File satoutput = File.createTempFile(tempPrefix, tempSuffix);
 
-		PrintWriter satinputWriter = new PrintWriter(new FileWriter(satinput));
-		satinputWriter.println(input.toCNF());
-		satinputWriter.flush();
-		satinputWriter.close();
-
-		runMiniSat(satinput, satoutput);
+		try {
+			runMiniSat(satinput, satoutput);
+		} catch (InterruptedException e) {
+			satinput.delete();
+			satoutput.delete();
+			throw e;
+		}
+		if (stopped) {
+			satinput.delete();
+			satoutput.delete();
+			return SatOutput.unknown();
+		}
 
 		BufferedReader satoutputReader = new BufferedReader(new FileReader(satoutput));
 		String line = satoutputReader.readLine();
@@ -81,6 +107,30 @@ public class MiniSatSolver implements Solver {
 		return new SatOutput(satisfiable, clause);
 	}
 
+	@Override
+	public SatOutput solve(SatInput input) throws IOException, InterruptedException {
+		if (input == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		input.copyTo(newInput());
+		return solve();
+	}
+
+	/**
+	 * Destroys the MiniSat process of a running computation of this solver,
+	 * which then returns an unknown output, as do all later computations until
+	 * a new input is created. This method can be called from another thread.
+	 */
+	@Override
+	public void stop() {
+		stopped = true;
+		Process current = process;
+		if (current != null) {
+			current.destroy();
+		}
+	}
+
 	@Override
 	public SatOutput update(Set<Integer> clause) throws IOException {
 		throw new UnsupportedOperationException();
@@ -0,0 +1,332 @@
+package de.tudresden.inf.lat.uel.sat.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
+import de.tudresden.inf.lat.uel.sat.type.SatInput;
+import de.tudresden.inf.lat.uel.sat.type.SatOutput;
+import de.tudresden.inf.lat.uel.sat.type.Solver;
+import de.tudresden.inf.lat.uel.type.impl.Budget;
+
+/**
+ * An object of this class runs several differently configured Sat4j solvers
+ * concurrently on the same SAT problem, each on its own thread. The first
+ * solver that decides the problem determines the answer, and the other
+ * solvers are stopped and their clauses are released. All further calls, e.g.
+ * to add blocking clauses, are handled by the winning solver only. If all
+ * solvers exceed their budget, the answer is unknown, and all of them continue
+ * in the next call.
+ *
+ * @author Stefan Borgwardt
+ */
+public class PortfolioSolver implements Solver {
+
+	/**
+	 * The Sat4j configurations used by default, in the order in which they are
+	 * chosen. They use different restart strategies (MiniSat-style, Glucose,
+	 * Luby) and phase selection heuristics (phase saving, RSAT).
+	 */
+	public static final List<String> DEFAULT_CONFIGURATIONS = Collections.unmodifiableList(
+			Arrays.asList("Default", "Glucose21", "MiniLearningHeapRsatExpSimpLuby", "DefaultMS21PhaseSaving"));
+
+	/**
+	 * Returns the first configurations of {@link #DEFAULT_CONFIGURATIONS}.
+	 *
+	 * @param numberOfThreads
+	 *            the number of configurations
+	 * @return a list of configurations of the given size, or of all default
+	 *         configurations if there are fewer than requested
+	 */
+	public static List<String> getDefaultConfigurations(int numberOfThreads) {
+		return DEFAULT_CONFIGURATIONS.subList(0,
+				Math.max(1, Math.min(numberOfThreads, DEFAULT_CONFIGURATIONS.size())));
+	}
+
+	private final List<ClauseSink> sinks = new ArrayList<>();
+	private final List<Sat4jSolver> solvers = new ArrayList<>();
+	private Sat4jSolver winner;
+
+	/**
+	 * Constructs a new portfolio solver.
+	 *
+	 * @param configurations
+	 *            the names of the Sat4j configurations to be run concurrently
+	 * @see Sat4jSolver#getConfigurations()
+	 */
+	public PortfolioSolver(List<String> configurations) {
+		if (configurations == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (configurations.isEmpty()) {
+			throw new IllegalArgumentException("At least one configuration is needed.");
+		}
+
+		for (String configuration : configurations) {
+			solvers.add(new Sat4jSolver(configuration));
+		}
+	}
+
+	/**
+	 * Returns the sinks that receive new clauses. Once the problem has been
+	 * solved, only the winning solver receives new clauses, since the other
+	 * solvers may still be running.
+	 *
+	 * @return the sinks that receive new clauses
+	 */
+	private List<ClauseSink> getActiveSinks() {
+		if (winner == null) {
+			return sinks;
+		} else {
+			return Collections.singletonList(sinks.get(solvers.indexOf(winner)));
+		}
+	}
+
+	@Override
+	public void cleanup() {
+		for (Sat4jSolver solver : solvers) {
+			solver.cleanup();
+		}
+	}
+
+	@Override
+	public int[] findDeterminingLiterals(int[] literals) {
+		return getWinner().findDeterminingLiterals(literals);
+	}
+
+	/**
+	 * Returns the name of the configuration that solved the problem first.
+	 *
+	 * @return the name of the winning configuration, or <code>null</code> if
+	 *         the problem has not been solved yet
+	 */
+	public String getWinningConfiguration() {
+		return winner == null ? null : winner.getConfiguration();
+	}
+
+	private Sat4jSolver getWinner() {
+		if (winner == null) {
+			throw new IllegalStateException("The problem has not been solved yet.");
+		}
+		return winner;
+	}
+
+	@Override
+	public ClauseSink newInput() {
+		winner = null;
+		sinks.clear();
+		for (Sat4jSolver solver : solvers) {
+			sinks.add(solver.newInput());
+		}
+		return new ClauseSink() {
+
+			@Override
+			public boolean add(int literal) {
+				boolean ret = false;
+				for (ClauseSink sink : getActiveSinks()) {
+					ret = sink.add(literal) || ret;
+				}
+				return ret;
+			}
+
+			@Override
+			public boolean add(int literal1, int literal2) {
+				boolean ret = false;
+				for (ClauseSink sink : getActiveSinks()) {
+					ret = sink.add(literal1, literal2) || ret;
+				}
+				return ret;
+			}
+
+			@Override
+			public boolean add(int literal1, int literal2, int literal3) {
+				boolean ret = false;
+				for (ClauseSink sink : getActiveSinks()) {
+					ret = sink.add(literal1, literal2, literal3) || ret;
+				}
+				return ret;
+			}
+
+			@Override
+			public boolean add(int[] clause, int length) {
+				boolean ret = false;
+				for (ClauseSink sink : getActiveSinks()) {
+					ret = sink.add(clause, length) || ret;
+				}
+				return ret;
+			}
+
+			@Override
+			public boolean addMinimizeLiteral(Integer literal) {
+				boolean ret = false;
+				for (ClauseSink sink : getActiveSinks()) {
+					ret = sink.addMinimizeLiteral(literal) || ret;
+				}
+				return ret;
+			}
+
+			@Override
+			public int getLastId() {
+				return getActiveSinks().get(0).getLastId();
+			}
+
+			@Override
+			public int getNumberOfClauses() {
+				return getActiveSinks().get(0).getNumberOfClauses();
+			}
+
+		};
+	}
+
+	@Override
+	public void retractAll() {
+		getWinner().retractAll();
+	}
+
+	@Override
+	public SatOutput solve() throws InterruptedException {
+		if (winner != null) {
+			return winner.solve();
+		}
+
+		if (solvers.size() == 1) {
+			winner = solvers.get(0);
+			return winner.solve();
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(solvers.size());
+		CompletionService<SatOutput> completionService = new ExecutorCompletionService<>(executor);
+		Map<Future<SatOutput>, Sat4jSolver> futures = new HashMap<>();
+		try {
+			for (Sat4jSolver solver : solvers) {
+				futures.put(completionService.submit(solver::solve), solver);
+			}
+
+			ExecutionException failure = null;
+			SatOutput unknown = null;
+			for (int i = 0; i < solvers.size(); i++) {
+				Future<SatOutput> future = completionService.take();
+				try {
+					SatOutput ret = future.get();
+					if (!ret.isUnknown()) {
+						winner = futures.get(future);
+						return ret;
+					}
+					// the budget of this solver is exceeded, but another one
+					// may still decide the problem
+					unknown = ret;
+				} catch (ExecutionException e) {
+					failure = e;
+				}
+			}
+			if (unknown != null) {
+				// keep all solvers, which continue in the next call
+				return unknown;
+			}
+			throw new RuntimeException(failure.getCause());
+
+		} finally {
+			for (Map.Entry<Future<SatOutput>, Sat4jSolver> entry : futures.entrySet()) {
+				Sat4jSolver solver = entry.getValue();
+				if ((winner != null) ? (solver != winner) : !entry.getKey().isDone()) {
+					solver.stop();
+				}
+			}
+			executor.shutdownNow();
+			awaitTermination(executor);
+			if (winner != null) {
+				// release the clauses of the other solvers
+				for (Sat4jSolver solver : solvers) {
+					if (solver != winner) {
+						solver.cleanup();
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Waits until all solvers have returned. Since they have been stopped,
+	 * this does not take long, and an interruption is only recorded and
+	 * restored afterwards.
+	 *
+	 * @param executor
+	 *            the executor running the solvers
+	 */
+	private static void awaitTermination(ExecutorService executor) {
+		boolean interrupted = false;
+		while (!executor.isTerminated()) {
+			try {
+				executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public SatOutput solve(SatInput input) throws InterruptedException {
+		if (input == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		input.copyTo(newInput());
+		return solve();
+	}
+
+	/**
+	 * {@inheritDoc} The budget is passed on to all solvers of this portfolio.
+	 */
+	@Override
+	public void setBudget(Budget budget) {
+		if (budget == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		for (Sat4jSolver solver : solvers) {
+			solver.setBudget(budget);
+		}
+	}
+
+	/**
+	 * Stops all solvers of this portfolio. This method can be called from
+	 * another thread.
+	 */
+	@Override
+	public void stop() {
+		for (Sat4jSolver solver : solvers) {
+			solver.stop();
+		}
+	}
+
+	@Override
+	public boolean supportsRetractableClauses() {
+		return true;
+	}
+
+	@Override
+	public SatOutput update(Set<Integer> clause) {
+		return getWinner().update(clause);
+	}
+
+	@Override
+	public SatOutput updateRetractable(Set<Integer> clause) {
+		return getWinner().updateRetractable(clause);
+	}
+
+}
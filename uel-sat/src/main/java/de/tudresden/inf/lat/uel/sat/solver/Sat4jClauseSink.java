@@ -0,0 +1,136 @@
+package de.tudresden.inf.lat.uel.sat.solver;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IVecInt;
+
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
+import de.tudresden.inf.lat.uel.sat.type.Solver;
+
+/**
+ * An object of this class passes clauses directly to a Sat4j solver, reusing a
+ * single vector for all clauses. If the solver detects a trivial
+ * contradiction, the remaining clauses are ignored.
+ *
+ * @author Stefan Borgwardt
+ */
+abstract class Sat4jClauseSink implements ClauseSink {
+
+	private final VecInt clause = new VecInt();
+	private boolean contradiction = false;
+	private int lastId = 0;
+	private final Set<Integer> minimizeLiterals = new HashSet<>();
+	private int nbClauses = 0;
+
+	@Override
+	public boolean add(int literal) {
+		clause.clear();
+		push(literal);
+		return addClause();
+	}
+
+	@Override
+	public boolean add(int literal1, int literal2) {
+		clause.clear();
+		push(literal1);
+		push(literal2);
+		return addClause();
+	}
+
+	@Override
+	public boolean add(int literal1, int literal2, int literal3) {
+		clause.clear();
+		push(literal1);
+		push(literal2);
+		push(literal3);
+		return addClause();
+	}
+
+	@Override
+	public boolean add(int[] literals, int length) {
+		if (literals == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (length == 0) {
+			throw new IllegalArgumentException("Clause cannot be empty.");
+		}
+
+		clause.clear();
+		for (int i = 0; i < length; i++) {
+			push(literals[i]);
+		}
+		return addClause();
+	}
+
+	private boolean addClause() {
+		nbClauses++;
+		if (contradiction) {
+			return false;
+		}
+		try {
+			addClause(clause);
+		} catch (ContradictionException e) {
+			contradiction = true;
+		}
+		return true;
+	}
+
+	/**
+	 * Passes a clause to the solver.
+	 *
+	 * @param clause
+	 *            the clause
+	 * @throws ContradictionException
+	 *             if the solver detects that the clauses are unsatisfiable
+	 */
+	protected abstract void addClause(IVecInt clause) throws ContradictionException;
+
+	@Override
+	public boolean addMinimizeLiteral(Integer literal) {
+		return minimizeLiterals.add(literal);
+	}
+
+	@Override
+	public int getLastId() {
+		return lastId;
+	}
+
+	/**
+	 * Returns the literals that are to be minimized.
+	 *
+	 * @return the literals to be minimized
+	 */
+	public Set<Integer> getMinimizeLiterals() {
+		return minimizeLiterals;
+	}
+
+	@Override
+	public int getNumberOfClauses() {
+		return nbClauses;
+	}
+
+	/**
+	 * Tells whether the solver has already detected that the clauses are
+	 * unsatisfiable.
+	 *
+	 * @return <code>true</code> if and only if a contradiction was found
+	 */
+	public boolean isContradictory() {
+		return contradiction;
+	}
+
+	private void push(int literal) {
+		if (literal == Solver.END_OF_CLAUSE) {
+			throw new IllegalArgumentException("Clause cannot contain " + Solver.END_OF_CLAUSE + ".");
+		}
+		int absLiteral = literal < 0 ? (-1) * literal : literal;
+		if (absLiteral > lastId) {
+			lastId = absLiteral;
+		}
+		clause.push(literal);
+	}
+
+}
@@ -0,0 +1,307 @@
+package de.tudresden.inf.lat.uel.sat.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
+import de.tudresden.inf.lat.uel.sat.type.SatInput;
+import de.tudresden.inf.lat.uel.sat.type.SatOutput;
+import de.tudresden.inf.lat.uel.sat.type.Solver;
+import de.tudresden.inf.lat.uel.type.impl.Budget;
+
+/**
+ * An object of this class solves a SAT problem in which the number of
+ * variables set to 1 (true) among a given subset of the propositional
+ * variables should be minimal. In contrast to {@link Sat4jMaxSatSolver}, which
+ * improves an upper bound on this number model by model, this solver follows
+ * the core-guided OLL algorithm, which raises a lower bound.
+ *
+ * The solver assumes that all literals to be minimized are false. If this is
+ * not possible, Sat4j reports a subset of the assumptions that cannot hold
+ * together (a core). At least one literal of the core has to be true, so the
+ * lower bound is increased by one, and the literals of the core are replaced
+ * by the single assumption that at most one of them is true, which is
+ * expressed by a totalizer encoding. Cores involving such a bound relax it to
+ * 'at most two', and so on. The first model satisfying all assumptions is
+ * optimal.
+ *
+ * New clauses only increase the optimal value. Hence, the cores found so far
+ * remain valid after {@link #update(Set)}, and the search for the next optimal
+ * model starts from the current lower bound. For the same reason, if the
+ * budget is exceeded, the cores found so far are kept, and the next call of
+ * {@link #solve()} continues from the current lower bound.
+ *
+ * @author Stefan Borgwardt
+ */
+public class Sat4jCoreGuidedMaxSatSolver implements Solver {
+
+	private boolean initialized = false;
+	private int lastVariable;
+	private final Sat4jSearchLimiter limiter = new Sat4jSearchLimiter();
+	private int lowerBound = 0;
+	private int nbVars;
+	private final Map<Integer, Integer> nextBound = new HashMap<>();
+	private int numberOfCores = 0;
+	private Sat4jClauseSink sink;
+	private final Set<Integer> softLiterals = new LinkedHashSet<>();
+	private volatile ISolver solver;
+
+	/**
+	 * Constructs a new solver.
+	 */
+	public Sat4jCoreGuidedMaxSatSolver() {
+	}
+
+	private void addClause(int... literals) {
+		try {
+			solver.addClause(new VecInt(literals));
+		} catch (ContradictionException e) {
+			// clauses with fresh variables cannot lead to a contradiction
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Override
+	public void cleanup() {
+		if (solver != null) {
+			solver.reset();
+		}
+	}
+
+	/**
+	 * Encodes the number of true literals among the inputs in unary notation,
+	 * using a totalizer. The i-th output variable is true if at least i of the
+	 * inputs are true. Only this direction of the equivalence is needed, since
+	 * the output variables are only assumed to be false.
+	 *
+	 * @param inputs
+	 *            the input literals
+	 * @param from
+	 *            the index of the first input
+	 * @param to
+	 *            the index after the last input
+	 * @return the output variables
+	 */
+	private int[] createTotalizer(List<Integer> inputs, int from, int to) {
+		if (to - from == 1) {
+			return new int[] { inputs.get(from) };
+		}
+
+		int middle = (from + to) / 2;
+		int[] left = createTotalizer(inputs, from, middle);
+		int[] right = createTotalizer(inputs, middle, to);
+		int[] ret = new int[left.length + right.length];
+		for (int i = 0; i < ret.length; i++) {
+			lastVariable++;
+			ret[i] = lastVariable;
+		}
+		solver.newVar(lastVariable);
+
+		for (int i = 0; i <= left.length; i++) {
+			for (int j = 0; j <= right.length; j++) {
+				if (i == 0 && j == 0) {
+					continue;
+				}
+				if (i == 0) {
+					addClause((-1) * right[j - 1], ret[j - 1]);
+				} else if (j == 0) {
+					addClause((-1) * left[i - 1], ret[i - 1]);
+				} else {
+					addClause((-1) * left[i - 1], (-1) * right[j - 1], ret[i + j - 1]);
+				}
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the lower bound on the number of true literals to be minimized.
+	 * After a successful call of {@link #solve()} or {@link #update(Set)}, this
+	 * is the number of such literals in the optimal model.
+	 *
+	 * @return the current lower bound
+	 */
+	public int getLowerBound() {
+		return lowerBound;
+	}
+
+	/**
+	 * Returns the number of cores found so far.
+	 *
+	 * @return the number of cores
+	 */
+	public int getNumberOfCores() {
+		return numberOfCores;
+	}
+
+	private SatOutput getSatOutput() {
+		if (limiter.isDone()) {
+			return SatOutput.unknown();
+		}
+		try {
+			while (true) {
+				VecInt assumptions = new VecInt(softLiterals.size());
+				for (Integer literal : softLiterals) {
+					assumptions.push((-1) * literal);
+				}
+				limiter.apply(solver);
+				if (solver.isSatisfiable(assumptions)) {
+					int[] model = new int[nbVars];
+					int length = 0;
+					for (int i = 1; i <= nbVars; i++) {
+						if (solver.model(i)) {
+							model[length] = i;
+							length++;
+						}
+					}
+					return new SatOutput(true, Arrays.copyOf(model, length));
+				}
+
+				List<Integer> core = new ArrayList<>();
+				IVecInt explanation = solver.unsatExplanation();
+				if (explanation != null) {
+					for (int i = 0; i < explanation.size(); i++) {
+						int literal = explanation.get(i);
+						Integer softLiteral = softLiterals.contains((-1) * literal) ? (-1) * literal : literal;
+						if (softLiterals.contains(softLiteral) && !core.contains(softLiteral)) {
+							core.add(softLiteral);
+						}
+					}
+				}
+				if (core.isEmpty()) {
+					// the hard clauses are unsatisfiable
+					return new SatOutput(false, Collections.<Integer> emptySet());
+				}
+				relax(core);
+			}
+		} catch (TimeoutException e) {
+			if (limiter.isStopped() || limiter.hasBudget()) {
+				return SatOutput.unknown();
+			}
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public ClauseSink newInput() {
+		solver = SolverFactory.newDefault();
+		limiter.attachTo(solver);
+		initialized = false;
+		lowerBound = 0;
+		numberOfCores = 0;
+		nextBound.clear();
+		softLiterals.clear();
+		sink = new Sat4jClauseSink() {
+			@Override
+			protected void addClause(IVecInt clause) throws ContradictionException {
+				solver.addClause(clause);
+			}
+		};
+		return sink;
+	}
+
+	/**
+	 * Processes a core: the lower bound is increased, each literal of the core
+	 * is replaced by the next weaker bound (if any), and a new bound is
+	 * introduced that allows only one of the literals of the core to be true.
+	 *
+	 * @param core
+	 *            a set of literals of which at least one has to be true
+	 */
+	private void relax(List<Integer> core) {
+		lowerBound++;
+		numberOfCores++;
+		for (Integer literal : core) {
+			softLiterals.remove(literal);
+			Integer next = nextBound.remove(literal);
+			if (next != null) {
+				softLiterals.add(next);
+			}
+		}
+
+		if (core.size() > 1) {
+			int[] outputs = createTotalizer(core, 0, core.size());
+			for (int i = 1; i < outputs.length - 1; i++) {
+				nextBound.put(outputs[i], outputs[i + 1]);
+			}
+			softLiterals.add(outputs[1]);
+		}
+	}
+
+	/**
+	 * {@inheritDoc} If the budget is exceeded, the next call of
+	 * {@link #solve()} continues the search.
+	 */
+	@Override
+	public void setBudget(Budget budget) {
+		if (budget == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		limiter.setBudget(budget);
+	}
+
+	@Override
+	public SatOutput solve() {
+		if (sink == null) {
+			throw new IllegalStateException("No input was created.");
+		}
+
+		if (sink.isContradictory()) {
+			return new SatOutput(false, Collections.<Integer> emptySet());
+		}
+		if (!initialized) {
+			initialized = true;
+			nbVars = sink.getLastId();
+			lastVariable = nbVars;
+			solver.newVar(nbVars);
+			softLiterals.addAll(new TreeSet<>(sink.getMinimizeLiterals()));
+		}
+		return getSatOutput();
+	}
+
+	@Override
+	public SatOutput solve(SatInput input) {
+		if (input == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		input.copyTo(newInput());
+		return solve();
+	}
+
+	/**
+	 * Stops a running computation of this solver, which then returns an
+	 * unknown output, as do all later computations until a new input is
+	 * created. This method can be called from another thread.
+	 */
+	@Override
+	public void stop() {
+		limiter.stop(solver);
+	}
+
+	@Override
+	public SatOutput update(Set<Integer> clause) {
+		try {
+			solver.addClause(new VecInt(SatInput.toArray(clause)));
+		} catch (ContradictionException e) {
+			return new SatOutput(false, Collections.<Integer> emptySet());
+		}
+		return getSatOutput();
+	}
+
+}
@@ -1,8 +1,8 @@
 package de.tudresden.inf.lat.uel.sat.solver;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Set;
-import java.util.TreeSet;
 
 import org.sat4j.core.VecInt;
 import org.sat4j.maxsat.SolverFactory;
@@ -10,8 +10,10 @@ import org.sat4j.maxsat.WeightedMaxSatDecorator;
 import org.sat4j.pb.PseudoOptDecorator;
 import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.IOptimizationProblem;
+import org.sat4j.specs.IVecInt;
 import org.sat4j.specs.TimeoutException;
 
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
 import de.tudresden.inf.lat.uel.sat.type.SatInput;
 import de.tudresden.inf.lat.uel.sat.type.SatOutput;
 import de.tudresden.inf.lat.uel.sat.type.Solver;
@@ -21,12 +23,21 @@ import de.tudresden.inf.lat.uel.sat.type.Solver;
  * in which a given subset of the propositional variables should be minimized
  * (minimal number of variables set to 1 (true)).
  * 
+ * The optimum is found by a linear search that improves an upper bound model
+ * by model. Since the models found on the way are discarded, this search
+ * cannot be interrupted and resumed later, and hence this solver ignores its
+ * budget. It can only be stopped by {@link #stop()}. The solvers
+ * {@link Sat4jCoreGuidedMaxSatSolver} and {@link Sat4jMinimalModelSolver}
+ * support budgets.
+ * 
  * @author Stefan Borgwardt
  */
 public class Sat4jMaxSatSolver implements Solver {
 
+	private final Sat4jSearchLimiter limiter = new Sat4jSearchLimiter();
 	private Integer nbVars;
-	private WeightedMaxSatDecorator solver;
+	private Sat4jClauseSink sink;
+	private volatile WeightedMaxSatDecorator solver;
 
 	/**
 	 * Constructs a new solver.
@@ -41,8 +52,10 @@ public class Sat4jMaxSatSolver implements Solver {
 	}
 
 	private SatOutput getSatOutput() {
+		if (limiter.isStopped()) {
+			return SatOutput.unknown();
+		}
 		IOptimizationProblem problem = new PseudoOptDecorator(solver, false);
-		Set<Integer> model = new TreeSet<>();
 		boolean satisfiable = false;
 		// int counter = 0;
 		try {
@@ -52,6 +65,9 @@ public class Sat4jMaxSatSolver implements Solver {
 				problem.discardCurrentSolution();
 			}
 		} catch (TimeoutException e) {
+			if (limiter.isStopped()) {
+				return SatOutput.unknown();
+			}
 			throw new RuntimeException(e);
 		} catch (ContradictionException e) {
 			// this means that the current model is optimal
@@ -59,15 +75,49 @@ public class Sat4jMaxSatSolver implements Solver {
 		// if (counter > 2) {
 		// System.out.println(counter);
 		// }
-		if (satisfiable) {
-			for (int i = 1; i <= nbVars; i++) {
-				if (problem.model(i)) {
-					model.add(i);
-				}
+		if (!satisfiable) {
+			return new SatOutput(false, Collections.<Integer> emptySet());
+		}
+
+		int[] model = new int[nbVars];
+		int length = 0;
+		for (int i = 1; i <= nbVars; i++) {
+			if (problem.model(i)) {
+				model[length] = i;
+				length++;
 			}
 		}
+		return new SatOutput(true, Arrays.copyOf(model, length));
+	}
+
+	@Override
+	public ClauseSink newInput() {
+		// TODO: use own VarOrder and PhaseSelectionStrategy?
 
-		return new SatOutput(satisfiable, model);
+		solver = new WeightedMaxSatDecorator(SolverFactory.newDefault());
+		limiter.attachTo(solver);
+		sink = new Sat4jClauseSink() {
+			@Override
+			protected void addClause(IVecInt clause) throws ContradictionException {
+				solver.addHardClause(clause);
+			}
+		};
+		return sink;
+	}
+
+	@Override
+	public SatOutput solve() {
+		if (sink == null) {
+			throw new IllegalStateException("No input was created.");
+		}
+
+		if (sink.isContradictory()) {
+			return new SatOutput(false, Collections.<Integer> emptySet());
+		}
+		nbVars = sink.getLastId();
+		solver.newVar(nbVars);
+		solver.addLiteralsToMinimize(new VecInt(SatInput.toArray(sink.getMinimizeLiterals())));
+		return getSatOutput();
 	}
 
 	@Override
@@ -76,20 +126,18 @@ public class Sat4jMaxSatSolver implements Solver {
 			throw new IllegalArgumentException("Null argument.");
 		}
 
-		// TODO: use own VarOrder and PhaseSelectionStrategy?
+		input.copyTo(newInput());
+		return solve();
+	}
 
-		solver = new WeightedMaxSatDecorator(SolverFactory.newDefault());
-		nbVars = input.getLastId();
-		solver.newVar(nbVars);
-		solver.addLiteralsToMinimize(new VecInt(SatInput.toArray(input.getMinimizeLiterals())));
-		for (Set<Integer> clause : input.getClauses()) {
-			try {
-				solver.addHardClause(new VecInt(SatInput.toArray(clause)));
-			} catch (ContradictionException e) {
-				return new SatOutput(false, Collections.<Integer> emptySet());
-			}
-		}
-		return getSatOutput();
+	/**
+	 * Stops a running computation of this solver, which then returns an
+	 * unknown output, as do all later computations until a new input is
+	 * created. This method can be called from another thread.
+	 */
+	@Override
+	public void stop() {
+		limiter.stop(solver);
 	}
 
 	public SatOutput update(Set<Integer> clause) {
@@ -0,0 +1,240 @@
+package de.tudresden.inf.lat.uel.sat.solver;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
+import de.tudresden.inf.lat.uel.sat.type.SatInput;
+import de.tudresden.inf.lat.uel.sat.type.SatOutput;
+import de.tudresden.inf.lat.uel.sat.type.Solver;
+import de.tudresden.inf.lat.uel.type.impl.Budget;
+
+/**
+ * An object of this class uses the Sat4j solver to compute models in which
+ * the set of true literals among a given set of literals to be minimized is
+ * minimal w.r.t. set inclusion. In contrast to {@link Sat4jMaxSatSolver}, the
+ * number of these literals is not optimized.
+ *
+ * Starting from an arbitrary model, the model is shrunk iteratively: the
+ * solver is asked for a model in which all literals to be minimized that are
+ * false in the current model remain false, and at least one of the true ones
+ * becomes false. The required clause is guarded by a fresh selector variable
+ * and is discarded afterwards. If no such model exists, the current model is
+ * subset-minimal.
+ *
+ * If the clauses added by {@link #update(Set)} exclude all supersets of the
+ * previously found sets of true literals, then every model returned by this
+ * solver is subset-minimal also w.r.t. the original clauses, and each
+ * subset-minimal set is found exactly once.
+ *
+ * If the budget is exceeded while a model is shrunk, the current model is
+ * kept, and the next call of {@link #solve()} continues to shrink it.
+ *
+ * @author Stefan Borgwardt
+ */
+public class Sat4jMinimalModelSolver implements Solver {
+
+	private int[] currentModel = null;
+	private int lastSelector;
+	private final Sat4jSearchLimiter limiter = new Sat4jSearchLimiter();
+	private int[] minimizeLiterals;
+	private int nbVars;
+	private int numberOfShrinkingSteps = 0;
+	private Sat4jClauseSink sink;
+	private volatile ISolver solver;
+
+	/**
+	 * Constructs a new solver.
+	 */
+	public Sat4jMinimalModelSolver() {
+	}
+
+	@Override
+	public void cleanup() {
+		if (solver != null) {
+			solver.reset();
+		}
+	}
+
+	/**
+	 * Returns the number of times a model has been replaced by a smaller one.
+	 *
+	 * @return the number of shrinking steps
+	 */
+	public int getNumberOfShrinkingSteps() {
+		return numberOfShrinkingSteps;
+	}
+
+	private SatOutput getSatOutput() {
+		if (limiter.isDone()) {
+			return SatOutput.unknown();
+		}
+		try {
+			if (currentModel == null) {
+				limiter.apply(solver);
+				if (!solver.isSatisfiable()) {
+					return new SatOutput(false, Collections.<Integer> emptySet());
+				}
+				currentModel = solver.model().clone();
+			}
+
+			while (shrink()) {
+				numberOfShrinkingSteps++;
+				currentModel = solver.model().clone();
+			}
+
+		} catch (TimeoutException e) {
+			if (limiter.isStopped() || limiter.hasBudget()) {
+				return SatOutput.unknown();
+			}
+			throw new RuntimeException(e);
+		}
+
+		int[] model = currentModel;
+		currentModel = null;
+		int length = 0;
+		for (int literal : model) {
+			if (literal > 0 && literal <= nbVars) {
+				model[length] = literal;
+				length++;
+			}
+		}
+		return new SatOutput(true, Arrays.copyOf(model, length));
+	}
+
+	@Override
+	public ClauseSink newInput() {
+		solver = SolverFactory.newDefault();
+		limiter.attachTo(solver);
+		currentModel = null;
+		minimizeLiterals = null;
+		numberOfShrinkingSteps = 0;
+		sink = new Sat4jClauseSink() {
+			@Override
+			protected void addClause(IVecInt clause) throws ContradictionException {
+				solver.addClause(clause);
+			}
+		};
+		return sink;
+	}
+
+	/**
+	 * Tries to find a model of the solver whose true literals to be minimized
+	 * are a strict subset of those in the current model.
+	 *
+	 * @return <code>true</code> if and only if a smaller model was found
+	 * @throws TimeoutException
+	 *             if the solver was stopped or the budget was exceeded
+	 */
+	private boolean shrink() throws TimeoutException {
+		BitSet trueVariables = new BitSet();
+		for (int literal : currentModel) {
+			if (literal > 0) {
+				trueVariables.set(literal);
+			}
+		}
+		VecInt smaller = new VecInt();
+		VecInt assumptions = new VecInt();
+		for (int literal : minimizeLiterals) {
+			if (trueVariables.get(literal)) {
+				smaller.push((-1) * literal);
+			} else {
+				assumptions.push((-1) * literal);
+			}
+		}
+		if (smaller.isEmpty()) {
+			return false;
+		}
+
+		lastSelector++;
+		solver.newVar(lastSelector);
+		smaller.push((-1) * lastSelector);
+		assumptions.push(lastSelector);
+		try {
+			solver.addClause(smaller);
+			limiter.apply(solver);
+			try {
+				return solver.isSatisfiable(assumptions);
+			} finally {
+				// the selector is not needed anymore
+				solver.addClause(new VecInt(new int[] { (-1) * lastSelector }));
+			}
+		} catch (ContradictionException e) {
+			// clauses with a fresh selector cannot lead to a contradiction
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc} If the budget is exceeded, the next call of
+	 * {@link #solve()} continues the search.
+	 */
+	@Override
+	public void setBudget(Budget budget) {
+		if (budget == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		limiter.setBudget(budget);
+	}
+
+	@Override
+	public SatOutput solve() {
+		if (sink == null) {
+			throw new IllegalStateException("No input was created.");
+		}
+
+		if (sink.isContradictory()) {
+			return new SatOutput(false, Collections.<Integer> emptySet());
+		}
+		if (minimizeLiterals == null) {
+			nbVars = sink.getLastId();
+			lastSelector = nbVars;
+			solver.newVar(nbVars);
+			minimizeLiterals = SatInput.toArray(new TreeSet<>(sink.getMinimizeLiterals()));
+		}
+		return getSatOutput();
+	}
+
+	@Override
+	public SatOutput solve(SatInput input) {
+		if (input == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		input.copyTo(newInput());
+		return solve();
+	}
+
+	/**
+	 * Stops a running computation of this solver, which then returns an
+	 * unknown output, as do all later computations until a new input is
+	 * created. This method can be called from another thread.
+	 */
+	@Override
+	public void stop() {
+		limiter.stop(solver);
+	}
+
+	@Override
+	public SatOutput update(Set<Integer> clause) {
+		currentModel = null;
+		try {
+			solver.addClause(new VecInt(SatInput.toArray(clause)));
+		} catch (ContradictionException e) {
+			return new SatOutput(false, Collections.<Integer> emptySet());
+		}
+		return getSatOutput();
+	}
+
+}
@@ -0,0 +1,163 @@
+package de.tudresden.inf.lat.uel.sat.solver;
+
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.ISolverService;
+import org.sat4j.specs.SearchListenerAdapter;
+
+import de.tudresden.inf.lat.uel.type.impl.Budget;
+
+/**
+ * A search listener that stops a Sat4j solver on request or when the conflict
+ * limit of its budget is reached. The timeout of Sat4j alone is not
+ * sufficient for this: it is reset whenever a search starts, so that a
+ * request to stop that arrives shortly before is lost, and its conflict-based
+ * variant cannot be combined with a deadline and must not be expired while a
+ * search is running. Instead, this listener checks in every iteration of the
+ * search loop whether the search should end, and if so expires the timeout
+ * again. The deadline is enforced by the time-based timeout of Sat4j, which
+ * is configured by {@link #apply(ISolver)} before each search.
+ *
+ * The same listener can be attached to several solvers one after the other,
+ * but only to one at a time.
+ *
+ * @author Stefan Borgwardt
+ */
+class Sat4jSearchLimiter extends SearchListenerAdapter<ISolverService> {
+
+	private static final long serialVersionUID = 1L;
+
+	private transient Budget budget = Budget.UNLIMITED;
+	private long conflicts = 0;
+	private long conflictsAtBudgetStart = 0;
+	private transient ISolverService service;
+	private volatile boolean stopped = false;
+
+	/**
+	 * Configures the timeout of a solver according to the current budget.
+	 * This has to be called before each search.
+	 *
+	 * @param solver
+	 *            the solver to which this listener is attached
+	 */
+	void apply(ISolver solver) {
+		if (budget.hasDeadline()) {
+			solver.setTimeoutMs(Math.max(1, budget.getRemainingMillis()));
+		} else {
+			// Sat4j starts with a time-based timeout of Integer.MAX_VALUE
+			// milliseconds
+			solver.setTimeoutMs(Integer.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * Attaches this listener to a new solver. The solver is not stopped, and
+	 * the conflicts of the current budget are counted anew.
+	 *
+	 * @param solver
+	 *            the new solver
+	 */
+	void attachTo(ISolver solver) {
+		stopped = false;
+		conflictsAtBudgetStart = conflicts;
+		service = null;
+		solver.setSearchListener(this);
+	}
+
+	@Override
+	public void beginLoop() {
+		if (stopped || isConflictLimitReached()) {
+			service.stop();
+		}
+	}
+
+	@Override
+	public void conflictFound(IConstr confl, int dlevel, int trailLevel) {
+		conflicts++;
+	}
+
+	/**
+	 * Returns the number of conflicts since the budget was set.
+	 *
+	 * @return the number of conflicts counted against the current budget
+	 */
+	long getNumberOfConflictsInBudget() {
+		return conflicts - conflictsAtBudgetStart;
+	}
+
+	/**
+	 * Tells whether the current budget limits the search at all.
+	 *
+	 * @return <code>true</code> if the budget has a deadline or a conflict
+	 *         limit
+	 */
+	boolean hasBudget() {
+		return budget.hasDeadline() || budget.hasConflictLimit();
+	}
+
+	@Override
+	public void init(ISolverService solverService) {
+		this.service = solverService;
+	}
+
+	/**
+	 * Tells whether the current budget is exceeded.
+	 *
+	 * @return <code>true</code> if the deadline has passed or the conflict
+	 *         limit has been reached
+	 */
+	boolean isBudgetExceeded() {
+		return budget.isExpired() || isConflictLimitReached();
+	}
+
+	private boolean isConflictLimitReached() {
+		return budget.hasConflictLimit() && getNumberOfConflictsInBudget() >= budget.getMaxConflicts();
+	}
+
+	/**
+	 * Tells whether the search should end, i.e., whether the solver was
+	 * stopped or its budget is exceeded.
+	 *
+	 * @return <code>true</code> if no further search should be started
+	 */
+	boolean isDone() {
+		return stopped || isBudgetExceeded();
+	}
+
+	/**
+	 * Tells whether the solver was stopped.
+	 *
+	 * @return <code>true</code> if {@link #stop(ISolver)} was called since the
+	 *         listener was attached to the current solver
+	 */
+	boolean isStopped() {
+		return stopped;
+	}
+
+	/**
+	 * Sets a new budget, whose conflicts are counted from now on.
+	 *
+	 * @param budget
+	 *            the budget
+	 */
+	void setBudget(Budget budget) {
+		this.budget = budget;
+		this.conflictsAtBudgetStart = conflicts;
+	}
+
+	/**
+	 * Stops the current search and all later searches of the solver to which
+	 * this listener is attached, until it is attached to a new solver. This
+	 * method can be called from another thread.
+	 *
+	 * @param solver
+	 *            the solver, whose timeout is expired immediately
+	 */
+	void stop(ISolver solver) {
+		stopped = true;
+		if (solver != null) {
+			solver.expireTimeout();
+		}
+	}
+
+}
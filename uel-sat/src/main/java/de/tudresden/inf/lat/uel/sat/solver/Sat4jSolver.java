@@ -1,33 +1,84 @@
 package de.tudresden.inf.lat.uel.sat.solver;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
 
 import org.sat4j.core.VecInt;
 import org.sat4j.minisat.SolverFactory;
 import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IConstr;
 import org.sat4j.specs.IProblem;
 import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
 import org.sat4j.specs.TimeoutException;
 
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
 import de.tudresden.inf.lat.uel.sat.type.SatInput;
 import de.tudresden.inf.lat.uel.sat.type.SatOutput;
 import de.tudresden.inf.lat.uel.sat.type.Solver;
+import de.tudresden.inf.lat.uel.type.impl.Budget;
 
 /**
  * An object of this class uses the Sat4j solver to solve a SAT problem.
  * 
+ * Retractable clauses are extended by a fresh selector variable, which is
+ * assumed to be true whenever the problem is solved. Retracting the clauses
+ * only requires to stop assuming their selectors, so the solver keeps all
+ * clauses it has learned so far.
+ * 
+ * The budget and requests to stop the solver are enforced by a
+ * {@link Sat4jSearchLimiter}.
+ * 
  * @author Julian Mendez
  */
 public class Sat4jSolver implements Solver {
 
-	private ISolver solver;
+	private final VecInt assumptions = new VecInt();
+	private final String configuration;
+	private int lastSelector = 0;
+	private final Sat4jSearchLimiter limiter = new Sat4jSearchLimiter();
+	private Sat4jClauseSink sink;
+	private volatile ISolver solver;
 
 	/**
 	 * Constructs a new solver.
 	 */
 	public Sat4jSolver() {
+		this.configuration = null;
+	}
+
+	/**
+	 * Constructs a new solver using one of the predefined configurations of
+	 * Sat4j, which differ for example in their restart strategies and phase
+	 * selection heuristics.
+	 * 
+	 * @param configuration
+	 *            the name of a Sat4j configuration, e.g. 'Default' or
+	 *            'Glucose21'
+	 * @see #getConfigurations()
+	 */
+	public Sat4jSolver(String configuration) {
+		if (configuration == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (!getConfigurations().contains(configuration)) {
+			throw new IllegalArgumentException("Unknown Sat4j configuration: '" + configuration + "'.");
+		}
+
+		this.configuration = configuration;
+	}
+
+	/**
+	 * Returns the names of the predefined configurations of Sat4j.
+	 * 
+	 * @return the names of the predefined configurations
+	 */
+	public static List<String> getConfigurations() {
+		return Arrays.asList(SolverFactory.instance().solverNames());
 	}
 
 	public void cleanup() {
@@ -38,20 +89,56 @@ public class Sat4jSolver implements Solver {
 
 	private SatOutput getSatOutput() {
 		IProblem problem = solver;
-		Set<Integer> model = new TreeSet<>();
 		boolean satisfiable;
+		if (limiter.isDone()) {
+			return SatOutput.unknown();
+		}
+		limiter.apply(solver);
 		try {
-			satisfiable = problem.isSatisfiable();
+			satisfiable = problem.isSatisfiable(assumptions);
 		} catch (TimeoutException e) {
+			if (limiter.isStopped() || limiter.hasBudget()) {
+				return SatOutput.unknown();
+			}
 			throw new RuntimeException(e);
 		}
-		if (satisfiable) {
-			for (Integer e : problem.model()) {
-				model.add(e);
+		if (!satisfiable) {
+			return new SatOutput(false, Collections.<Integer> emptySet());
+		}
+
+		return new SatOutput(true, problem.model().clone());
+	}
+
+	@Override
+	public ClauseSink newInput() {
+		if (configuration == null) {
+			solver = SolverFactory.newDefault();
+		} else {
+			solver = SolverFactory.instance().createSolverByName(configuration);
+		}
+		limiter.attachTo(solver);
+		assumptions.clear();
+		lastSelector = 0;
+		sink = new Sat4jClauseSink() {
+			@Override
+			protected void addClause(IVecInt clause) throws ContradictionException {
+				solver.addClause(clause);
 			}
+		};
+		return sink;
+	}
+
+	@Override
+	public SatOutput solve() {
+		if (sink == null) {
+			throw new IllegalStateException("No input was created.");
 		}
 
-		return new SatOutput(satisfiable, model);
+		if (sink.isContradictory()) {
+			return new SatOutput(false, Collections.<Integer> emptySet());
+		}
+		declareVariables();
+		return getSatOutput();
 	}
 
 	@Override
@@ -60,19 +147,188 @@ public class Sat4jSolver implements Solver {
 			throw new IllegalArgumentException("Null argument.");
 		}
 
-		solver = SolverFactory.newDefault();
-		solver.newVar(input.getLastId());
-		for (Set<Integer> clause : input.getClauses()) {
+		input.copyTo(newInput());
+		if (Thread.interrupted()) {
+			throw new InterruptedException();
+		}
+		return solve();
+	}
+
+	/**
+	 * Makes sure that the model contains all variables used so far. Sat4j
+	 * already knows the variables that occur in clauses added after the last
+	 * declaration, and does not allow to declare them again.
+	 */
+	private void declareVariables() {
+		int maxVariable = getMaxVariable();
+		if (maxVariable > solver.realNumberOfVariables()) {
+			solver.newVar(maxVariable);
+		}
+	}
+
+	/**
+	 * Starts with the positive literals as assumptions, since models of the
+	 * encoding are sparse, and asks the solver for a model in which one of the
+	 * given literals is false. Each such model adds the literals that it
+	 * falsifies to the assumptions. If there is no such model, the assumptions
+	 * involved in the final conflict imply all given literals. The clause
+	 * requiring a falsified literal is guarded by a fresh selector, which is
+	 * disabled afterwards.
+	 */
+	@Override
+	public int[] findDeterminingLiterals(int[] literals) {
+		if (literals == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (literals.length == 0 || limiter.isDone()) {
+			return literals;
+		}
+
+		if (lastSelector == 0) {
+			lastSelector = sink.getLastId();
+		}
+		lastSelector++;
+		int selector = lastSelector;
+		declareVariables();
+
+		VecInt violation = new VecInt(literals.length + 1);
+		for (int literal : literals) {
+			violation.push((-1) * literal);
+		}
+		violation.push((-1) * selector);
+
+		VecInt assumed = new VecInt(assumptions.size() + literals.length + 1);
+		assumptions.copyTo(assumed);
+		assumed.push(selector);
+		boolean[] isAssumed = new boolean[literals.length];
+		for (int i = 0; i < literals.length; i++) {
+			if (literals[i] > 0) {
+				assumed.push(literals[i]);
+				isAssumed[i] = true;
+			}
+		}
+
+		try {
+			IConstr constr = solver.addClause(violation);
+			limiter.apply(solver);
 			try {
-				solver.addClause(new VecInt(SatInput.toArray(clause)));
-			} catch (ContradictionException e) {
-				return new SatOutput(false, Collections.<Integer> emptySet());
+				while (solver.isSatisfiable(assumed)) {
+					for (int i = 0; i < literals.length; i++) {
+						if (!isAssumed[i] && (solver.model(Math.abs(literals[i])) != (literals[i] > 0))) {
+							assumed.push(literals[i]);
+							isAssumed[i] = true;
+						}
+					}
+				}
+			} finally {
+				if (constr != null) {
+					solver.removeConstr(constr);
+				}
+				// learned clauses may still contain the selector
+				solver.addClause(new VecInt(new int[] { (-1) * selector }));
+			}
+		} catch (ContradictionException e) {
+			throw new IllegalStateException(e);
+		} catch (TimeoutException e) {
+			// blocking all literals is always correct
+			return literals;
+		}
+
+		IVecInt explanation = solver.unsatExplanation();
+		if (explanation == null) {
+			return assumedLiterals(literals, isAssumed);
+		}
+		Map<Integer, Integer> index = new HashMap<>();
+		for (int i = 0; i < literals.length; i++) {
+			index.put(Math.abs(literals[i]), i);
+		}
+		boolean[] isInCore = new boolean[literals.length];
+		for (int i = 0; i < explanation.size(); i++) {
+			Integer j = index.get(Math.abs(explanation.get(i)));
+			if (j != null) {
+				isInCore[j] = isAssumed[j];
+			}
+		}
+		return assumedLiterals(literals, isInCore);
+	}
+
+	private static int[] assumedLiterals(int[] literals, boolean[] selected) {
+		int[] ret = new int[literals.length];
+		int length = 0;
+		for (int i = 0; i < literals.length; i++) {
+			if (selected[i]) {
+				ret[length] = literals[i];
+				length++;
 			}
+		}
+		return Arrays.copyOf(ret, length);
+	}
+
+	private int getMaxVariable() {
+		return Math.max(sink.getLastId(), lastSelector);
+	}
+
+	/**
+	 * Returns the name of the Sat4j configuration used by this solver.
+	 * 
+	 * @return the name of the configuration, or 'Default' if none was given
+	 */
+	public String getConfiguration() {
+		return configuration == null ? "Default" : configuration;
+	}
 
-			if (Thread.interrupted()) {
-				throw new InterruptedException();
+	@Override
+	public void retractAll() {
+		for (int i = 0; i < assumptions.size(); i++) {
+			try {
+				// the selector is not needed anymore
+				solver.addClause(new VecInt(new int[] { (-1) * assumptions.get(i) }));
+			} catch (ContradictionException e) {
+				throw new IllegalStateException(e);
 			}
 		}
+		assumptions.clear();
+	}
+
+	/**
+	 * Stops a running computation of this solver, which then returns an
+	 * unknown output, as do all later computations until a new input is
+	 * created. This method can be called from another thread.
+	 */
+	@Override
+	public void stop() {
+		limiter.stop(solver);
+	}
+
+	@Override
+	public void setBudget(Budget budget) {
+		if (budget == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		limiter.setBudget(budget);
+	}
+
+	@Override
+	public boolean supportsRetractableClauses() {
+		return true;
+	}
+
+	@Override
+	public SatOutput updateRetractable(Set<Integer> clause) {
+		if (lastSelector == 0) {
+			lastSelector = sink.getLastId();
+		}
+		lastSelector++;
+		declareVariables();
+		VecInt literals = new VecInt(SatInput.toArray(clause));
+		literals.push((-1) * lastSelector);
+		try {
+			solver.addClause(literals);
+		} catch (ContradictionException e) {
+			return new SatOutput(false, Collections.<Integer> emptySet());
+		}
+		assumptions.push(lastSelector);
 		return getSatOutput();
 	}
 
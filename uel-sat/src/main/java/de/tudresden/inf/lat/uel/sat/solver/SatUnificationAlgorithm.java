@@ -1,35 +1,52 @@
 package de.tudresden.inf.lat.uel.sat.solver;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntBinaryOperator;
 import java.util.logging.Logger;
 
 import de.tudresden.inf.lat.uel.sat.literals.Choice;
-import de.tudresden.inf.lat.uel.sat.literals.Literal;
-import de.tudresden.inf.lat.uel.sat.literals.OrderLiteral;
-import de.tudresden.inf.lat.uel.sat.literals.SubsumptionLiteral;
+import de.tudresden.inf.lat.uel.sat.literals.ChoiceEncoding;
+import de.tudresden.inf.lat.uel.sat.literals.LiteralManager;
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
+import de.tudresden.inf.lat.uel.sat.type.EncodingCache;
 import de.tudresden.inf.lat.uel.sat.type.SatInput;
 import de.tudresden.inf.lat.uel.sat.type.SatOutput;
+import de.tudresden.inf.lat.uel.sat.type.SimplifyingClauseSink;
 import de.tudresden.inf.lat.uel.sat.type.Solver;
+import de.tudresden.inf.lat.uel.sat.type.TeeClauseSink;
+import de.tudresden.inf.lat.uel.type.api.AtomManager;
+import de.tudresden.inf.lat.uel.type.api.Axiom;
 import de.tudresden.inf.lat.uel.type.api.Definition;
 import de.tudresden.inf.lat.uel.type.api.Disequation;
 import de.tudresden.inf.lat.uel.type.api.Dissubsumption;
 import de.tudresden.inf.lat.uel.type.api.Equation;
 import de.tudresden.inf.lat.uel.type.api.Goal;
-import de.tudresden.inf.lat.uel.type.api.IndexedSet;
 import de.tudresden.inf.lat.uel.type.api.Subsumption;
 import de.tudresden.inf.lat.uel.type.api.UnificationAlgorithm;
 import de.tudresden.inf.lat.uel.type.impl.ExistentialRestriction;
-import de.tudresden.inf.lat.uel.type.impl.IndexedSetImpl;
+import de.tudresden.inf.lat.uel.type.impl.Budget;
+import de.tudresden.inf.lat.uel.type.impl.CancellationToken;
+import de.tudresden.inf.lat.uel.type.impl.UnificationStatus;
 import de.tudresden.inf.lat.uel.type.impl.Unifier;
 
 /**
@@ -128,30 +145,105 @@ import de.tudresden.inf.lat.uel.type.impl.Unifier;
  */
 public class SatUnificationAlgorithm implements UnificationAlgorithm {
 
+	private static final String keyChoiceEncoding = "Choice encoding";
 	private static final String keyConfiguration = "Configuration";
+	private static final String keyEncodingCache = "Encoding cache";
+	private static final String keyExternalSolver = "External solver";
 	private static final String keyName = "Name";
+	private static final String keyNumberOfBlockingLiterals = "Number of literals in blocking clauses";
 	private static final String keyNumberOfClauses = "Number of clauses";
+	private static final String keyNumberOfCores = "Number of unsatisfiable cores";
+	private static final String keyNumberOfGadgets = "Number of disunification gadgets";
 	private static final String keyNumberOfPropositions = "Number of propositions";
+	private static final String keyNumberOfRefinements = "Number of refinement iterations";
+	private static final String keyNumberOfShrinkingSteps = "Number of shrinking steps";
+	private static final String keyNumberOfThreads = "Number of threads";
 	private static final String keyNumberOfVariables = "Number of variables";
+	private static final String keyPortfolioWinner = "Winning solver configuration";
 	private static final Logger logger = Logger.getLogger(SatUnificationAlgorithm.class.getName());
+	private static final String cacheHit = "hit";
+	private static final String cacheMiss = "miss";
+	/**
+	 * The version of the encoding, which is part of the fingerprint of the
+	 * goal. It must be increased whenever the encoding changes, so that
+	 * outdated encodings are not loaded from an encoding cache.
+	 */
+	private static final int encodingVersion = 1;
 	private static final String notUsingMinimalAssignments = "all local assignments";
 	private static final String algorithmName = "SAT-based algorithm";
 	private static final String usingMinimalAssignments = "only minimal assignments";
 
+	/**
+	 * Generates the clauses for a single value of the outermost loop variable
+	 * of a step of the encoding.
+	 */
+	private interface RowEncoder {
+
+		void encode(int row, ClauseSink input);
+
+	}
+
+	private CancellationToken cancellationToken = new CancellationToken();
+	private ChoiceEncoding choiceEncoding = ChoiceEncoding.AUTOMATIC;
+	private boolean budgetExceeded = false;
+	private boolean coreGuided = false;
+	private final BitSet disunificationGadgets = new BitSet();
+	private EncodingCache encodingCache;
+	private Boolean encodingCacheHit;
+	private List<String> externalSolver;
 	private boolean firstTime = true;
-	private final IndexedSet<Literal> literalManager = new IndexedSetImpl<>();
+	private SimplifyingClauseSink input;
+	private boolean keepSolverHot = false;
+	private boolean lazyDisunification = false;
+	private boolean lazyTransitivity = false;
+	private final LiteralManager literalManager;
+	private long numberOfBlockingLiterals = 0;
 	private long numberOfClauses = 0;
+	private int numberOfRefinements = 0;
 	private final boolean onlyMinimalAssignments;
+	private final int parallelism;
+	private List<String> portfolio;
+	private boolean restarted = false;
 	private Unifier result;
-	private Solver solver;
+	private boolean shortBlockingClauses = true;
+	private volatile Solver solver;
+	private final Runnable solverStopper = this::stopSolver;
+	private boolean subsetMinimal = false;
 	private final Map<Integer, Set<Integer>> subsumers = new HashMap<>();
-	private final Set<Integer> trueLiterals = new HashSet<>();
+	private final BitSet trueLiterals = new BitSet();
 	private final Set<Integer> nonVariableAtoms = new HashSet<>();
 	private final Set<Integer> usedAtomIds = new HashSet<>();
 	private final Goal goal;
 	private Set<Integer> update = new HashSet<>();
 
+	/**
+	 * Constructs a new SAT-based unification algorithm that generates the
+	 * clauses in a single thread.
+	 * 
+	 * @param goal
+	 *            the unification problem
+	 * @param useMinimalAssignments
+	 *            a flag indicating whether only unifiers with minimal
+	 *            assignments should be computed
+	 */
 	public SatUnificationAlgorithm(Goal goal, boolean useMinimalAssignments) {
+		this(goal, useMinimalAssignments, 1);
+	}
+
+	/**
+	 * Constructs a new SAT-based unification algorithm.
+	 * 
+	 * @param goal
+	 *            the unification problem
+	 * @param useMinimalAssignments
+	 *            a flag indicating whether only unifiers with minimal
+	 *            assignments should be computed
+	 * @param parallelism
+	 *            the number of threads used to generate the transitivity
+	 *            clauses (steps 2.5 and 3.1); the value 1 disables parallel
+	 *            generation
+	 */
+	public SatUnificationAlgorithm(Goal goal, boolean useMinimalAssignments, int parallelism) {
 		if (goal == null) {
 			throw new IllegalArgumentException("Null argument.");
 		}
@@ -162,18 +254,36 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		this.usedAtomIds.addAll(nonVariableAtoms);
 		this.usedAtomIds.addAll(goal.getAtomManager().getVariables());
 		this.onlyMinimalAssignments = useMinimalAssignments;
-		setLiterals();
+		this.parallelism = Math.max(1, parallelism);
+		this.literalManager = new LiteralManager(usedAtomIds, goal.getAtomManager().getVariables());
 	}
 
-	private void addClausesForDisunification(SatInput input) throws InterruptedException {
+	/**
+	 * Adds clauses expressing that, for every atom A and variable X, if A is
+	 * not subsumed by X, then there is a non-variable atom that subsumes X, but
+	 * not A.
+	 * 
+	 * @param input
+	 *            input
+	 * @throws InterruptedException
+	 *             if the thread was interrupted
+	 */
+	private void addClausesForDisunification(ClauseSink input) throws InterruptedException {
 		for (Integer atomId : getUsedAtomIds()) {
+			this.cancellationToken.check();
 			for (Integer varId : getVariables()) {
-				runStep1DissubsumptionVariable(Collections.singleton(getSubsumptionLiteral(atomId, varId)),
+				runStep1DissubsumptionVariable(new int[] { getSubsumptionLiteral(atomId, varId) },
 						Collections.singleton(atomId), varId, input);
 			}
 		}
 	}
 
+	private void addClause(ClauseSink input, int[] choiceLiterals, int literal) {
+		int[] clause = Arrays.copyOf(choiceLiterals, choiceLiterals.length + 1);
+		clause[choiceLiterals.length] = literal;
+		input.add(clause);
+	}
+
 	private boolean addEntry(List<Entry<String, String>> list, String key, String value) {
 		return list.add(new SimpleEntry<String, String>(key, value));
 	}
@@ -196,16 +306,50 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 
 	@Override
 	public boolean computeNextUnifier() throws InterruptedException {
+		return computeNextUnifier(Budget.UNLIMITED) == UnificationStatus.FOUND;
+	}
+
+	/**
+	 * {@inheritDoc} The deadline and the number of conflicts are enforced by
+	 * the SAT solver, if it supports this. The encoding is always completed
+	 * before the budget is checked. If the budget is exceeded, the next call
+	 * continues to solve the current problem.
+	 */
+	@Override
+	public UnificationStatus computeNextUnifier(Budget budget) throws InterruptedException {
+		if (budget == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		this.cancellationToken.check();
+		if (budget.isExpired()) {
+			return UnificationStatus.BUDGET_EXCEEDED;
+		}
+
 		SatOutput satoutput = null;
 		boolean unifiable = false;
 		try {
 			if (this.firstTime) {
-				if (this.onlyMinimalAssignments) {
+				if (this.externalSolver != null) {
+					ExternalSolver external = new ExternalSolver(this.externalSolver);
+					external.setWeighted(this.onlyMinimalAssignments);
+					this.solver = external;
+				} else if (this.onlyMinimalAssignments && this.subsetMinimal) {
+					this.solver = new Sat4jMinimalModelSolver();
+				} else if (this.onlyMinimalAssignments && this.coreGuided) {
+					this.solver = new Sat4jCoreGuidedMaxSatSolver();
+				} else if (this.onlyMinimalAssignments) {
 					this.solver = new Sat4jMaxSatSolver();
+				} else if (this.portfolio != null) {
+					this.solver = new PortfolioSolver(this.portfolio);
 				} else {
 					this.solver = new Sat4jSolver();
 				}
-				SatInput satInput = computeSatInput();
+				this.input = new SimplifyingClauseSink(this.solver.newInput());
+				if (this.encodingCache == null) {
+					encode(this.input);
+				} else {
+					encodeWithCache(this.input);
+				}
 				//// DEBUG
 				// StringBuffer sbuf = new StringBuffer();
 				// for (Set<Integer> clause : satInput.getClauses()) {
@@ -239,8 +383,15 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 				// }
 				// sbuf.append(Solver.NEWLINE);
 				// }
-				this.numberOfClauses = satInput.getClauses().size();
-				satoutput = this.solver.solve(satInput);
+				this.numberOfClauses = this.input.getNumberOfClauses();
+				this.solver.setBudget(budget);
+				satoutput = refine(this.solver.solve());
+				unifiable = satoutput.isSatisfiable();
+			} else if (this.restarted || this.budgetExceeded) {
+				this.restarted = false;
+				this.budgetExceeded = false;
+				this.solver.setBudget(budget);
+				satoutput = refine(this.solver.solve());
 				unifiable = satoutput.isSatisfiable();
 			} else {
 				Set<Integer> update = getUpdate();
@@ -248,25 +399,71 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 					unifiable = false;
 				} else {
 					this.numberOfClauses++;
-					satoutput = this.solver.update(update);
+					this.solver.setBudget(budget);
+					if (supportsRetractableClauses()) {
+						satoutput = refine(this.solver.updateRetractable(update));
+					} else {
+						satoutput = refine(this.solver.update(update));
+					}
 					unifiable = satoutput.isSatisfiable();
 				}
 			}
 		} catch (IOException e) {
+			this.cancellationToken.check();
 			throw new RuntimeException(e);
+		} catch (RuntimeException e) {
+			// a stopped solver may fail instead of returning an unknown output
+			this.cancellationToken.check();
+			throw e;
+		}
+
+		this.firstTime = false;
+		// a stopped solver returns an unknown output
+		this.cancellationToken.check();
+		if (satoutput != null && satoutput.isUnknown()) {
+			// the blocking and refinement clauses are already part of the
+			// problem, which only needs to be solved again
+			this.budgetExceeded = true;
+			return UnificationStatus.BUDGET_EXCEEDED;
 		}
 
 		reset();
 		if (unifiable) {
-			this.result = new Unifier(toDefinitions(satoutput.getOutput()));
-		} else {
+			this.result = new Unifier(toDefinitions(satoutput.getTrueVariables()));
+			if (usesShortBlockingClauses()) {
+				shortenUpdate();
+			}
+		} else if (!this.keepSolverHot) {
 			// release resources used by the solver after all unifiers have been
 			// computed
 			solver.cleanup();
 		}
 
-		this.firstTime = false;
-		return unifiable;
+		return unifiable ? UnificationStatus.FOUND : UnificationStatus.EXHAUSTED;
+	}
+
+	private void appendAtoms(StringBuffer sbuf, Set<Integer> atomIds) {
+		for (Integer atomId : new TreeSet<>(atomIds)) {
+			sbuf.append(atomId);
+			sbuf.append(' ');
+		}
+		sbuf.append('|');
+	}
+
+	private void appendAxioms(StringBuffer sbuf, String type, Set<? extends Axiom> axioms) {
+		List<String> lines = new ArrayList<>();
+		for (Axiom axiom : axioms) {
+			StringBuffer line = new StringBuffer(type);
+			line.append(' ');
+			appendAtoms(line, axiom.getLeft());
+			appendAtoms(line, axiom.getRight());
+			lines.add(line.toString());
+		}
+		Collections.sort(lines);
+		for (String line : lines) {
+			sbuf.append(line);
+			sbuf.append('\n');
+		}
 	}
 
 	//// DEBUG
@@ -294,62 +491,58 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 	 * clause is on one line. The end of a clause is marked by 0. Example of a
 	 * clause in DIMACS format: 1 -3 0
 	 *
-	 * @return an object representing the DIMACS CNF encoding of the input
-	 *         subsumptions
-	 * 
+	 * The clauses are passed to the given sink as soon as they are generated,
+	 * so that they need not be stored before they are given to the solver.
+	 *
+	 * @param ret
+	 *            the clause sink receiving the DIMACS CNF encoding of the
+	 *            input subsumptions
 	 * @throws InterruptedException
 	 *             if the process is interrupted
 	 */
-	private SatInput computeSatInput() throws InterruptedException {
-		SatInput ret = new SatInput();
+	private void encode(ClauseSink ret) throws InterruptedException {
 
 		logger.finer("computing SAT input ...");
 
 		logger.finer("running step 1 ...");
 		runStep1(ret);
 
-		if (Thread.interrupted()) {
-			throw new InterruptedException();
-		}
+		this.cancellationToken.check();
 
 		logger.finer("running step 2.1 ...");
 		runStep2_1(ret);
 
-		if (Thread.interrupted()) {
-			throw new InterruptedException();
-		}
+		this.cancellationToken.check();
 
 		logger.finer("running steps 2.2 and 2.3 ...");
 		runSteps2_2_N_2_3(ret);
 
-		if (Thread.interrupted()) {
-			throw new InterruptedException();
-		}
+		this.cancellationToken.check();
 
 		logger.finer("running step 2.4 ...");
 		runStep2_4(ret);
 
-		if (Thread.interrupted()) {
-			throw new InterruptedException();
-		}
+		this.cancellationToken.check();
 
-		logger.finer("running step 2.5 ...");
-		runStep2_5(ret);
+		if (!usesLazyTransitivity()) {
+			logger.finer("running step 2.5 ...");
+			runStep2_5(ret);
+		}
 
 		logger.finer("running step 3.1 reflexivity ...");
 		runStep3_1_r(ret);
 
-		logger.finer("running step 3.1 transitivity ...");
-		runStep3_1_t(ret);
+		if (!usesLazyTransitivity()) {
+			logger.finer("running step 3.1 transitivity ...");
+			runStep3_1_t(ret);
+		}
 
 		logger.finer("running step 3.2 ...");
 		runStep3_2(ret);
 
-		if (Thread.interrupted()) {
-			throw new InterruptedException();
-		}
+		this.cancellationToken.check();
 
-		if (goal.hasNegativePart()) {
+		if (goal.hasNegativePart() && !usesLazyDisunification()) {
 			// add clauses with auxiliary variables needed for soundness of
 			// disunification
 			logger.finer("adding clauses for dissubsumptions ...");
@@ -365,13 +558,43 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 			}
 		}
 
-		if (Thread.interrupted()) {
-			throw new InterruptedException();
-		}
+		this.cancellationToken.check();
 
 		logger.finer("SAT input computed.");
+	}
 
-		return ret;
+	/**
+	 * Passes the encoding of the goal to the given sink, using the encoding
+	 * cache. If the cache contains an encoding for the fingerprint of the goal
+	 * and the current settings (see {@link #getFingerprint()}), it is loaded
+	 * instead of being computed, and the propositional variables it uses are
+	 * reserved in the literal manager. Otherwise, the encoding is computed by
+	 * {@link #encode(ClauseSink)} and written to the sink and to the cache at
+	 * the same time; it is committed to the cache only if the computation is
+	 * completed, so that an interrupted encoding is not stored.
+	 *
+	 * @param ret
+	 *            the clause sink receiving the encoding
+	 * @throws IOException
+	 *             if the cache cannot be read or written
+	 * @throws InterruptedException
+	 *             if the process is interrupted
+	 */
+	private void encodeWithCache(ClauseSink ret) throws IOException, InterruptedException {
+		String fingerprint = getFingerprint();
+		int maxIndex = this.encodingCache.load(fingerprint, ret);
+		if (maxIndex >= 0) {
+			logger.finer("SAT input loaded from cache.");
+			this.encodingCacheHit = true;
+			this.literalManager.ensureMaxIndex(maxIndex);
+			return;
+		}
+
+		this.encodingCacheHit = false;
+		try (EncodingCache.Writer writer = this.encodingCache.newWriter(fingerprint)) {
+			encode(new TeeClauseSink(ret, writer));
+			writer.commit(this.literalManager.getMaxIndex());
+		}
 	}
 
 	private void createUpdate() {
@@ -385,6 +608,57 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		}
 	}
 
+	/**
+	 * Computes a fingerprint of the goal and all settings that influence the
+	 * encoding. The atoms and axioms are listed in a fixed order, so that the
+	 * fingerprint does not depend on the iteration order of sets. The literal
+	 * identifiers depend on the atom identifiers, so two goals have the same
+	 * fingerprint only if their atoms have the same identifiers.
+	 * 
+	 * @return a hexadecimal SHA-256 hash
+	 */
+	private String getFingerprint() {
+		AtomManager atomManager = goal.getAtomManager();
+		StringBuffer sbuf = new StringBuffer();
+		sbuf.append("encoding " + encodingVersion + '\n');
+		sbuf.append("minimal " + this.onlyMinimalAssignments + '\n');
+		sbuf.append("lazy " + usesLazyTransitivity() + '\n');
+		sbuf.append("lazy disunification " + usesLazyDisunification() + '\n');
+		sbuf.append("choice " + this.choiceEncoding + '\n');
+		for (Integer atomId : new TreeSet<>(getUsedAtomIds())) {
+			sbuf.append(atomId);
+			if (getExistentialRestrictions().contains(atomId)) {
+				sbuf.append(" exists ");
+				sbuf.append(atomManager.printRoleName(atomId));
+				sbuf.append(' ');
+				sbuf.append(atomManager.getChild(atomId));
+			} else {
+				sbuf.append(getVariables().contains(atomId) ? " var " : " const ");
+				sbuf.append(atomManager.printConceptName(atomId));
+			}
+			sbuf.append('\n');
+		}
+		sbuf.append("user ");
+		appendAtoms(sbuf, getUserVariables());
+		sbuf.append('\n');
+		appendAxioms(sbuf, "definition", goal.getDefinitions());
+		appendAxioms(sbuf, "equation", goal.getEquations());
+		appendAxioms(sbuf, "subsumption", goal.getSubsumptions());
+		appendAxioms(sbuf, "disequation", goal.getDisequations());
+		appendAxioms(sbuf, "dissubsumption", goal.getDissubsumptions());
+
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(sbuf.toString().getBytes(StandardCharsets.UTF_8));
+			StringBuffer ret = new StringBuffer();
+			for (byte b : hash) {
+				ret.append(String.format("%02x", b));
+			}
+			return ret.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
 	private Set<Integer> getConstants() {
 		return goal.getAtomManager().getConstants();
 	}
@@ -413,6 +687,38 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		}
 		addEntry(ret, keyNumberOfClauses, "" + this.numberOfClauses);
 		addEntry(ret, keyNumberOfVariables, "" + getVariables().size());
+		addEntry(ret, keyNumberOfThreads, "" + this.parallelism);
+		if (goal.hasNegativePart()) {
+			addEntry(ret, keyChoiceEncoding, this.choiceEncoding.toString());
+		}
+		if (this.externalSolver != null) {
+			addEntry(ret, keyExternalSolver, String.join(" ", this.externalSolver));
+		}
+		if (this.solver instanceof PortfolioSolver) {
+			String winner = ((PortfolioSolver) this.solver).getWinningConfiguration();
+			if (winner != null) {
+				addEntry(ret, keyPortfolioWinner, winner);
+			}
+		}
+		if (!this.onlyMinimalAssignments) {
+			addEntry(ret, keyNumberOfBlockingLiterals, "" + this.numberOfBlockingLiterals);
+		}
+		if (usesLazyTransitivity() || usesLazyDisunification()) {
+			addEntry(ret, keyNumberOfRefinements, "" + this.numberOfRefinements);
+		}
+		if (usesLazyDisunification()) {
+			addEntry(ret, keyNumberOfGadgets, "" + this.disunificationGadgets.cardinality());
+		}
+		if (this.encodingCacheHit != null) {
+			addEntry(ret, keyEncodingCache, this.encodingCacheHit ? cacheHit : cacheMiss);
+		}
+		if (this.solver instanceof Sat4jCoreGuidedMaxSatSolver) {
+			addEntry(ret, keyNumberOfCores, "" + ((Sat4jCoreGuidedMaxSatSolver) this.solver).getNumberOfCores());
+		}
+		if (this.solver instanceof Sat4jMinimalModelSolver) {
+			addEntry(ret, keyNumberOfShrinkingSteps,
+					"" + ((Sat4jMinimalModelSolver) this.solver).getNumberOfShrinkingSteps());
+		}
 		return Collections.unmodifiableList(ret);
 	}
 
@@ -421,26 +727,20 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		return goal;
 	}
 
-	private boolean getLiteralValue(Integer literalId) {
-		if (literalId == null) {
-			throw new IllegalArgumentException("Null argument.");
-		}
-
-		return this.trueLiterals.contains(literalId);
+	private boolean getLiteralValue(int literalId) {
+		return this.trueLiterals.get(literalId);
 	}
 
-	private Integer getMinusOrderLiteral(Integer atomId1, Integer atomId2) {
+	private int getMinusOrderLiteral(Integer atomId1, Integer atomId2) {
 		return (-1) * getOrderLiteral(atomId1, atomId2);
 	}
 
-	private Integer getSubsumptionLiteral(Integer atomId1, Integer atomId2) {
-		Literal literal = new SubsumptionLiteral(atomId1, atomId2);
-		return literalManager.addAndGetIndex(literal);
+	private int getSubsumptionLiteral(Integer atomId1, Integer atomId2) {
+		return literalManager.getSubsumptionLiteral(atomId1, atomId2);
 	}
 
-	private Integer getOrderLiteral(Integer atomId1, Integer atomId2) {
-		Literal literal = new OrderLiteral(atomId1, atomId2);
-		return this.literalManager.addAndGetIndex(literal);
+	private int getOrderLiteral(Integer atomId1, Integer atomId2) {
+		return literalManager.getOrderLiteral(atomId1, atomId2);
 	}
 
 	private Set<Integer> getSetOfSubsumers(Integer atomId) {
@@ -452,7 +752,7 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		return list;
 	}
 
-	private Integer getMinusSubsumptionLiteral(Integer atomId1, Integer atomId2) {
+	private int getMinusSubsumptionLiteral(Integer atomId1, Integer atomId2) {
 		return (-1) * getSubsumptionLiteral(atomId1, atomId2);
 	}
 
@@ -477,6 +777,62 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		return usedAtomIds;
 	}
 
+	private int[] toArray(Set<Integer> atomIds) {
+		int[] ret = new int[atomIds.size()];
+		int index = 0;
+		for (Integer atomId : atomIds) {
+			ret[index] = atomId;
+			index++;
+		}
+		return ret;
+	}
+
+	/**
+	 * Tells whether a literal is already known to be true because of a unit
+	 * clause generated before. This method may be called concurrently with
+	 * the generation of further clauses; since literals that are known to be
+	 * true remain true, this only means that some satisfied clauses are
+	 * filtered out later by the clause sink instead of here.
+	 * 
+	 * @param literal
+	 *            the literal
+	 * @return <code>true</code> if the literal is known to be true
+	 */
+	private boolean isSatisfied(int literal) {
+		return this.input != null && this.input.isTrue(literal);
+	}
+
+	private boolean usesLazyDisunification() {
+		return this.lazyDisunification && goal.hasNegativePart() && !this.onlyMinimalAssignments;
+	}
+
+	/**
+	 * Tells whether the blocking clauses are shortened by the solver. This
+	 * requires a fresh variable for each blocking clause, which could clash
+	 * with the choice literals of lazily generated disunification clauses.
+	 * 
+	 * @return <code>true</code> if the blocking clauses are shortened
+	 */
+	private boolean usesShortBlockingClauses() {
+		return this.shortBlockingClauses && !this.onlyMinimalAssignments && !usesLazyDisunification();
+	}
+
+	private boolean usesLazyTransitivity() {
+		return this.lazyTransitivity && !this.onlyMinimalAssignments;
+	}
+
+	/**
+	 * Tells whether the clauses excluding previous unifiers are added as
+	 * retractable clauses. This is not done if disunification clauses are
+	 * generated lazily, since their fresh choice literals could clash with
+	 * the selector variables that the solver uses for retractable clauses.
+	 * 
+	 * @return <code>true</code> if retractable clauses are used
+	 */
+	private boolean supportsRetractableClauses() {
+		return this.solver.supportsRetractableClauses() && !usesLazyDisunification();
+	}
+
 	private Set<Integer> getVariables() {
 		return goal.getAtomManager().getVariables();
 	}
@@ -485,17 +841,204 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		return goal.getAtomManager().getUserVariables();
 	}
 
+	/**
+	 * Adds the transitivity clauses of steps 2.5 and 3.1 that are violated by
+	 * the given model.
+	 * 
+	 * @param model
+	 *            the propositional variables that are true in the model
+	 * @return the number of added clauses
+	 */
+	private int addViolatedTransitivityClauses(BitSet model) {
+		int before = this.input.getNumberOfClauses();
+		addViolatedTransitivityClauses(toArray(getUsedAtomIds()), literalManager::getSubsumptionLiteral, false, model);
+		addViolatedTransitivityClauses(toArray(getVariables()), literalManager::getOrderLiteral, true, model);
+		return this.input.getNumberOfClauses() - before;
+	}
+
+	/**
+	 * Adds the clauses [a1 R a2] &and; [a2 R a3] &rarr; [a1 R a3] for all
+	 * paths a1 R a2 R a3 in the model that are not closed by the model. Only
+	 * the edges that are true in the model are visited, so that sparse models
+	 * can be checked in time quadratic in the number of atoms.
+	 * 
+	 * @param atomIds
+	 *            the atoms related by R
+	 * @param literal
+	 *            computes the literal [a1 R a2]
+	 * @param allowCycles
+	 *            whether a1 and a3 may be the same atom
+	 * @param model
+	 *            the propositional variables that are true in the model
+	 */
+	private void addViolatedTransitivityClauses(int[] atomIds, IntBinaryOperator literal, boolean allowCycles,
+			BitSet model) {
+		int[][] successors = new int[atomIds.length][];
+		int[] buffer = new int[atomIds.length];
+		for (int i = 0; i < atomIds.length; i++) {
+			int count = 0;
+			for (int j = 0; j < atomIds.length; j++) {
+				if (i != j && model.get(literal.applyAsInt(atomIds[i], atomIds[j]))) {
+					buffer[count] = j;
+					count++;
+				}
+			}
+			successors[i] = Arrays.copyOf(buffer, count);
+		}
+
+		for (int i = 0; i < atomIds.length; i++) {
+			for (int j : successors[i]) {
+				for (int k : successors[j]) {
+					if (allowCycles || i != k) {
+						int literal13 = literal.applyAsInt(atomIds[i], atomIds[k]);
+						if (!model.get(literal13)) {
+							this.input.add((-1) * literal.applyAsInt(atomIds[i], atomIds[j]),
+									(-1) * literal.applyAsInt(atomIds[j], atomIds[k]), literal13);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the clauses for disunification (see
+	 * {@link #addClausesForDisunification(ClauseSink)}) for all pairs of an
+	 * atom A and a variable X for which the model violates the local
+	 * disunification condition: A is not subsumed by X, but there is no
+	 * non-variable atom D that subsumes X and does not subsume A. For all
+	 * other pairs, the model already satisfies these clauses for a suitable
+	 * choice of the choice literals. The clauses for each pair are added at
+	 * most once, and are identified by the subsumption literal [A \u2291 X].
+	 * 
+	 * @param model
+	 *            the propositional variables that are true in the model
+	 * @return the number of added clauses
+	 */
+	private int addViolatedDisunificationClauses(BitSet model) {
+		int before = this.input.getNumberOfClauses();
+		int[] nonVariableAtomIds = toArray(getNonVariableAtoms());
+		for (Integer atomId : getUsedAtomIds()) {
+			for (Integer varId : getVariables()) {
+				int literal = getSubsumptionLiteral(atomId, varId);
+				if (model.get(literal) || this.disunificationGadgets.get(literal)) {
+					continue;
+				}
+				boolean solved = false;
+				for (int i = 0; !solved && i < nonVariableAtomIds.length; i++) {
+					solved = model.get(getSubsumptionLiteral(varId, nonVariableAtomIds[i]))
+							&& !model.get(getSubsumptionLiteral(atomId, nonVariableAtomIds[i]));
+				}
+				if (!solved) {
+					runStep1DissubsumptionVariable(new int[] { literal }, Collections.singleton(atomId), varId,
+							this.input);
+					this.disunificationGadgets.set(literal);
+				}
+			}
+		}
+		return this.input.getNumberOfClauses() - before;
+	}
+
+	/**
+	 * Adds the transitivity and disunification clauses violated by a model
+	 * and solves again, until the solver returns a model that satisfies all
+	 * these clauses or the problem becomes unsatisfiable. Nothing is done if
+	 * these clauses were already part of the encoding.
+	 * 
+	 * @param output
+	 *            the output of the SAT solver
+	 * @return the output for a model satisfying all clauses of the encoding
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 * @throws InterruptedException
+	 *             if the process is interrupted
+	 */
+	private SatOutput refine(SatOutput output) throws IOException, InterruptedException {
+		SatOutput ret = output;
+		while ((usesLazyTransitivity() || usesLazyDisunification()) && ret.isSatisfiable()) {
+			BitSet model = ret.getTrueVariables();
+			int added = 0;
+			if (usesLazyTransitivity()) {
+				added += addViolatedTransitivityClauses(model);
+			}
+			if (usesLazyDisunification()) {
+				added += addViolatedDisunificationClauses(model);
+			}
+			if (added == 0) {
+				return ret;
+			}
+			this.numberOfRefinements++;
+			this.numberOfClauses += added;
+			logger.finer("added " + added + " violated clauses, solving again ...");
+			ret = this.solver.solve();
+
+			this.cancellationToken.check();
+		}
+		return ret;
+	}
+
+	/**
+	 * Generates the clauses of one step of the encoding, where the clauses for
+	 * each value of the outermost loop variable ('row') are independent of each
+	 * other. If more than one thread is allowed, the rows are distributed over
+	 * a fork/join pool, with each task writing into its own buffer. The buffers
+	 * are appended to the input in the order of the rows, so that the result
+	 * does not depend on the scheduling. At most two buffers per thread are
+	 * kept in memory at the same time.
+	 * 
+	 * @param rows
+	 *            the values of the outermost loop variable
+	 * @param encoder
+	 *            the encoder for a single row
+	 * @param input
+	 *            input
+	 * @throws InterruptedException
+	 *             if the thread was interrupted
+	 */
+	private void runInParallel(int[] rows, RowEncoder encoder, ClauseSink input) throws InterruptedException {
+		if (this.parallelism <= 1 || rows.length <= 1) {
+			for (int row : rows) {
+				encoder.encode(row, input);
+				this.cancellationToken.check();
+			}
+			return;
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+		try {
+			Deque<ForkJoinTask<SatInput>> pending = new ArrayDeque<>();
+			int next = 0;
+			while (next < rows.length || !pending.isEmpty()) {
+				while (next < rows.length && pending.size() < 2 * this.parallelism) {
+					int row = rows[next];
+					pending.add(pool.submit(() -> {
+						SatInput buffer = new SatInput();
+						encoder.encode(row, buffer);
+						return buffer;
+					}));
+					next++;
+				}
+				pending.poll().get().copyTo(input);
+				this.cancellationToken.check();
+			}
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
 	/**
 	 * Resets string update values for literals and S(X) for each X, before the
-	 * next unifier is computed.
+	 * next unifier is computed. Only the values set by the last model are
+	 * cleared, so that the cost does not depend on the total number of
+	 * literals.
 	 */
 	public void reset() {
 
 		update = new HashSet<>();
 
-		for (Integer key : literalManager.getIndices()) {
-			setLiteralValue(key, false);
-		}
+		trueLiterals.clear();
 
 		for (Integer atomId : getVariables()) {
 			resetSetOfSubsumers(atomId);
@@ -517,7 +1060,7 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 	 * @param input
 	 *            input
 	 */
-	private void runStep1(SatInput input) {
+	private void runStep1(ClauseSink input) {
 		// encode positive part of the goal
 		for (Definition d : goal.getDefinitions()) {
 			runStep1(d, input);
@@ -537,19 +1080,19 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		}
 	}
 
-	private void runStep1(Definition d, SatInput input) {
+	private void runStep1(Definition d, ClauseSink input) {
 		runStep1(new Subsumption(d.getLeft(), d.getRight()), input);
 		if (!d.isPrimitive()) {
 			runStep1(new Subsumption(d.getRight(), d.getLeft()), input);
 		}
 	}
 
-	private void runStep1(Equation e, SatInput input) {
+	private void runStep1(Equation e, ClauseSink input) {
 		runStep1(new Subsumption(e.getLeft(), e.getRight()), input);
 		runStep1(new Subsumption(e.getRight(), e.getLeft()), input);
 	}
 
-	private void runStep1(Subsumption s, SatInput input) {
+	private void runStep1(Subsumption s, ClauseSink input) {
 		for (Integer rightId : s.getRight()) {
 			if (getVariables().contains(rightId)) {
 				runStep1SubsumptionVariable(s.getLeft(), rightId, input);
@@ -560,39 +1103,43 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		}
 	}
 
-	private void runStep1SubsumptionVariable(Set<Integer> leftIds, Integer rightId, SatInput input) {
+	private void runStep1SubsumptionVariable(Set<Integer> leftIds, Integer rightId, ClauseSink input) {
 		for (Integer atomId : getNonVariableAtoms()) {
 			if (!leftIds.contains(atomId)) {
-				Set<Integer> clause = new HashSet<>();
-				clause.add(getMinusSubsumptionLiteral(rightId, atomId));
+				int[] clause = new int[leftIds.size() + 1];
+				int i = 0;
+				clause[i] = getMinusSubsumptionLiteral(rightId, atomId);
 				for (Integer leftId : leftIds) {
-					clause.add(getSubsumptionLiteral(leftId, atomId));
+					i++;
+					clause[i] = getSubsumptionLiteral(leftId, atomId);
 				}
 				input.add(clause);
 			}
 		}
 	}
 
-	private void runStep1SubsumptionNonVariableAtom(Set<Integer> leftIds, Integer rightId, SatInput input) {
-		Set<Integer> clause = new HashSet<>();
+	private void runStep1SubsumptionNonVariableAtom(Set<Integer> leftIds, Integer rightId, ClauseSink input) {
+		int[] clause = new int[leftIds.size()];
+		int i = 0;
 		for (Integer leftId : leftIds) {
-			clause.add(getSubsumptionLiteral(leftId, rightId));
+			clause[i] = getSubsumptionLiteral(leftId, rightId);
+			i++;
 		}
 		input.add(clause);
 	}
 
-	private void runStep1(Disequation e, SatInput input) {
+	private void runStep1(Disequation e, ClauseSink input) {
 		// choose which direction of the equation does not hold
-		Choice c = new Choice(literalManager, 2);
+		Choice c = choiceEncoding.newChoice(literalManager, 2);
 		runStep1(c.getChoiceLiterals(0), new Dissubsumption(e.getLeft(), e.getRight()), input);
 		runStep1(c.getChoiceLiterals(1), new Dissubsumption(e.getRight(), e.getLeft()), input);
 	}
 
-	private void runStep1(Dissubsumption e, SatInput input) {
-		runStep1(Collections.<Integer> emptySet(), e, input);
+	private void runStep1(Dissubsumption e, ClauseSink input) {
+		runStep1(new int[0], e, input);
 	}
 
-	private void runStep1(Set<Integer> choiceLiterals, Dissubsumption e, SatInput input) {
+	private void runStep1(int[] choiceLiterals, Dissubsumption e, ClauseSink input) {
 		if (e.getRight().size() == 0) {
 			input.add(choiceLiterals);
 		} else if (e.getRight().size() == 1) {
@@ -600,7 +1147,7 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		} else {
 			// choose which of the right-hand side atoms does not subsume the
 			// left-hand side
-			Choice c = new Choice(literalManager, e.getRight().size());
+			Choice c = choiceEncoding.newChoice(literalManager, e.getRight().size());
 			int j = 0;
 			for (Integer rightId : e.getRight()) {
 				runStep1Dissubsumption(c.addChoiceLiterals(choiceLiterals, j), e.getLeft(), rightId, input);
@@ -610,8 +1157,8 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		}
 	}
 
-	private void runStep1Dissubsumption(Set<Integer> choiceLiterals, Set<Integer> leftIds, Integer rightId,
-			SatInput input) {
+	private void runStep1Dissubsumption(int[] choiceLiterals, Set<Integer> leftIds, Integer rightId,
+			ClauseSink input) {
 		if (getVariables().contains(rightId))
 			runStep1DissubsumptionVariable(choiceLiterals, leftIds, rightId, input);
 		else {
@@ -621,19 +1168,17 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		}
 	}
 
-	private void runStep1DissubsumptionVariable(Set<Integer> choiceLiterals, Set<Integer> leftIds, Integer rightId,
-			SatInput input) {
+	private void runStep1DissubsumptionVariable(int[] choiceLiterals, Set<Integer> leftIds, Integer rightId,
+			ClauseSink input) {
 		// choose which non-variable atom solves the dissubsumption
-		Choice c = new Choice(literalManager, getNonVariableAtoms().size());
+		Choice c = choiceEncoding.newChoice(literalManager, getNonVariableAtoms().size());
 		int j = 0;
 		for (Integer atomId : getNonVariableAtoms()) {
-			Set<Integer> currentChoiceLiterals = c.addChoiceLiterals(choiceLiterals, j);
+			int[] currentChoiceLiterals = c.addChoiceLiterals(choiceLiterals, j);
 
 			// Under the current choice, 'rightId' is subsumed by 'atomId'
 			// ...
-			Set<Integer> clause = new HashSet<>(currentChoiceLiterals);
-			clause.add(getSubsumptionLiteral(rightId, atomId));
-			input.add(clause);
+			addClause(input, currentChoiceLiterals, getSubsumptionLiteral(rightId, atomId));
 
 			// ... and 'atomId' does not subsume any of the 'leftIds'.
 			runStep1DissubsumptionNonVariableAtom(currentChoiceLiterals, leftIds, atomId, input);
@@ -644,13 +1189,10 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		c.ruleOutOtherChoices(input);
 	}
 
-	private void runStep1DissubsumptionNonVariableAtom(Set<Integer> choiceLiterals, Set<Integer> leftIds,
-			Integer rightId, SatInput input) {
-		Set<Integer> clause;
+	private void runStep1DissubsumptionNonVariableAtom(int[] choiceLiterals, Set<Integer> leftIds,
+			Integer rightId, ClauseSink input) {
 		for (Integer leftId : leftIds) {
-			clause = new HashSet<>(choiceLiterals);
-			clause.add(getMinusSubsumptionLiteral(leftId, rightId));
-			input.add(clause);
+			addClause(input, choiceLiterals, getMinusSubsumptionLiteral(leftId, rightId));
 		}
 	}
 
@@ -660,22 +1202,18 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 	 * @param input
 	 *            input
 	 */
-	private void runStep2_1(SatInput input) {
+	private void runStep2_1(ClauseSink input) {
 		for (Integer atomId1 : getConstants()) {
 
 			for (Integer atomId2 : getConstants()) {
 				if (!atomId1.equals(atomId2)) {
-					Set<Integer> clause = new HashSet<>();
-					clause.add(getMinusSubsumptionLiteral(atomId1, atomId2));
-					input.add(clause);
+					input.add(getMinusSubsumptionLiteral(atomId1, atomId2));
 				}
 			}
 
 			if (goal.hasNegativePart()) {
 				// positive clause needed for soundness of disunification
-				Set<Integer> clause = new HashSet<>();
-				clause.add(getSubsumptionLiteral(atomId1, atomId1));
-				input.add(clause);
+				input.add(getSubsumptionLiteral(atomId1, atomId1));
 			}
 
 		}
@@ -687,20 +1225,12 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 	 * @param input
 	 *            input
 	 */
-	private void runStep2_4(SatInput input) {
+	private void runStep2_4(ClauseSink input) {
 		for (Integer atomId1 : getConstants()) {
 
 			for (Integer atomId2 : getExistentialRestrictions()) {
-				{
-					Set<Integer> clause = new HashSet<>();
-					clause.add(getMinusSubsumptionLiteral(atomId1, atomId2));
-					input.add(clause);
-				}
-
-				Set<Integer> clause = new HashSet<>();
-				clause.add(getMinusSubsumptionLiteral(atomId2, atomId1));
-				input.add(clause);
-
+				input.add(getMinusSubsumptionLiteral(atomId1, atomId2));
+				input.add(getMinusSubsumptionLiteral(atomId2, atomId1));
 			}
 
 		}
@@ -716,30 +1246,31 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 	 * @throws InterruptedException
 	 *             if the thread was interrupted
 	 */
-	private void runStep2_5(SatInput input) throws InterruptedException {
-		Collection<Integer> atomIds = getUsedAtomIds();
+	private void runStep2_5(ClauseSink input) throws InterruptedException {
+		int[] atomIds = toArray(getUsedAtomIds());
+		runInParallel(atomIds, (atomId1, buffer) -> runStep2_5(atomId1, atomIds, buffer), input);
+	}
 
-		for (Integer atomId1 : atomIds) {
+	private void runStep2_5(int atomId1, int[] atomIds, ClauseSink input) {
+		for (int atomId2 : atomIds) {
 
-			for (Integer atomId2 : atomIds) {
+			if (atomId1 != atomId2) {
+				int literal12 = getMinusSubsumptionLiteral(atomId1, atomId2);
+				if (isSatisfied(literal12)) {
+					// e.g. both atoms are constants
+					continue;
+				}
+				for (int atomId3 : atomIds) {
 
-				if (!atomId1.equals(atomId2)) {
-					for (Integer atomId3 : atomIds) {
-
-						if (!atomId1.equals(atomId3) && !atomId2.equals(atomId3)) {
-							Set<Integer> clause = new HashSet<>();
-							clause.add(getMinusSubsumptionLiteral(atomId1, atomId2));
-							clause.add(getMinusSubsumptionLiteral(atomId2, atomId3));
-							clause.add(getSubsumptionLiteral(atomId1, atomId3));
-							input.add(clause);
+					if (atomId1 != atomId3 && atomId2 != atomId3) {
+						int literal23 = getMinusSubsumptionLiteral(atomId2, atomId3);
+						int literal13 = getSubsumptionLiteral(atomId1, atomId3);
+						if (!isSatisfied(literal23) && !isSatisfied(literal13)) {
+							input.add(literal12, literal23, literal13);
 						}
 					}
 				}
 			}
-
-			if (Thread.interrupted()) {
-				throw new InterruptedException();
-			}
 		}
 	}
 
@@ -752,11 +1283,9 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 	 *            input
 	 * 
 	 */
-	private void runStep3_1_r(SatInput input) {
+	private void runStep3_1_r(ClauseSink input) {
 		for (Integer atomId1 : getVariables()) {
-			Set<Integer> clause = new HashSet<>();
-			clause.add(getMinusOrderLiteral(atomId1, atomId1));
-			input.add(clause);
+			input.add(getMinusOrderLiteral(atomId1, atomId1));
 		}
 	}
 
@@ -771,30 +1300,23 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 	 *             if the thread was interrupted
 	 * 
 	 */
-	private void runStep3_1_t(SatInput input) throws InterruptedException {
-		for (Integer atomId1 : getVariables()) {
-
-			for (Integer atomId2 : getVariables()) {
+	private void runStep3_1_t(ClauseSink input) throws InterruptedException {
+		int[] variableIds = toArray(getVariables());
+		runInParallel(variableIds, (atomId1, buffer) -> runStep3_1_t(atomId1, variableIds, buffer), input);
+	}
 
-				for (Integer atomId3 : getVariables()) {
+	private void runStep3_1_t(int atomId1, int[] variableIds, ClauseSink input) {
+		for (int atomId2 : variableIds) {
 
-					if (!atomId1.equals(atomId2) && !atomId2.equals(atomId3)) {
+			if (atomId1 != atomId2) {
+				int literal12 = getMinusOrderLiteral(atomId1, atomId2);
+				for (int atomId3 : variableIds) {
 
-						Set<Integer> clause = new HashSet<>();
-						clause.add(getMinusOrderLiteral(atomId1, atomId2));
-						clause.add(getMinusOrderLiteral(atomId2, atomId3));
-						clause.add(getOrderLiteral(atomId1, atomId3));
-						input.add(clause);
+					if (atomId2 != atomId3) {
+						input.add(literal12, getMinusOrderLiteral(atomId2, atomId3), getOrderLiteral(atomId1, atomId3));
 					}
-
 				}
-
-			}
-
-			if (Thread.interrupted()) {
-				throw new InterruptedException();
 			}
-
 		}
 	}
 
@@ -804,17 +1326,15 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 	 * @param input
 	 *            input
 	 */
-	private void runStep3_2(SatInput input) {
+	private void runStep3_2(ClauseSink input) throws InterruptedException {
 		for (Integer atomId1 : getExistentialRestrictions()) {
+			this.cancellationToken.check();
 
 			Integer childId = goal.getAtomManager().getChild(atomId1);
 
 			if (getVariables().contains(childId)) {
 				for (Integer atomId2 : getVariables()) {
-					Set<Integer> clause = new HashSet<>();
-					clause.add(getOrderLiteral(atomId2, childId));
-					clause.add(getMinusSubsumptionLiteral(atomId2, atomId1));
-					input.add(clause);
+					input.add(getOrderLiteral(atomId2, childId), getMinusSubsumptionLiteral(atomId2, atomId1));
 				}
 			}
 		}
@@ -826,8 +1346,9 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 	 * @param input
 	 *            input
 	 */
-	private void runSteps2_2_N_2_3(SatInput input) {
+	private void runSteps2_2_N_2_3(ClauseSink input) throws InterruptedException {
 		for (Integer atomId1 : getExistentialRestrictions()) {
+			this.cancellationToken.check();
 
 			for (Integer atomId2 : getExistentialRestrictions()) {
 
@@ -843,9 +1364,7 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 					 */
 
 					if (!role1.equals(role2)) {
-						Set<Integer> clause = new HashSet<>();
-						clause.add(getMinusSubsumptionLiteral(atomId1, atomId2));
-						input.add(clause);
+						input.add(getMinusSubsumptionLiteral(atomId1, atomId2));
 
 						/*
 						 * if the roles are equal, then clause in Step 2.3
@@ -856,19 +1375,13 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 						Integer child2 = goal.getAtomManager().getChild(atomId2);
 
 						if (!child1.equals(child2)) {
-							Set<Integer> clause = new HashSet<>();
-							clause.add(getSubsumptionLiteral(child1, child2));
-							clause.add(getMinusSubsumptionLiteral(atomId1, atomId2));
-							input.add(clause);
+							input.add(getSubsumptionLiteral(child1, child2), getMinusSubsumptionLiteral(atomId1, atomId2));
 						}
 
 						if (goal.hasNegativePart()) {
 							// converse clause needed for soundness of
 							// disunification
-							Set<Integer> clause = new HashSet<>();
-							clause.add(getSubsumptionLiteral(atomId1, atomId2));
-							clause.add(getMinusSubsumptionLiteral(child1, child2));
-							input.add(clause);
+							input.add(getSubsumptionLiteral(atomId1, atomId2), getMinusSubsumptionLiteral(child1, child2));
 						}
 
 					}
@@ -880,107 +1393,315 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 			if (goal.hasNegativePart()) {
 				// converse clause (as above) for trival subsumption
 				// between an existential restriction and itself
-				Set<Integer> clause = new HashSet<>();
-				clause.add(getSubsumptionLiteral(atomId1, atomId1));
-				input.add(clause);
+				input.add(getSubsumptionLiteral(atomId1, atomId1));
 			}
 
 		}
 	}
 
 	/**
-	 * Creates dis-subsumptions and order literals from all pairs of atoms of
-	 * the goal
+	 * Updates the translator with the SAT solver output, returning a new
+	 * unifier.
+	 *
+	 * @param val
+	 *            SAT solver output
+	 * @return a new unifier.
 	 */
-	private void setLiterals() {
-		// TODO is this necessary?
-
-		/*
-		 * Literals for dis-subsumptions
-		 */
+	public Set<Definition> toDefinitions(Set<Integer> val) {
+		if (val == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
 
-		for (Integer atomId1 : getUsedAtomIds()) {
-			for (Integer atomId2 : getUsedAtomIds()) {
-				getSubsumptionLiteral(atomId1, atomId2);
+		BitSet model = new BitSet();
+		for (Integer literalId : val) {
+			if (literalId > 0) {
+				model.set(literalId);
 			}
 		}
+		return toDefinitions(model);
+	}
 
-		/*
-		 * 
-		 * Literals for order on variables
-		 */
+	private Set<Definition> toDefinitions(BitSet model) {
+		updateTBox(model);
+		createUpdate();
+		Set<Definition> ret = getUpdatedDefinitions();
+		return ret;
+	}
 
-		for (Integer atomId1 : getVariables()) {
-			for (Integer atomId2 : getVariables()) {
-				getOrderLiteral(atomId1, atomId2);
-			}
+	/**
+	 * Starts the enumeration of unifiers again, e.g. after the set of user
+	 * variables has changed. The clauses excluding the unifiers computed so
+	 * far are retracted, but the solver keeps everything it has learned about
+	 * the encoding. This is only possible if the solver was kept alive by
+	 * {@link #setKeepSolverHot(boolean)} and supports retractable clauses, and
+	 * if the disunification clauses are not generated lazily.
+	 * 
+	 * @return <code>true</code> if the enumeration was restarted,
+	 *         <code>false</code> if this is not possible
+	 */
+	public boolean restartEnumeration() {
+		if (this.firstTime || !this.keepSolverHot || !supportsRetractableClauses()) {
+			return false;
 		}
+
+		this.solver.retractAll();
+		this.restarted = true;
+		return true;
 	}
 
-	private void setLiteralValue(Integer literalId, boolean value) {
-		if (literalId == null) {
+	/**
+	 * {@inheritDoc} Cancelling the token also stops a running SAT solver (see
+	 * {@link Solver#stop()}) and the generation of the clauses, which is
+	 * checked once per row of each step.
+	 */
+	@Override
+	public void setCancellationToken(CancellationToken token) {
+		if (token == null) {
 			throw new IllegalArgumentException("Null argument.");
 		}
 
-		if (value) {
-			this.trueLiterals.add(literalId);
-		} else {
-			this.trueLiterals.remove(literalId);
-		}
+		this.cancellationToken.removeListener(this.solverStopper);
+		this.cancellationToken = token;
+		token.addListener(this.solverStopper);
 	}
 
-	private void setValuesForLiterals(Set<Integer> val) {
-		if (val == null) {
+	/**
+	 * Sets the encoding of the choices between alternative ways to solve a
+	 * dissubsumption (see {@link ChoiceEncoding}). The default is
+	 * {@link ChoiceEncoding#AUTOMATIC}, which selects the encoding based on the
+	 * number of alternatives. This setting is only relevant if the goal
+	 * contains disequations or dissubsumptions.
+	 * 
+	 * @param choiceEncoding
+	 *            the choice encoding
+	 */
+	public void setChoiceEncoding(ChoiceEncoding choiceEncoding) {
+		if (choiceEncoding == null) {
 			throw new IllegalArgumentException("Null argument.");
 		}
+		if (!this.firstTime) {
+			throw new IllegalStateException("The encoding has already been computed.");
+		}
+		this.choiceEncoding = choiceEncoding;
+	}
 
-		for (Integer literalId : val) {
-			boolean value = true;
-			if (literalId < 0) {
-				literalId = (-1) * literalId;
-				value = false;
-			}
-			Literal literal = literalManager.get(literalId);
-			if (literal.isSubsumption()) {
-				setLiteralValue(literalId, value);
-			}
+	/**
+	 * Determines whether minimal assignments are computed by the core-guided
+	 * MaxSAT solver {@link Sat4jCoreGuidedMaxSatSolver} instead of the linear
+	 * search of {@link Sat4jMaxSatSolver}. This setting is ignored if all
+	 * local assignments are computed.
+	 * 
+	 * @param coreGuided
+	 *            <code>true</code> to use the core-guided MaxSAT solver
+	 */
+	public void setCoreGuided(boolean coreGuided) {
+		if (!this.firstTime) {
+			throw new IllegalStateException("The solver has already been created.");
 		}
+		this.coreGuided = coreGuided;
 	}
 
 	/**
-	 * Updates the translator with the SAT solver output, returning a new
-	 * unifier.
-	 *
-	 * @param val
-	 *            SAT solver output
-	 * @return a new unifier.
+	 * Determines whether minimal assignments are computed by shrinking
+	 * arbitrary models until they are subset-minimal (see
+	 * {@link Sat4jMinimalModelSolver}), instead of optimizing the number of
+	 * subsumptions between user variables and non-variable atoms. Since each
+	 * unifier excludes all assignments that contain its own, both approaches
+	 * compute the same unifiers, but possibly in a different order. This
+	 * setting takes precedence over {@link #setCoreGuided(boolean)} and is
+	 * ignored if all local assignments are computed.
+	 * 
+	 * @param subsetMinimal
+	 *            <code>true</code> to enumerate subset-minimal models
 	 */
-	public Set<Definition> toDefinitions(Set<Integer> val) {
-		setValuesForLiterals(val);
-		updateTBox();
-		createUpdate();
-		Set<Definition> ret = getUpdatedDefinitions();
-		return ret;
+	public void setSubsetMinimal(boolean subsetMinimal) {
+		if (!this.firstTime) {
+			throw new IllegalStateException("The solver has already been created.");
+		}
+		this.subsetMinimal = subsetMinimal;
 	}
 
-	private void updateTBox() {
-		/*
-		 * Define S_X for each variable X
-		 */
+	/**
+	 * Sets a cache for the SAT encoding. If the cache contains an encoding for
+	 * the same goal and settings, it is passed to the solver instead of
+	 * computing the encoding again; otherwise, the computed encoding is added
+	 * to the cache.
+	 * 
+	 * @param encodingCache
+	 *            the encoding cache, or <code>null</code> to always compute
+	 *            the encoding
+	 */
+	public void setEncodingCache(EncodingCache encodingCache) {
+		if (!this.firstTime) {
+			throw new IllegalStateException("The encoding has already been computed.");
+		}
+		this.encodingCache = encodingCache;
+	}
 
-		for (Integer i : this.literalManager.getIndices()) {
+	/**
+	 * Lets an external solver solve the encoding instead of Sat4j (see
+	 * {@link ExternalSolver}). The solver has to be a SAT solver, or a MaxSAT
+	 * solver if only minimal assignments are computed. The problem is piped to
+	 * the solver anew for each unifier. This setting takes precedence over
+	 * {@link #setSubsetMinimal(boolean)}, {@link #setCoreGuided(boolean)} and
+	 * {@link #setPortfolio(List)}, and budgets only limit the search between
+	 * two runs of the solver.
+	 * 
+	 * @param command
+	 *            the command that starts the solver, followed by its options,
+	 *            or <code>null</code> to use Sat4j
+	 */
+	public void setExternalSolver(List<String> command) {
+		if (!this.firstTime) {
+			throw new IllegalStateException("The solver has already been created.");
+		}
+		if (command != null && command.isEmpty()) {
+			throw new IllegalArgumentException("The command cannot be empty.");
+		}
+		this.externalSolver = (command == null) ? null : new ArrayList<>(command);
+	}
 
-			if (this.literalManager.get(i).isSubsumption()) {
-				if (getLiteralValue(i)) {
+	/**
+	 * Determines whether the solver is kept alive after the last unifier has
+	 * been computed. This allows to restart the enumeration later using
+	 * {@link #restartEnumeration()}. The resources used by the solver are
+	 * then only released by {@link #cleanup()}.
+	 * 
+	 * @param keepSolverHot
+	 *            <code>true</code> to keep the solver alive
+	 */
+	public void setKeepSolverHot(boolean keepSolverHot) {
+		this.keepSolverHot = keepSolverHot;
+	}
 
-					Integer atomId1 = this.literalManager.get(i).getFirst();
-					Integer atomId2 = this.literalManager.get(i).getSecond();
-					if (getVariables().contains(atomId1)) {
-						if (getNonVariableAtoms().contains(atomId2)) {
-							addToSetOfSubsumers(atomId1, atomId2);
-						}
-					}
+	/**
+	 * Lets several differently configured Sat4j solvers compete for solving
+	 * the encoding, each on its own thread (see {@link PortfolioSolver}). The
+	 * first solver to finish is used for all further unifiers. This setting
+	 * is ignored if only minimal assignments are computed.
+	 * 
+	 * @param configurations
+	 *            the names of the Sat4j configurations, one for each thread,
+	 *            or <code>null</code> to use a single default solver
+	 * @see PortfolioSolver#getDefaultConfigurations(int)
+	 */
+	public void setPortfolio(List<String> configurations) {
+		if (!this.firstTime) {
+			throw new IllegalStateException("The solver has already been created.");
+		}
+		this.portfolio = (configurations == null) ? null : new ArrayList<>(configurations);
+	}
+
+	/**
+	 * Enables or disables the lazy generation of the clauses needed for the
+	 * soundness of disunification. If enabled, the choice between the
+	 * non-variable atoms that can solve the dissubsumption between an atom and
+	 * a variable is only encoded after the solver has returned a model in
+	 * which this dissubsumption is not solved; then the problem is solved
+	 * again on the same solver instance. This mode is ignored if only minimal
+	 * assignments are computed, as for {@link #setLazyTransitivity(boolean)},
+	 * and if the goal has no disequations or dissubsumptions.
+	 * 
+	 * @param lazyDisunification
+	 *            <code>true</code> to enable lazy disunification clauses
+	 */
+	public void setLazyDisunification(boolean lazyDisunification) {
+		if (!this.firstTime) {
+			throw new IllegalStateException("The encoding has already been computed.");
+		}
+		this.lazyDisunification = lazyDisunification;
+	}
+
+	/**
+	 * Enables or disables the lazy generation of the transitivity clauses
+	 * (steps 2.5 and 3.1). If enabled, these clauses are initially left out of
+	 * the encoding; whenever the solver returns a model, the violated
+	 * transitivity clauses are added and the problem is solved again on the
+	 * same solver instance, until the model is consistent. This mode is
+	 * ignored if only minimal assignments are computed, since the optimization
+	 * bounds of the MaxSAT solver are not valid after a refinement.
+	 * 
+	 * @param lazyTransitivity
+	 *            <code>true</code> to enable lazy transitivity clauses
+	 */
+	public void setLazyTransitivity(boolean lazyTransitivity) {
+		if (!this.firstTime) {
+			throw new IllegalStateException("The encoding has already been computed.");
+		}
+		this.lazyTransitivity = lazyTransitivity;
+	}
+
+	/**
+	 * Determines whether the clause excluding the last unifier is shortened
+	 * before the next unifier is computed. The full clause contains one
+	 * literal for each pair of a user variable and a non-variable atom.
+	 * Instead, the solver is asked for a subset of these literals that
+	 * already determines the others, and only this subset is blocked. Since
+	 * this excludes exactly the same assignments, the same unifiers are
+	 * computed, but the solver does not have to propagate the long clauses.
+	 * This setting is ignored if only minimal assignments are computed, whose
+	 * blocking clauses are already short, and if the disunification clauses
+	 * are generated lazily. It is enabled by default.
+	 * 
+	 * @param shortBlockingClauses
+	 *            <code>true</code> to shorten the blocking clauses
+	 */
+	public void setShortBlockingClauses(boolean shortBlockingClauses) {
+		if (!this.firstTime) {
+			throw new IllegalStateException("The solver has already been created.");
+		}
+		this.shortBlockingClauses = shortBlockingClauses;
+	}
+
+	/**
+	 * Replaces the clause excluding the last unifier by a shorter one that
+	 * excludes the same assignments, see
+	 * {@link #setShortBlockingClauses(boolean)}.
+	 * 
+	 * @throws InterruptedException
+	 *             if the process is interrupted
+	 */
+	private void shortenUpdate() throws InterruptedException {
+		int[] literals = new int[this.update.size()];
+		int index = 0;
+		for (Integer literalId : this.update) {
+			// the literals that are true in the current model
+			literals[index] = (-1) * literalId;
+			index++;
+		}
+		int[] determining;
+		try {
+			determining = this.solver.findDeterminingLiterals(literals);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		this.update = new HashSet<>();
+		for (int literal : determining) {
+			this.update.add((-1) * literal);
+		}
+		this.numberOfBlockingLiterals += determining.length;
+	}
+
+	private void stopSolver() {
+		Solver current = this.solver;
+		if (current != null) {
+			current.stop();
+		}
+	}
+
+	private void updateTBox(BitSet model) {
+		/*
+		 * Define S_X for each variable X, visiting only the subsumption
+		 * literals [X \u2291 D] for non-variable atoms D
+		 */
 
+		int[] nonVariableAtomIds = toArray(getNonVariableAtoms());
+		for (Integer varId : getVariables()) {
+			for (int atomId : nonVariableAtomIds) {
+				int literalId = getSubsumptionLiteral(varId, atomId);
+				if (model.get(literalId)) {
+					this.trueLiterals.set(literalId);
+					addToSetOfSubsumers(varId, atomId);
 				}
 			}
 		}
@@ -0,0 +1,127 @@
+package de.tudresden.inf.lat.uel.sat.type;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * An object of this class reads clauses in the binary format written by
+ * {@link BinaryDimacsWriter}. The input is read in blocks through a channel
+ * and decoded directly from the buffer, so that inputs of arbitrary size can
+ * be passed on to a clause sink without creating intermediate objects.
+ *
+ * @author Stefan Borgwardt
+ */
+public class BinaryDimacsReader implements Closeable {
+
+	private static final int bufferSize = 1 << 16;
+
+	static int unzigzag(int value) {
+		return (value >>> 1) ^ (-(value & 1));
+	}
+
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+	private final ReadableByteChannel channel;
+
+	/**
+	 * Constructs a new reader for the given input stream. The stream is closed
+	 * when the reader is closed.
+	 *
+	 * @param in
+	 *            the input stream
+	 */
+	public BinaryDimacsReader(InputStream in) {
+		if (in == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		this.channel = Channels.newChannel(in);
+		buffer.limit(0);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private byte next() throws IOException {
+		if (!buffer.hasRemaining()) {
+			buffer.clear();
+			int read;
+			do {
+				read = channel.read(buffer);
+			} while (read == 0);
+			buffer.flip();
+			if (read < 0) {
+				throw new IOException("Unexpected end of input.");
+			}
+		}
+		return buffer.get();
+	}
+
+	/**
+	 * Reads the input and passes its clauses and literals to be minimized on
+	 * to a clause sink.
+	 *
+	 * @param sink
+	 *            the clause sink
+	 * @return the number of clauses that were read
+	 * @throws IOException
+	 *             if an I/O error occurs or the input is not in the expected
+	 *             format
+	 */
+	public int readTo(ClauseSink sink) throws IOException {
+		if (sink == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		for (byte b : BinaryDimacsWriter.magic) {
+			if (next() != b) {
+				throw new IOException("Input is not in binary DIMACS format.");
+			}
+		}
+		int version = readVarInt();
+		if (version != BinaryDimacsWriter.formatVersion) {
+			throw new IOException("Unsupported format version: " + version + ".");
+		}
+
+		int ret = 0;
+		int[] clause = new int[16];
+		int length = readVarInt();
+		while (length != 0) {
+			if (length < 0) {
+				throw new IOException("Invalid clause length: " + length + ".");
+			}
+			if (clause.length < length) {
+				clause = new int[Math.max(2 * clause.length, length)];
+			}
+			for (int i = 0; i < length; i++) {
+				clause[i] = unzigzag(readVarInt());
+			}
+			sink.add(clause, length);
+			ret++;
+			length = readVarInt();
+		}
+		int nbMinimizeLiterals = readVarInt();
+		for (int i = 0; i < nbMinimizeLiterals; i++) {
+			sink.addMinimizeLiteral(unzigzag(readVarInt()));
+		}
+		return ret;
+	}
+
+	private int readVarInt() throws IOException {
+		int ret = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = next();
+			ret |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return ret;
+			}
+		}
+		throw new IOException("Malformed variable-length integer.");
+	}
+
+}
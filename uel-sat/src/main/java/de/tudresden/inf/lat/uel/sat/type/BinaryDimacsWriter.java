@@ -0,0 +1,152 @@
+package de.tudresden.inf.lat.uel.sat.type;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * An object of this class writes clauses in a compact binary variant of the
+ * DIMACS CNF format as soon as they are added. The format consists of
+ * <ul>
+ * <li>a magic number and a format version,</li>
+ * <li>the clauses, each given by its length followed by its literals,</li>
+ * <li>a 0 that marks the end of the clauses, and</li>
+ * <li>the number of literals to be minimized, followed by these literals.</li>
+ * </ul>
+ * All numbers are stored as variable-length integers (7 bits per byte), and
+ * literals are zigzag-encoded before, as in {@link EncodingCache}. Since the
+ * numbers of variables and clauses are not part of the header, the clauses
+ * can be streamed. The output can be read by {@link BinaryDimacsReader}.
+ *
+ * @author Stefan Borgwardt
+ */
+public class BinaryDimacsWriter implements ClauseSink, Closeable {
+
+	static final int formatVersion = 1;
+	static final byte[] magic = "UELB".getBytes(StandardCharsets.US_ASCII);
+
+	private static final int bufferSize = 1 << 16;
+	private static final int maxVarIntLength = 5;
+
+	static int zigzag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	private final ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+	private final WritableByteChannel channel;
+	private boolean closed = false;
+	private int lastId = 0;
+	private final Set<Integer> minimizeLiterals = new LinkedHashSet<>();
+	private int nbClauses = 0;
+
+	/**
+	 * Constructs a new clause sink that writes to the given output stream. The
+	 * stream is closed when the sink is closed.
+	 *
+	 * @param out
+	 *            the output stream
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public BinaryDimacsWriter(OutputStream out) throws IOException {
+		if (out == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		this.channel = Channels.newChannel(out);
+		buffer.put(magic);
+		put(formatVersion);
+	}
+
+	@Override
+	public boolean add(int[] clause, int length) {
+		if (clause == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (length == 0) {
+			throw new IllegalArgumentException("Clause cannot be empty.");
+		}
+		if (closed) {
+			throw new IllegalStateException("Writer is already closed.");
+		}
+
+		try {
+			put(length);
+			for (int i = 0; i < length; i++) {
+				int literal = clause[i];
+				int absLiteral = literal < 0 ? (-1) * literal : literal;
+				if (absLiteral > lastId) {
+					lastId = absLiteral;
+				}
+				put(zigzag(literal));
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		nbClauses++;
+		return true;
+	}
+
+	@Override
+	public boolean addMinimizeLiteral(Integer literal) {
+		if (closed) {
+			throw new IllegalStateException("Writer is already closed.");
+		}
+
+		return minimizeLiterals.add(literal);
+	}
+
+	/**
+	 * Writes the literals to be minimized and closes the underlying stream.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (!closed) {
+			closed = true;
+			put(0);
+			put(minimizeLiterals.size());
+			for (Integer literal : minimizeLiterals) {
+				put(zigzag(literal));
+			}
+			writeBuffer();
+			channel.close();
+		}
+	}
+
+	@Override
+	public int getLastId() {
+		return lastId;
+	}
+
+	@Override
+	public int getNumberOfClauses() {
+		return nbClauses;
+	}
+
+	private void put(int value) throws IOException {
+		if (buffer.remaining() < maxVarIntLength) {
+			writeBuffer();
+		}
+		int rest = value;
+		while ((rest & ~0x7F) != 0) {
+			buffer.put((byte) ((rest & 0x7F) | 0x80));
+			rest >>>= 7;
+		}
+		buffer.put((byte) rest);
+	}
+
+	private void writeBuffer() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+}
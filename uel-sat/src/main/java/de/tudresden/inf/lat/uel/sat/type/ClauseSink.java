@@ -0,0 +1,118 @@
+package de.tudresden.inf.lat.uel.sat.type;
+
+import java.util.Set;
+
+/**
+ * An object implementing this interface receives the clauses of a SAT problem
+ * one by one, e.g. to store them in memory, to pass them directly to a SAT
+ * solver, or to write them to a file. Literals are represented as in the
+ * DIMACS CNF format, i.e. as non-zero integers.
+ *
+ * @author Stefan Borgwardt
+ */
+public interface ClauseSink {
+
+	/**
+	 * Adds a new unit clause.
+	 *
+	 * @param literal
+	 *            the only literal of the clause
+	 * @return a value indicating whether the sink was changed
+	 */
+	default boolean add(int literal) {
+		return add(new int[] { literal }, 1);
+	}
+
+	/**
+	 * Adds a new binary clause.
+	 *
+	 * @param literal1
+	 *            first literal of the clause
+	 * @param literal2
+	 *            second literal of the clause
+	 * @return a value indicating whether the sink was changed
+	 */
+	default boolean add(int literal1, int literal2) {
+		return add(new int[] { literal1, literal2 }, 2);
+	}
+
+	/**
+	 * Adds a new ternary clause.
+	 *
+	 * @param literal1
+	 *            first literal of the clause
+	 * @param literal2
+	 *            second literal of the clause
+	 * @param literal3
+	 *            third literal of the clause
+	 * @return a value indicating whether the sink was changed
+	 */
+	default boolean add(int literal1, int literal2, int literal3) {
+		return add(new int[] { literal1, literal2, literal3 }, 3);
+	}
+
+	/**
+	 * Adds a new non-empty clause given by an array of distinct literals.
+	 *
+	 * @param clause
+	 *            new non-empty clause
+	 * @return a value indicating whether the sink was changed
+	 */
+	default boolean add(int... clause) {
+		if (clause == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		return add(clause, clause.length);
+	}
+
+	/**
+	 * Adds a new non-empty clause given by the first literals of an array. The
+	 * array is not retained by the sink and can be reused by the caller.
+	 *
+	 * @param clause
+	 *            an array starting with the literals of the new clause
+	 * @param length
+	 *            the number of literals of the clause
+	 * @return a value indicating whether the sink was changed
+	 */
+	boolean add(int[] clause, int length);
+
+	/**
+	 * Adds a new non-empty clause.
+	 *
+	 * @param clause
+	 *            new non-empty clause
+	 * @return a value indicating whether the sink was changed
+	 */
+	default boolean add(Set<Integer> clause) {
+		if (clause == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		return add(SatInput.toArray(clause));
+	}
+
+	/**
+	 * Adds a literal to the set of literals that are to be minimized.
+	 *
+	 * @param literal
+	 *            the literal identifier
+	 * @return true iff the set changed as a result of this operation
+	 */
+	boolean addMinimizeLiteral(Integer literal);
+
+	/**
+	 * Returns the greatest propositional variable occurring in the clauses
+	 * added so far.
+	 *
+	 * @return the greatest propositional variable
+	 */
+	int getLastId();
+
+	/**
+	 * Returns the number of clauses added so far.
+	 *
+	 * @return the number of clauses
+	 */
+	int getNumberOfClauses();
+
+}
@@ -0,0 +1,169 @@
+package de.tudresden.inf.lat.uel.sat.type;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An object of this class writes lines in (weighted) DIMACS format to an
+ * output stream. The lines are encoded directly into a byte buffer, which is
+ * passed on to the stream through a channel whenever it is full or
+ * {@link #flush()} is called, so that no intermediate strings are created for
+ * the literals.
+ *
+ * @author Stefan Borgwardt
+ */
+public class DimacsChannelWriter implements Closeable {
+
+	private static final int bufferSize = 1 << 16;
+	private static final byte[] endOfLine = (Solver.SPACE + Solver.END_OF_CLAUSE + Solver.NEWLINE)
+			.getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] newline = Solver.NEWLINE.getBytes(StandardCharsets.US_ASCII);
+	private static final byte space = (byte) ' ';
+
+	private final ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+	private final WritableByteChannel channel;
+	private final byte[] digits = new byte[11];
+	private final OutputStream out;
+
+	/**
+	 * Constructs a new writer.
+	 *
+	 * @param out
+	 *            the output stream
+	 */
+	public DimacsChannelWriter(OutputStream out) {
+		if (out == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		this.out = out;
+		this.channel = Channels.newChannel(out);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (channel.isOpen()) {
+			flush();
+			channel.close();
+		}
+	}
+
+	private void ensureCapacity(int length) throws IOException {
+		if (buffer.remaining() < length) {
+			writeBuffer();
+		}
+	}
+
+	/**
+	 * Passes all buffered lines on to the output stream.
+	 *
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public void flush() throws IOException {
+		writeBuffer();
+		out.flush();
+	}
+
+	private void put(byte[] bytes) throws IOException {
+		ensureCapacity(bytes.length);
+		buffer.put(bytes);
+	}
+
+	private void put(int value) throws IOException {
+		ensureCapacity(digits.length + 1);
+		long rest = value;
+		if (rest < 0) {
+			buffer.put((byte) '-');
+			rest = (-1) * rest;
+		}
+		int start = digits.length;
+		do {
+			start--;
+			digits[start] = (byte) ('0' + (rest % 10));
+			rest /= 10;
+		} while (rest > 0);
+		buffer.put(digits, start, digits.length - start);
+	}
+
+	private void writeBuffer() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Writes a line that consists of a sequence of literals terminated by
+	 * {@link Solver#END_OF_CLAUSE}, possibly preceded by a prefix, e.g. a
+	 * weight.
+	 *
+	 * @param prefix
+	 *            the prefix of the line, or <code>null</code> if the line
+	 *            starts with the first literal
+	 * @param literals
+	 *            an array containing the literals
+	 * @param length
+	 *            the number of literals
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public void writeClause(String prefix, int[] literals, int length) throws IOException {
+		writeClause(prefix, literals, 0, length);
+	}
+
+	/**
+	 * Writes a line that consists of a sequence of literals taken from a part
+	 * of an array, see {@link #writeClause(String, int[], int)}.
+	 *
+	 * @param prefix
+	 *            the prefix of the line, or <code>null</code> if the line
+	 *            starts with the first literal
+	 * @param literals
+	 *            an array containing the literals
+	 * @param offset
+	 *            the position of the first literal in the array
+	 * @param length
+	 *            the number of literals
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public void writeClause(String prefix, int[] literals, int offset, int length) throws IOException {
+		if (prefix != null) {
+			put(prefix.getBytes(StandardCharsets.US_ASCII));
+		}
+		for (int i = 0; i < length; i++) {
+			if (prefix != null || i > 0) {
+				ensureCapacity(1);
+				buffer.put(space);
+			}
+			put(literals[offset + i]);
+		}
+		if (prefix == null && length == 0) {
+			put(Integer.toString(Solver.END_OF_CLAUSE).getBytes(StandardCharsets.US_ASCII));
+			put(newline);
+		} else {
+			put(endOfLine);
+		}
+	}
+
+	/**
+	 * Writes a line without literals, e.g. a header.
+	 *
+	 * @param line
+	 *            the line, without line separator
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public void writeLine(String line) throws IOException {
+		put(line.getBytes(StandardCharsets.US_ASCII));
+		put(newline);
+	}
+
+}
@@ -0,0 +1,145 @@
+package de.tudresden.inf.lat.uel.sat.type;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An object of this class writes clauses to a file in DIMACS CNF format as
+ * soon as they are added, so that the clauses do not have to be kept in
+ * memory. Since the number of variables and clauses is only known at the end,
+ * the file starts with a header line of fixed width, which is overwritten when
+ * the sink is closed. The clauses are encoded by a
+ * {@link DimacsChannelWriter}.
+ *
+ * @author Stefan Borgwardt
+ */
+public class DimacsClauseSink implements ClauseSink, Closeable {
+
+	private static final int headerFieldWidth = 10;
+
+	private boolean closed = false;
+	private final File file;
+	private int lastId = 0;
+	private int nbClauses = 0;
+	private final DimacsChannelWriter writer;
+
+	/**
+	 * Constructs a new clause sink that writes to the given file. An existing
+	 * file is overwritten.
+	 *
+	 * @param file
+	 *            the file
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public DimacsClauseSink(File file) throws IOException {
+		if (file == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		this.file = file;
+		this.writer = new DimacsChannelWriter(new FileOutputStream(file));
+		this.writer.writeLine(getHeader());
+	}
+
+	@Override
+	public boolean add(int[] clause, int length) {
+		if (clause == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (length == 0) {
+			throw new IllegalArgumentException("Clause cannot be empty.");
+		}
+		if (closed) {
+			throw new IllegalStateException("Sink is already closed.");
+		}
+
+		for (int i = 0; i < length; i++) {
+			int literal = clause[i];
+			if (literal == Solver.END_OF_CLAUSE) {
+				throw new IllegalArgumentException("Clause cannot contain " + Solver.END_OF_CLAUSE + ".");
+			}
+			int absLiteral = literal < 0 ? (-1) * literal : literal;
+			if (absLiteral > lastId) {
+				lastId = absLiteral;
+			}
+		}
+		try {
+			writer.writeClause(null, clause, length);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		nbClauses++;
+		return true;
+	}
+
+	/**
+	 * The DIMACS CNF format cannot represent literals to be minimized.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             always
+	 */
+	@Override
+	public boolean addMinimizeLiteral(Integer literal) {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Flushes the remaining clauses and writes the final header line. The file
+	 * is complete only after this method has been called.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+
+		closed = true;
+		writer.close();
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.write((getHeader() + Solver.NEWLINE).getBytes(StandardCharsets.US_ASCII));
+		}
+	}
+
+	private String getHeader() {
+		StringBuffer sbuf = new StringBuffer();
+		sbuf.append(Solver.P_CNF);
+		sbuf.append(Solver.SPACE);
+		appendPadded(sbuf, lastId);
+		sbuf.append(Solver.SPACE);
+		appendPadded(sbuf, nbClauses);
+		return sbuf.toString();
+	}
+
+	private void appendPadded(StringBuffer sbuf, int value) {
+		String str = Integer.toString(value);
+		sbuf.append(str);
+		for (int i = str.length(); i < headerFieldWidth; i++) {
+			sbuf.append(Solver.SPACE);
+		}
+	}
+
+	/**
+	 * Returns the file written by this sink.
+	 *
+	 * @return the file
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	@Override
+	public int getLastId() {
+		return lastId;
+	}
+
+	@Override
+	public int getNumberOfClauses() {
+		return nbClauses;
+	}
+
+}
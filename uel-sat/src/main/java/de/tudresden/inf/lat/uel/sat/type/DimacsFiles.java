@@ -0,0 +1,95 @@
+package de.tudresden.inf.lat.uel.sat.type;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class provides streams for reading and writing files containing SAT
+ * inputs. Files whose name ends with {@link #GZIP_SUFFIX} are compressed
+ * transparently.
+ *
+ * @author Stefan Borgwardt
+ */
+public final class DimacsFiles {
+
+	/** the suffix of gzip-compressed files */
+	public static final String GZIP_SUFFIX = ".gz";
+
+	private static final int bufferSize = 1 << 16;
+
+	/**
+	 * Tells whether a file is compressed, based on its name.
+	 *
+	 * @param file
+	 *            the file
+	 * @return <code>true</code> if and only if the name of the file ends with
+	 *         {@link #GZIP_SUFFIX}
+	 */
+	public static boolean isCompressed(File file) {
+		if (file == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		return file.getName().endsWith(GZIP_SUFFIX);
+	}
+
+	/**
+	 * Opens a buffered stream that reads from a file, decompressing it if
+	 * necessary.
+	 *
+	 * @param file
+	 *            the file
+	 * @return an input stream
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public static InputStream newInputStream(File file) throws IOException {
+		boolean compressed = isCompressed(file);
+		InputStream in = new FileInputStream(file);
+		try {
+			if (compressed) {
+				return new GZIPInputStream(in, bufferSize);
+			}
+			return new BufferedInputStream(in, bufferSize);
+		} catch (IOException e) {
+			in.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens a buffered stream that writes to a file, compressing it if
+	 * necessary. An existing file is overwritten.
+	 *
+	 * @param file
+	 *            the file
+	 * @return an output stream
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public static OutputStream newOutputStream(File file) throws IOException {
+		boolean compressed = isCompressed(file);
+		OutputStream out = new FileOutputStream(file);
+		try {
+			if (compressed) {
+				return new GZIPOutputStream(out, bufferSize);
+			}
+			return new BufferedOutputStream(out, bufferSize);
+		} catch (IOException e) {
+			out.close();
+			throw e;
+		}
+	}
+
+	private DimacsFiles() {
+	}
+
+}
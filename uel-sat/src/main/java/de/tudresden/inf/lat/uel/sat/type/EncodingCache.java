@@ -0,0 +1,407 @@
+package de.tudresden.inf.lat.uel.sat.type;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * An object of this class stores SAT encodings in a directory, so that they
+ * can be reused by later runs on the same problem. Each encoding is identified
+ * by a key, e.g. a fingerprint of the encoded problem, and stored in a compact
+ * binary file. The file consists of
+ * <ul>
+ * <li>a magic number and a format version,</li>
+ * <li>the clauses, each given by its length followed by its literals,</li>
+ * <li>a 0 that marks the end of the clauses,</li>
+ * <li>the number of literals to be minimized, followed by these literals,</li>
+ * <li>an additional value chosen by the writer, e.g. the number of
+ * propositional variables, and</li>
+ * <li>a CRC32 checksum of the previous parts (except the magic number).</li>
+ * </ul>
+ * All numbers except the checksum are stored as variable-length integers
+ * (7 bits per byte); literals are zigzag-encoded before, so that literals of
+ * small absolute value need few bytes. Apart from the additional value and the
+ * checksum, this is the format of {@link BinaryDimacsWriter}. Files are
+ * written to a temporary file first and renamed when they are complete, and
+ * are read through a memory mapping.
+ *
+ * The total size of the files is bounded. Whenever a new file is stored, the
+ * least recently used files are deleted until the bound is respected again.
+ * The time of the last use is recorded as the modification time of the file.
+ *
+ * @author Stefan Borgwardt
+ */
+public class EncodingCache {
+
+	/**
+	 * An object of this class writes an encoding to the cache. The encoding
+	 * becomes visible only after {@link #commit(int)} has been called;
+	 * otherwise, {@link #close()} discards it.
+	 */
+	public class Writer implements ClauseSink, Closeable {
+
+		private final CRC32 checksum = new CRC32();
+		private boolean closed = false;
+		private final String key;
+		private int lastId = 0;
+		private final Set<Integer> minimizeLiterals = new LinkedHashSet<>();
+		private int nbClauses = 0;
+		private final OutputStream out;
+		private final File tempFile;
+
+		Writer(String key) throws IOException {
+			this.key = key;
+			this.tempFile = File.createTempFile(key, tempSuffix, directory);
+			this.out = new BufferedOutputStream(new FileOutputStream(tempFile));
+			out.write(magic);
+			write(formatVersion);
+		}
+
+		@Override
+		public boolean add(int[] clause, int length) {
+			if (clause == null) {
+				throw new IllegalArgumentException("Null argument.");
+			}
+			if (length == 0) {
+				throw new IllegalArgumentException("Clause cannot be empty.");
+			}
+			if (closed) {
+				throw new IllegalStateException("Writer is already closed.");
+			}
+
+			try {
+				write(length);
+				for (int i = 0; i < length; i++) {
+					int literal = clause[i];
+					int absLiteral = literal < 0 ? (-1) * literal : literal;
+					if (absLiteral > lastId) {
+						lastId = absLiteral;
+					}
+					write(BinaryDimacsWriter.zigzag(literal));
+				}
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+			nbClauses++;
+			return true;
+		}
+
+		@Override
+		public boolean addMinimizeLiteral(Integer literal) {
+			return minimizeLiterals.add(literal);
+		}
+
+		/**
+		 * Discards the encoding unless it has been committed.
+		 */
+		@Override
+		public void close() throws IOException {
+			if (!closed) {
+				closed = true;
+				out.close();
+				Files.deleteIfExists(tempFile.toPath());
+			}
+		}
+
+		/**
+		 * Completes the file and stores it in the cache. Afterwards, the least
+		 * recently used files are deleted if the cache is too large.
+		 *
+		 * @param value
+		 *            an additional value that is returned when the encoding
+		 *            is loaded
+		 * @throws IOException
+		 *             if an I/O error occurs
+		 */
+		public void commit(int value) throws IOException {
+			if (closed) {
+				throw new IllegalStateException("Writer is already closed.");
+			}
+
+			write(0);
+			write(minimizeLiterals.size());
+			for (Integer literal : minimizeLiterals) {
+				write(BinaryDimacsWriter.zigzag(literal));
+			}
+			write(value);
+			long crc = checksum.getValue();
+			for (int shift = 24; shift >= 0; shift -= 8) {
+				out.write((int) (crc >>> shift) & 0xFF);
+			}
+			closed = true;
+			out.close();
+
+			File file = getFile(key);
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			evict(file);
+		}
+
+		@Override
+		public int getLastId() {
+			return lastId;
+		}
+
+		@Override
+		public int getNumberOfClauses() {
+			return nbClauses;
+		}
+
+		private void write(int value) throws IOException {
+			int rest = value;
+			while ((rest & ~0x7F) != 0) {
+				int b = (rest & 0x7F) | 0x80;
+				out.write(b);
+				checksum.update(b);
+				rest >>>= 7;
+			}
+			out.write(rest);
+			checksum.update(rest);
+		}
+
+	}
+
+	private static final int formatVersion = 1;
+	private static final byte[] magic = "UELC".getBytes(StandardCharsets.US_ASCII);
+	private static final String suffix = ".uelc";
+	private static final String tempSuffix = ".tmp";
+
+	private static int readVarInt(ByteBuffer buffer) throws IOException {
+		int ret = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = buffer.get();
+			ret |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return ret;
+			}
+		}
+		throw new IOException("Malformed variable-length integer.");
+	}
+
+	private final File directory;
+	private final long maxSize;
+
+	/**
+	 * Constructs a new encoding cache.
+	 *
+	 * @param directory
+	 *            the directory containing the files of the cache; it is
+	 *            created if it does not exist
+	 * @param maxSize
+	 *            the maximal total size of the files in bytes
+	 * @throws IOException
+	 *             if the directory cannot be created
+	 */
+	public EncodingCache(File directory, long maxSize) throws IOException {
+		if (directory == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (maxSize < 0) {
+			throw new IllegalArgumentException("Negative size: " + maxSize + ".");
+		}
+
+		Files.createDirectories(directory.toPath());
+		this.directory = directory;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Deletes the least recently used files until the total size of the cache
+	 * does not exceed its bound.
+	 *
+	 * @param keep
+	 *            a file that should not be deleted
+	 */
+	private void evict(File keep) {
+		File[] files = directory.listFiles((dir, name) -> name.endsWith(suffix));
+		if (files == null) {
+			return;
+		}
+
+		long size = 0;
+		for (File file : files) {
+			size += file.length();
+		}
+		Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+		for (File file : files) {
+			if (size <= maxSize) {
+				return;
+			}
+			if (!file.equals(keep)) {
+				long length = file.length();
+				if (file.delete()) {
+					size -= length;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the directory containing the files of this cache.
+	 *
+	 * @return the directory
+	 */
+	public File getDirectory() {
+		return directory;
+	}
+
+	private File getFile(String key) {
+		return new File(directory, key + suffix);
+	}
+
+	/**
+	 * Returns the maximal total size of the files of this cache.
+	 *
+	 * @return the maximal size in bytes
+	 */
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Tells whether this cache contains an encoding for the given key.
+	 *
+	 * @param key
+	 *            the key
+	 * @return <code>true</code> if and only if an encoding is stored for the
+	 *         key
+	 */
+	public boolean contains(String key) {
+		if (key == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		return getFile(key).isFile();
+	}
+
+	/**
+	 * Passes the clauses and literals to be minimized stored for a key to a
+	 * clause sink. The file is checked completely before the first clause is
+	 * passed on, so that nothing is added if it is damaged; a damaged file is
+	 * deleted.
+	 *
+	 * @param key
+	 *            the key
+	 * @param sink
+	 *            the clause sink
+	 * @return the additional value stored with the encoding, or -1 if there
+	 *         is no (undamaged) encoding for the key
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public int load(String key, ClauseSink sink) throws IOException {
+		if (key == null || sink == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		File file = getFile(key);
+		if (!file.isFile() || file.length() > Integer.MAX_VALUE) {
+			return -1;
+		}
+
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		if (!isValid(buffer)) {
+			file.delete();
+			return -1;
+		}
+
+		buffer.position(magic.length);
+		readVarInt(buffer);
+		int[] clause = new int[16];
+		int length = readVarInt(buffer);
+		while (length > 0) {
+			if (clause.length < length) {
+				clause = new int[Math.max(2 * clause.length, length)];
+			}
+			for (int i = 0; i < length; i++) {
+				clause[i] = BinaryDimacsReader.unzigzag(readVarInt(buffer));
+			}
+			sink.add(clause, length);
+			length = readVarInt(buffer);
+		}
+		int nbMinimizeLiterals = readVarInt(buffer);
+		for (int i = 0; i < nbMinimizeLiterals; i++) {
+			sink.addMinimizeLiteral(BinaryDimacsReader.unzigzag(readVarInt(buffer)));
+		}
+		int ret = readVarInt(buffer);
+
+		file.setLastModified(System.currentTimeMillis());
+		return ret;
+	}
+
+	/**
+	 * Checks the magic number, the format version, and the checksum of a file.
+	 *
+	 * @param buffer
+	 *            the contents of the file
+	 * @return <code>true</code> if and only if the file can be read
+	 */
+	private boolean isValid(ByteBuffer buffer) {
+		int end = buffer.limit() - 4;
+		if (end < magic.length + 1) {
+			return false;
+		}
+		for (int i = 0; i < magic.length; i++) {
+			if (buffer.get(i) != magic[i]) {
+				return false;
+			}
+		}
+
+		CRC32 checksum = new CRC32();
+		ByteBuffer body = buffer.duplicate();
+		body.position(magic.length);
+		body.limit(end);
+		checksum.update(body);
+		long expected = buffer.getInt(end) & 0xFFFFFFFFL;
+		if (checksum.getValue() != expected) {
+			return false;
+		}
+
+		try {
+			ByteBuffer header = buffer.duplicate();
+			header.position(magic.length);
+			return readVarInt(header) == formatVersion;
+		} catch (IOException | BufferUnderflowException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Creates a writer for storing a new encoding for a key. An existing
+	 * encoding for the key is replaced when the new one is committed.
+	 *
+	 * @param key
+	 *            the key, which must be usable as part of a file name
+	 * @return a writer for the encoding
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public Writer newWriter(String key) throws IOException {
+		if (key == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		return new Writer(key);
+	}
+
+}
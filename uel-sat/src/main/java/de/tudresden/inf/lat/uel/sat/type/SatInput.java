@@ -1,17 +1,27 @@
 package de.tudresden.inf.lat.uel.sat.type;
 
-import java.util.ArrayList;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
 /**
- * An object of this class represents a SAT input file.
+ * An object of this class represents a SAT input file. The clauses are stored
+ * consecutively in a flat array of literals, together with the offset at which
+ * each clause starts, so that no objects are created per clause.
  * 
  * @author Julian Mendez
  */
-public class SatInput {
+public class SatInput implements ClauseSink {
+
+	private static final int initialCapacity = 1024;
 
 	public static void appendCNFClause(StringBuffer sbuf, Collection<Integer> clause) {
 		for (Integer literal : clause) {
@@ -65,9 +75,12 @@ public class SatInput {
 		return ret;
 	}
 
-	private Collection<Set<Integer>> clauses = new ArrayList<>();
-	private Integer lastId = 0;
+	private int[] clauseStarts = new int[initialCapacity];
+	private int lastId = 0;
+	private int[] literals = new int[initialCapacity];
 	private Set<Integer> minimizeLiterals = new HashSet<>();
+	private int nbClauses = 0;
+	private int nbLiterals = 0;
 
 	/**
 	 * Constructs a new SAT input.
@@ -76,30 +89,109 @@ public class SatInput {
 	}
 
 	/**
-	 * Adds a new non-empty clause.
+	 * Adds a new unit clause.
+	 * 
+	 * @param literal
+	 *            the only literal of the clause
+	 * @return a value indicating whether the SatInput was changed
+	 */
+	public boolean add(int literal) {
+		startClause(1);
+		appendLiteral(literal);
+		return true;
+	}
+
+	/**
+	 * Adds a new binary clause.
+	 * 
+	 * @param literal1
+	 *            first literal of the clause
+	 * @param literal2
+	 *            second literal of the clause
+	 * @return a value indicating whether the SatInput was changed
+	 */
+	public boolean add(int literal1, int literal2) {
+		startClause(2);
+		appendLiteral(literal1);
+		appendLiteral(literal2);
+		return true;
+	}
+
+	/**
+	 * Adds a new ternary clause.
+	 * 
+	 * @param literal1
+	 *            first literal of the clause
+	 * @param literal2
+	 *            second literal of the clause
+	 * @param literal3
+	 *            third literal of the clause
+	 * @return a value indicating whether the SatInput was changed
+	 */
+	public boolean add(int literal1, int literal2, int literal3) {
+		startClause(3);
+		appendLiteral(literal1);
+		appendLiteral(literal2);
+		appendLiteral(literal3);
+		return true;
+	}
+
+	/**
+	 * Adds a new non-empty clause given by an array of distinct literals.
 	 * 
 	 * @param clause
 	 *            new non-empty clause
 	 * @return a value indicating whether the SatInput was changed
+	 */
+	public boolean add(int... clause) {
+		if (clause == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		return add(clause, clause.length);
+	}
+
+	/**
+	 * Adds a new non-empty clause given by the first literals of an array.
 	 * 
+	 * @param clause
+	 *            an array starting with the literals of the new clause
+	 * @param length
+	 *            the number of literals of the clause
+	 * @return a value indicating whether the SatInput was changed
 	 */
-	public boolean add(Set<Integer> clause) {
+	public boolean add(int[] clause, int length) {
 		if (clause == null) {
 			throw new IllegalArgumentException("Null argument.");
 		}
 
-		if (clause.isEmpty()) {
-			throw new IllegalArgumentException("Clause cannot be empty.");
+		startClause(length);
+		for (int i = 0; i < length; i++) {
+			appendLiteral(clause[i]);
+		}
+		return true;
+	}
+
+	/**
+	 * Adds a new non-empty clause.
+	 * 
+	 * @param clause
+	 *            new non-empty clause
+	 * @return a value indicating whether the SatInput was changed
+	 * 
+	 */
+	public boolean add(Set<Integer> clause) {
+		if (clause == null) {
+			throw new IllegalArgumentException("Null argument.");
 		}
 		if (clause.contains(Solver.END_OF_CLAUSE)) {
 			throw new IllegalArgumentException("Clause cannot contain " + Solver.END_OF_CLAUSE + ".");
 		}
 
-		boolean ret = this.clauses.add(Collections.unmodifiableSet(clause));
-		if (ret) {
-			updateLastId(clause);
+		startClause(clause.size());
+		for (Integer literal : clause) {
+			appendLiteral(literal);
 		}
-		return ret;
+		return true;
 	}
 
 	/**
@@ -122,6 +214,37 @@ public class SatInput {
 		return ret;
 	}
 
+	/**
+	 * Appends all clauses of another SAT input, keeping their order, and its
+	 * literals to be minimized.
+	 * 
+	 * @param other
+	 *            the SAT input whose clauses are added
+	 * @return a value indicating whether the SatInput was changed
+	 */
+	public boolean addAll(SatInput other) {
+		if (other == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		if (nbClauses + other.nbClauses > clauseStarts.length) {
+			clauseStarts = Arrays.copyOf(clauseStarts,
+					Math.max(2 * clauseStarts.length, nbClauses + other.nbClauses));
+		}
+		if (nbLiterals + other.nbLiterals > literals.length) {
+			literals = Arrays.copyOf(literals, Math.max(2 * literals.length, nbLiterals + other.nbLiterals));
+		}
+		for (int i = 0; i < other.nbClauses; i++) {
+			clauseStarts[nbClauses + i] = nbLiterals + other.clauseStarts[i];
+		}
+		System.arraycopy(other.literals, 0, literals, nbLiterals, other.nbLiterals);
+		nbClauses += other.nbClauses;
+		nbLiterals += other.nbLiterals;
+		lastId = Math.max(lastId, other.lastId);
+		minimizeLiterals.addAll(other.minimizeLiterals);
+		return other.nbClauses > 0;
+	}
+
 	/**
 	 * Adds a literal to the set of literals that are to be minimized.
 	 * 
@@ -144,11 +267,53 @@ public class SatInput {
 		return this.minimizeLiterals.addAll(literals);
 	}
 
+	private void appendLiteral(int literal) {
+		if (literal == Solver.END_OF_CLAUSE) {
+			throw new IllegalArgumentException("Clause cannot contain " + Solver.END_OF_CLAUSE + ".");
+		}
+		if (nbLiterals == literals.length) {
+			literals = Arrays.copyOf(literals, 2 * literals.length);
+		}
+		literals[nbLiterals] = literal;
+		nbLiterals++;
+		int absLiteral = literal < 0 ? (-1) * literal : literal;
+		if (absLiteral > lastId) {
+			lastId = absLiteral;
+		}
+	}
+
+	/**
+	 * Passes all clauses and literals to be minimized to a clause sink, keeping
+	 * the order of the clauses.
+	 * 
+	 * @param sink
+	 *            the clause sink
+	 */
+	public void copyTo(ClauseSink sink) {
+		if (sink == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		int[] clause = new int[16];
+		for (int i = 0; i < nbClauses; i++) {
+			int length = getClauseLength(i);
+			if (length > clause.length) {
+				clause = new int[Math.max(2 * clause.length, length)];
+			}
+			System.arraycopy(literals, clauseStarts[i], clause, 0, length);
+			sink.add(clause, length);
+		}
+		for (Integer literal : minimizeLiterals) {
+			sink.addMinimizeLiteral(literal);
+		}
+	}
+
 	/**
 	 * Clears the set of clauses.
 	 */
 	public void clear() {
-		this.clauses.clear();
+		this.nbClauses = 0;
+		this.nbLiterals = 0;
 		this.lastId = 0;
 	}
 
@@ -157,18 +322,60 @@ public class SatInput {
 		boolean ret = (this == o);
 		if (!ret && o instanceof SatInput) {
 			SatInput other = (SatInput) o;
-			ret = this.clauses.equals(other.clauses) && this.lastId == other.lastId;
+			ret = this.lastId == other.lastId && this.nbClauses == other.nbClauses
+					&& this.nbLiterals == other.nbLiterals;
+			for (int i = 0; ret && i < this.nbClauses; i++) {
+				ret = this.clauseStarts[i] == other.clauseStarts[i];
+			}
+			for (int i = 0; ret && i < this.nbLiterals; i++) {
+				ret = this.literals[i] == other.literals[i];
+			}
 		}
 		return ret;
 	}
 
 	/**
-	 * Returns the clauses.
+	 * Returns the number of literals of a clause.
+	 * 
+	 * @param clauseIndex
+	 *            the position of the clause, starting from 0
+	 * @return the number of literals of the clause
+	 */
+	public int getClauseLength(int clauseIndex) {
+		return getClauseEnd(clauseIndex) - this.clauseStarts[clauseIndex];
+	}
+
+	private int getClauseEnd(int clauseIndex) {
+		return (clauseIndex + 1 < this.nbClauses) ? this.clauseStarts[clauseIndex + 1] : this.nbLiterals;
+	}
+
+	/**
+	 * Returns the clauses. This is a read-only view that creates a set for each
+	 * clause that is accessed, and is only meant for compatibility.
 	 * 
 	 * @return the clauses
 	 */
 	public Collection<Set<Integer>> getClauses() {
-		return Collections.unmodifiableCollection(this.clauses);
+		return new AbstractList<Set<Integer>>() {
+
+			@Override
+			public Set<Integer> get(int index) {
+				if (index < 0 || index >= nbClauses) {
+					throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + nbClauses);
+				}
+				Set<Integer> clause = new HashSet<>();
+				for (int i = clauseStarts[index]; i < getClauseEnd(index); i++) {
+					clause.add(literals[i]);
+				}
+				return Collections.unmodifiableSet(clause);
+			}
+
+			@Override
+			public int size() {
+				return nbClauses;
+			}
+
+		};
 	}
 
 	/**
@@ -176,10 +383,24 @@ public class SatInput {
 	 * 
 	 * @return the greatest propositional variable identifier
 	 */
-	public Integer getLastId() {
+	public int getLastId() {
 		return this.lastId;
 	}
 
+	/**
+	 * Returns a literal of a clause.
+	 * 
+	 * @param clauseIndex
+	 *            the position of the clause, starting from 0
+	 * @param position
+	 *            the position of the literal inside the clause, starting from
+	 *            0
+	 * @return the literal at the given position of the clause
+	 */
+	public int getLiteral(int clauseIndex, int position) {
+		return this.literals[this.clauseStarts[clauseIndex] + position];
+	}
+
 	/**
 	 * Retrieve the set of literals that are to be minimized.
 	 * 
@@ -189,9 +410,33 @@ public class SatInput {
 		return Collections.unmodifiableSet(minimizeLiterals);
 	}
 
+	/**
+	 * Returns the number of clauses.
+	 * 
+	 * @return the number of clauses
+	 */
+	public int getNumberOfClauses() {
+		return this.nbClauses;
+	}
+
 	@Override
 	public int hashCode() {
-		return this.clauses.hashCode();
+		int ret = this.nbClauses;
+		for (int i = 0; i < this.nbLiterals; i++) {
+			ret = 31 * ret + this.literals[i];
+		}
+		return ret;
+	}
+
+	private void startClause(int length) {
+		if (length == 0) {
+			throw new IllegalArgumentException("Clause cannot be empty.");
+		}
+		if (nbClauses == clauseStarts.length) {
+			clauseStarts = Arrays.copyOf(clauseStarts, 2 * clauseStarts.length);
+		}
+		clauseStarts[nbClauses] = nbLiterals;
+		nbClauses++;
 	}
 
 	/**
@@ -200,12 +445,13 @@ public class SatInput {
 	 * @return a string in DIMACS CNF format
 	 */
 	public String toCNF() {
-		StringBuffer sbuf = new StringBuffer();
-		appendCNFLine(sbuf, lastId, clauses.size());
-		for (Collection<Integer> clause : clauses) {
-			appendCNFClause(sbuf, clause);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			writeCNF(out);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
 		}
-		return sbuf.toString();
+		return new String(out.toByteArray(), StandardCharsets.US_ASCII);
 	}
 
 	@Override
@@ -221,27 +467,108 @@ public class SatInput {
 	 * @return a string in WNCF format
 	 */
 	public String toWCNF(int maxWeight) {
-		StringBuffer sbuf = new StringBuffer();
-		appendWCNFLine(sbuf, lastId, clauses.size() + minimizeLiterals.size(), maxWeight);
-		for (Set<Integer> clause : clauses) {
-			appendWCNFClause(sbuf, clause, maxWeight);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			writeWCNF(out, maxWeight);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
 		}
-		for (Integer lit : minimizeLiterals) {
-			appendWCNFClause(sbuf, Collections.singleton(-lit), 1);
+		return new String(out.toByteArray(), StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Writes this SAT input in compact binary format to a file, see
+	 * {@link BinaryDimacsWriter}. The file is compressed if its name ends with
+	 * {@link DimacsFiles#GZIP_SUFFIX}.
+	 * 
+	 * @param file
+	 *            the file
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public void writeBinary(File file) throws IOException {
+		try (BinaryDimacsWriter writer = new BinaryDimacsWriter(DimacsFiles.newOutputStream(file))) {
+			copyTo(writer);
 		}
-		return sbuf.toString();
 	}
 
-	private boolean updateLastId(Collection<Integer> newSet) {
-		boolean ret = false;
-		for (Integer elem : newSet) {
-			Integer absElem = elem < 0 ? (-1) * elem : elem;
-			if (absElem > lastId) {
-				lastId = absElem;
-				ret = true;
-			}
+	private void writeClauses(DimacsChannelWriter writer, String prefix) throws IOException {
+		for (int i = 0; i < nbClauses; i++) {
+			writer.writeClause(prefix, literals, clauseStarts[i], getClauseLength(i));
 		}
-		return ret;
+	}
+
+	/**
+	 * Writes this SAT input in DIMACS CNF format to a file. The file is
+	 * compressed if its name ends with {@link DimacsFiles#GZIP_SUFFIX}.
+	 * 
+	 * @param file
+	 *            the file
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public void writeCNF(File file) throws IOException {
+		try (OutputStream out = DimacsFiles.newOutputStream(file)) {
+			writeCNF(out);
+		}
+	}
+
+	/**
+	 * Writes this SAT input in DIMACS CNF format to an output stream. The
+	 * clauses are encoded one by one into a buffer, so that the whole input is
+	 * never held as text. The stream is flushed, but not closed.
+	 * 
+	 * @param out
+	 *            the output stream
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public void writeCNF(OutputStream out) throws IOException {
+		DimacsChannelWriter writer = new DimacsChannelWriter(out);
+		writer.writeLine(Solver.P_CNF + Solver.SPACE + lastId + Solver.SPACE + nbClauses);
+		writeClauses(writer, null);
+		writer.flush();
+	}
+
+	/**
+	 * Writes this MaxSAT input in WCNF format to a file. The file is
+	 * compressed if its name ends with {@link DimacsFiles#GZIP_SUFFIX}.
+	 * 
+	 * @param file
+	 *            the file
+	 * @param maxWeight
+	 *            the weight for the "hard" clauses
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public void writeWCNF(File file, int maxWeight) throws IOException {
+		try (OutputStream out = DimacsFiles.newOutputStream(file)) {
+			writeWCNF(out, maxWeight);
+		}
+	}
+
+	/**
+	 * Writes this MaxSAT input in WCNF format to an output stream, see
+	 * {@link #writeCNF(OutputStream)}. The stream is flushed, but not closed.
+	 * 
+	 * @param out
+	 *            the output stream
+	 * @param maxWeight
+	 *            the weight for the "hard" clauses
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public void writeWCNF(OutputStream out, int maxWeight) throws IOException {
+		DimacsChannelWriter writer = new DimacsChannelWriter(out);
+		writer.writeLine(Solver.P_WCNF + Solver.SPACE + lastId + Solver.SPACE
+				+ (nbClauses + minimizeLiterals.size()) + Solver.SPACE + maxWeight);
+		writeClauses(writer, Integer.toString(maxWeight));
+		int[] softClause = new int[1];
+		for (Integer lit : minimizeLiterals) {
+			softClause[0] = -lit;
+			writer.writeClause("1", softClause, 1);
+		}
+		writer.flush();
 	}
 
 }
@@ -1,5 +1,7 @@
 package de.tudresden.inf.lat.uel.sat.type;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
@@ -7,15 +9,34 @@ import java.util.TreeSet;
 
 /**
  * An object of this class is an output of a SAT solver. In its string
- * representation it has a line containing either SAT (satisfiable) or UNSAT
- * (unsatisfiable), and, if satisfiable, a model.
+ * representation it has a line containing either SAT (satisfiable), UNSAT
+ * (unsatisfiable) or UNKNOWN (the solver stopped before deciding the problem),
+ * and, if satisfiable, a model.
  * 
  * @author Julian Mendez
  */
 public class SatOutput {
 
-	private Set<Integer> clause = new TreeSet<>();
+	private static final int[] emptyModel = new int[0];
+
+	/**
+	 * Creates an output signaling that the solver stopped before it could
+	 * decide whether the problem is satisfiable, e.g. because its budget was
+	 * exceeded.
+	 * 
+	 * @return a new SAT output that is neither satisfiable nor unsatisfiable
+	 */
+	public static SatOutput unknown() {
+		SatOutput ret = new SatOutput(false, emptyModel);
+		ret.unknown = true;
+		return ret;
+	}
+
+	private Set<Integer> clause = null;
+	private final int[] model;
 	private boolean satisfiable = false;
+	private BitSet trueVariables = null;
+	private boolean unknown = false;
 
 	/**
 	 * Constructs a new SAT output
@@ -33,18 +54,84 @@ public class SatOutput {
 
 		this.satisfiable = satisf;
 		if (satisf) {
-			this.clause.addAll(c);
-			this.clause.remove(Solver.END_OF_CLAUSE);
+			int[] literals = new int[c.size()];
+			int length = 0;
+			for (Integer literal : c) {
+				if (literal.intValue() != Solver.END_OF_CLAUSE.intValue()) {
+					literals[length] = literal;
+					length++;
+				}
+			}
+			this.model = (length == literals.length) ? literals : Arrays.copyOf(literals, length);
+		} else {
+			this.model = emptyModel;
 		}
 	}
 
+	/**
+	 * Constructs a new SAT output without copying the model.
+	 * 
+	 * @param satisf
+	 *            <code>true</code> if and only if the SAT is satisfiable
+	 * @param m
+	 *            in case the SAT problem is satisfiable, the literals
+	 *            satisfying the problem (the array is not copied and must not
+	 *            be modified afterwards, and must not contain the value 0),
+	 *            otherwise this argument is ignored
+	 */
+	public SatOutput(boolean satisf, int[] m) {
+		if (m == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		this.satisfiable = satisf;
+		this.model = satisf ? m : emptyModel;
+	}
+
+	/**
+	 * Retrieve the model as an array of literals. The array must not be
+	 * modified.
+	 * 
+	 * @return an array of literal identifiers, in no particular order
+	 */
+	public int[] getModel() {
+		return this.model;
+	}
+
 	/**
 	 * Retrieve the model.
 	 * 
 	 * @return a set of literal identifiers
 	 */
 	public Set<Integer> getOutput() {
-		return Collections.unmodifiableSet(this.clause);
+		if (this.clause == null) {
+			Set<Integer> set = new TreeSet<>();
+			for (int literal : this.model) {
+				set.add(literal);
+			}
+			this.clause = Collections.unmodifiableSet(set);
+		}
+		return this.clause;
+	}
+
+	/**
+	 * Retrieve the variables that are true in the model. The returned bit set
+	 * must not be modified.
+	 * 
+	 * @return a bit set containing the identifiers of all positive literals in
+	 *         the model
+	 */
+	public BitSet getTrueVariables() {
+		if (this.trueVariables == null) {
+			BitSet set = new BitSet();
+			for (int literal : this.model) {
+				if (literal > 0) {
+					set.set(literal);
+				}
+			}
+			this.trueVariables = set;
+		}
+		return this.trueVariables;
 	}
 
 	/**
@@ -54,12 +141,20 @@ public class SatOutput {
 		return this.satisfiable;
 	}
 
+	/**
+	 * @return a value indicating whether the solver stopped before deciding
+	 *         the problem
+	 */
+	public boolean isUnknown() {
+		return this.unknown;
+	}
+
 	@Override
 	public String toString() {
 		StringBuffer sbuf = new StringBuffer();
-		sbuf.append((this.satisfiable ? Solver.SAT : Solver.UNSAT));
+		sbuf.append((this.satisfiable ? Solver.SAT : (this.unknown ? Solver.UNKNOWN : Solver.UNSAT)));
 		sbuf.append(Solver.NEWLINE);
-		for (Integer e : this.clause) {
+		for (Integer e : getOutput()) {
 			sbuf.append(e);
 			sbuf.append(Solver.SPACE);
 		}
@@ -0,0 +1,144 @@
+package de.tudresden.inf.lat.uel.sat.type;
+
+import java.util.Arrays;
+
+/**
+ * An object of this class simplifies clauses before passing them on to
+ * another clause sink. The values of the literals fixed by unit clauses are
+ * recorded; clauses that are already satisfied by these values are dropped,
+ * and literals that are already false are removed from the remaining clauses.
+ * If a clause is shortened to a single literal, the value of this literal is
+ * recorded as well. A clause whose literals are all false is passed on
+ * unchanged, so that the receiving solver detects the contradiction.
+ *
+ * The values of the literals only change from unknown to true or false, so
+ * that a clause that is dropped based on an earlier state of this sink would
+ * also be dropped later.
+ *
+ * @author Stefan Borgwardt
+ */
+public class SimplifyingClauseSink implements ClauseSink {
+
+	private static final byte FALSE = -1;
+	private static final byte TRUE = 1;
+	private static final byte UNKNOWN = 0;
+
+	private int[] clause = new int[16];
+	private int nbDroppedClauses = 0;
+	private final ClauseSink sink;
+	private byte[] values = new byte[1024];
+
+	/**
+	 * Constructs a new simplifying clause sink.
+	 *
+	 * @param sink
+	 *            the clause sink that receives the simplified clauses
+	 */
+	public SimplifyingClauseSink(ClauseSink sink) {
+		if (sink == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		this.sink = sink;
+	}
+
+	@Override
+	public boolean add(int[] literals, int length) {
+		if (literals == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (length == 0) {
+			throw new IllegalArgumentException("Clause cannot be empty.");
+		}
+
+		if (clause.length < length) {
+			clause = new int[Math.max(2 * clause.length, length)];
+		}
+		int newLength = 0;
+		for (int i = 0; i < length; i++) {
+			int literal = literals[i];
+			byte value = getValue(literal);
+			if (value == TRUE) {
+				nbDroppedClauses++;
+				return false;
+			} else if (value == UNKNOWN) {
+				clause[newLength] = literal;
+				newLength++;
+			}
+		}
+
+		if (newLength == 0) {
+			return sink.add(literals, length);
+		}
+		if (newLength == 1) {
+			setValue(clause[0]);
+		}
+		return sink.add(clause, newLength);
+	}
+
+	@Override
+	public boolean addMinimizeLiteral(Integer literal) {
+		return sink.addMinimizeLiteral(literal);
+	}
+
+	@Override
+	public int getLastId() {
+		return sink.getLastId();
+	}
+
+	/**
+	 * Returns the number of clauses that were dropped because they were
+	 * already satisfied.
+	 *
+	 * @return the number of dropped clauses
+	 */
+	public int getNumberOfDroppedClauses() {
+		return nbDroppedClauses;
+	}
+
+	@Override
+	public int getNumberOfClauses() {
+		return sink.getNumberOfClauses();
+	}
+
+	private byte getValue(int literal) {
+		int var = literal < 0 ? (-1) * literal : literal;
+		if (var >= values.length) {
+			return UNKNOWN;
+		}
+		byte value = values[var];
+		return literal < 0 ? (byte) ((-1) * value) : value;
+	}
+
+	/**
+	 * Tells whether a literal is known to be false.
+	 *
+	 * @param literal
+	 *            the literal
+	 * @return <code>true</code> if and only if the literal is known to be
+	 *         false
+	 */
+	public boolean isFalse(int literal) {
+		return getValue(literal) == FALSE;
+	}
+
+	/**
+	 * Tells whether a literal is known to be true.
+	 *
+	 * @param literal
+	 *            the literal
+	 * @return <code>true</code> if and only if the literal is known to be true
+	 */
+	public boolean isTrue(int literal) {
+		return getValue(literal) == TRUE;
+	}
+
+	private void setValue(int literal) {
+		int var = literal < 0 ? (-1) * literal : literal;
+		if (var >= values.length) {
+			values = Arrays.copyOf(values, Math.max(2 * values.length, var + 1));
+		}
+		values[var] = literal < 0 ? FALSE : TRUE;
+	}
+
+}
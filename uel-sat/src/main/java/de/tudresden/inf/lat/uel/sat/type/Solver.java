@@ -3,6 +3,8 @@ package de.tudresden.inf.lat.uel.sat.type;
 import java.io.IOException;
 import java.util.Set;
 
+import de.tudresden.inf.lat.uel.type.impl.Budget;
+
 /**
  * An object implementing this interface can solve a SAT problem.
  *
@@ -40,6 +42,12 @@ public interface Solver {
 	 */
 	String SPACE = " ";
 
+	/**
+	 * First string returned by the solver when it stopped before deciding the
+	 * SAT problem.
+	 */
+	String UNKNOWN = "UNKNOWN";
+
 	/**
 	 * First string returned by the solver when the SAT problem is not
 	 * satisfiable.
@@ -51,6 +59,31 @@ public interface Solver {
 	 */
 	void cleanup();
 
+	/**
+	 * Creates a new clause sink that receives the clauses of the next SAT
+	 * problem to be solved. Depending on the solver, the clauses are passed on
+	 * directly to the solver or written to a file, so that the problem does
+	 * not have to be kept in memory as a whole. The problem is solved by a
+	 * subsequent call of {@link #solve()}.
+	 *
+	 * @return a clause sink for a new SAT problem
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	ClauseSink newInput() throws IOException;
+
+	/**
+	 * Solves the SAT problem given by the clauses added to the clause sink
+	 * returned by the last call of {@link #newInput()}.
+	 *
+	 * @return the output of the SAT solver
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 * @throws InterruptedException
+	 *             if the process is interrupted
+	 */
+	SatOutput solve() throws IOException, InterruptedException;
+
 	/**
 	 * Solves a SAT problem. The input must be in the DIMACS CNF format.
 	 *
@@ -64,6 +97,93 @@ public interface Solver {
 	 */
 	SatOutput solve(SatInput input) throws IOException, InterruptedException;
 
+	/**
+	 * Computes a subset of the given literals that, together with the clauses
+	 * of the last solved problem, implies all of the given literals. Blocking
+	 * only this subset excludes exactly the models that agree with the given
+	 * literals, but the blocking clause is usually much shorter. The solver
+	 * may use additional variables for this computation, and hence the
+	 * clauses of the problem must not introduce new variables afterwards.
+	 *
+	 * @param literals
+	 *            literals that are true in the last model
+	 * @return a subset of the given literals implying all of them; the default
+	 *         implementation returns the given literals
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 * @throws InterruptedException
+	 *             if the process is interrupted
+	 */
+	default int[] findDeterminingLiterals(int[] literals) throws IOException, InterruptedException {
+		return literals;
+	}
+
+	/**
+	 * Removes all clauses added by {@link #updateRetractable(Set)}. The next
+	 * call of {@link #solve()} solves the problem without them. Information
+	 * that the solver has learned so far remains available.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             if this solver does not support retractable clauses
+	 */
+	default void retractAll() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Limits the resources used by the subsequent calls of the methods that
+	 * solve a problem, until another budget is set. If the budget is exceeded,
+	 * these methods return an output that is unknown (see
+	 * {@link SatOutput#isUnknown()}), and the problem can be solved again by
+	 * {@link #solve()}. The number of conflicts is counted from the call of
+	 * this method. The default implementation ignores the budget.
+	 *
+	 * @param budget
+	 *            the budget
+	 */
+	default void setBudget(Budget budget) {
+	}
+
+	/**
+	 * Stops a running computation of this solver as soon as possible. The
+	 * stopped computation either returns an unknown output (see
+	 * {@link SatOutput#isUnknown()}) or throws an exception, and the same
+	 * holds for all later computations until {@link #newInput()} is called.
+	 * This method can be called from another thread. The default
+	 * implementation does nothing.
+	 */
+	default void stop() {
+	}
+
+	/**
+	 * Tells whether this solver supports clauses that can be retracted later.
+	 *
+	 * @return <code>true</code> if and only if
+	 *         {@link #updateRetractable(Set)} and {@link #retractAll()} are
+	 *         supported
+	 */
+	default boolean supportsRetractableClauses() {
+		return false;
+	}
+
+	/**
+	 * Updates the last solved SAT instance by adding one clause that can be
+	 * retracted later, and solves the resulting problem.
+	 *
+	 * @param clause
+	 *            the clause to be added
+	 * @return the output of the SAT solver
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 * @throws InterruptedException
+	 *             if the process is interrupted
+	 * @throws UnsupportedOperationException
+	 *             if this solver does not support retractable clauses
+	 */
+	default SatOutput updateRetractable(Set<Integer> clause) throws IOException, InterruptedException {
+		throw new UnsupportedOperationException();
+	}
+
 	/**
 	 * Updates the last solved SAT instances by adding one clause and solves the
 	 * resulting problem.
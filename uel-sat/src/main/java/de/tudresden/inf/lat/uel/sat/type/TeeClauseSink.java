@@ -0,0 +1,54 @@
+package de.tudresden.inf.lat.uel.sat.type;
+
+/**
+ * An object of this class passes all clauses and literals to be minimized on
+ * to two other clause sinks, e.g. to a solver and to a file. The counters are
+ * taken from the first sink.
+ *
+ * @author Stefan Borgwardt
+ */
+public class TeeClauseSink implements ClauseSink {
+
+	private final ClauseSink first;
+	private final ClauseSink second;
+
+	/**
+	 * Constructs a new clause sink.
+	 *
+	 * @param first
+	 *            the first clause sink
+	 * @param second
+	 *            the second clause sink
+	 */
+	public TeeClauseSink(ClauseSink first, ClauseSink second) {
+		if (first == null || second == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		this.first = first;
+		this.second = second;
+	}
+
+	@Override
+	public boolean add(int[] clause, int length) {
+		boolean ret = first.add(clause, length);
+		return second.add(clause, length) || ret;
+	}
+
+	@Override
+	public boolean addMinimizeLiteral(Integer literal) {
+		boolean ret = first.addMinimizeLiteral(literal);
+		return second.addMinimizeLiteral(literal) || ret;
+	}
+
+	@Override
+	public int getLastId() {
+		return first.getLastId();
+	}
+
+	@Override
+	public int getNumberOfClauses() {
+		return first.getNumberOfClauses();
+	}
+
+}
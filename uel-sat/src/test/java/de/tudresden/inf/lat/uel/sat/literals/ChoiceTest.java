@@ -0,0 +1,97 @@
+package de.tudresden.inf.lat.uel.sat.literals;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.TimeoutException;
+
+import de.tudresden.inf.lat.uel.sat.type.SatInput;
+
+public class ChoiceTest {
+
+	private static final int maxNumberOfChoices = 40;
+
+	static ISolver createSolver(SatInput input) throws ContradictionException {
+		ISolver solver = SolverFactory.newDefault();
+		solver.newVar(input.getLastId());
+		for (int i = 0; i < input.getNumberOfClauses(); i++) {
+			int[] clause = new int[input.getClauseLength(i)];
+			for (int k = 0; k < clause.length; k++) {
+				clause[k] = input.getLiteral(i, k);
+			}
+			solver.addClause(new VecInt(clause));
+		}
+		return solver;
+	}
+
+	static VecInt choose(Choice choice, int... alternatives) {
+		VecInt ret = new VecInt();
+		for (int j : alternatives) {
+			for (int literal : choice.getChoiceLiterals(j)) {
+				ret.push((-1) * literal);
+			}
+		}
+		return ret;
+	}
+
+	@ParameterizedTest
+	@EnumSource(ChoiceEncoding.class)
+	public void testExactlyOne(ChoiceEncoding encoding) throws ContradictionException, TimeoutException {
+		for (int n = 1; n <= maxNumberOfChoices; n++) {
+			LiteralManager literalManager = new LiteralManager(Collections.<Integer> emptySet(),
+					Collections.<Integer> emptySet());
+			Choice choice = encoding.newChoice(literalManager, n);
+			Assertions.assertEquals(n, choice.getNumberOfChoices());
+			SatInput input = new SatInput();
+			choice.ruleOutOtherChoices(input);
+			ISolver solver = createSolver(input);
+
+			for (int j = 0; j < n; j++) {
+				Assertions.assertTrue(solver.isSatisfiable(choose(choice, j)), encoding + ", " + n + ": " + j);
+				for (int k = j + 1; k < n; k++) {
+					Assertions.assertFalse(solver.isSatisfiable(choose(choice, j, k)),
+							encoding + ", " + n + ": " + j + ", " + k);
+				}
+			}
+
+			// some alternative has to be chosen
+			if (n > 1) {
+				Assertions.assertFalse(isSatisfiableWithoutChoice(solver, choice), encoding + ", " + n);
+			}
+		}
+	}
+
+	static boolean isSatisfiableWithoutChoice(ISolver solver, Choice choice) throws TimeoutException {
+		try {
+			for (int j = 0; j < choice.getNumberOfChoices(); j++) {
+				solver.addClause(new VecInt(choice.getChoiceLiterals(j)));
+			}
+		} catch (ContradictionException e) {
+			return false;
+		}
+		return solver.isSatisfiable();
+	}
+
+	@ParameterizedTest
+	@EnumSource(ChoiceEncoding.class)
+	public void testAddChoiceLiterals(ChoiceEncoding encoding) {
+		LiteralManager literalManager = new LiteralManager(Collections.<Integer> emptySet(),
+				Collections.<Integer> emptySet());
+		Choice choice = encoding.newChoice(literalManager, 7);
+		int[] literals = choice.addChoiceLiterals(new int[] { 100, -200 }, 3);
+		Assertions.assertEquals(2 + choice.getNumberOfChoiceLiterals(), literals.length);
+		Assertions.assertEquals(100, literals[0]);
+		Assertions.assertEquals(-200, literals[1]);
+		int[] choiceLiterals = choice.getChoiceLiterals(3);
+		for (int i = 0; i < choiceLiterals.length; i++) {
+			Assertions.assertEquals(choiceLiterals[i], literals[2 + i]);
+		}
+	}
+
+}
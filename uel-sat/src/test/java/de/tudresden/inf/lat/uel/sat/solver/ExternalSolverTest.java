@@ -0,0 +1,146 @@
+package de.tudresden.inf.lat.uel.sat.solver;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
+import de.tudresden.inf.lat.uel.sat.type.SatInput;
+import de.tudresden.inf.lat.uel.sat.type.SatOutput;
+
+public class ExternalSolverTest {
+
+	private static final String stubSolver = "src/test/resources/stub-solver.sh";
+	private static final Duration timeout = Duration.ofSeconds(30);
+
+	private ExternalSolver solver;
+
+	static Set<Integer> set(Integer... literals) {
+		return new HashSet<>(Arrays.asList(literals));
+	}
+
+	@BeforeEach
+	public void createSolver() {
+		Assumptions.assumeTrue(new File("/bin/sh").canExecute());
+		solver = new ExternalSolver(Arrays.asList("/bin/sh", stubSolver));
+	}
+
+	@Test
+	public void testCNF() {
+		Assertions.assertTimeoutPreemptively(timeout, () -> {
+			SatInput input = new SatInput();
+			input.add(1, 2);
+			input.add(-1, 3);
+			input.add(-3);
+
+			SatOutput output = solver.solve(input);
+			Assertions.assertTrue(output.isSatisfiable());
+			Assertions.assertEquals(set(-1, 2, -3), output.getOutput());
+
+			output = solver.update(set(-2, 3));
+			Assertions.assertFalse(output.isSatisfiable());
+			solver.cleanup();
+		});
+	}
+
+	@Test
+	public void testIncremental() {
+		Assertions.assertTimeoutPreemptively(timeout, () -> {
+			solver.setIncremental(true);
+			Assertions.assertTrue(solver.supportsRetractableClauses());
+			ClauseSink sink = solver.newInput();
+			sink.add(1, 2, 3);
+			sink.add(-1, -2);
+
+			SatOutput output = solver.solve();
+			Assertions.assertTrue(output.isSatisfiable());
+			Assertions.assertTrue(output.getOutput().contains(1) || output.getOutput().contains(2)
+					|| output.getOutput().contains(3));
+
+			output = solver.updateRetractable(set(-3));
+			Assertions.assertTrue(output.isSatisfiable());
+			Assertions.assertTrue(output.getOutput().contains(-3));
+
+			output = solver.updateRetractable(set(-1));
+			Assertions.assertTrue(output.isSatisfiable());
+			Assertions.assertTrue(output.getOutput().containsAll(set(-1, 2, -3)));
+
+			output = solver.updateRetractable(set(-2));
+			Assertions.assertFalse(output.isSatisfiable());
+
+			solver.retractAll();
+			output = solver.update(set(-1));
+			Assertions.assertTrue(output.isSatisfiable());
+			Assertions.assertTrue(output.getOutput().contains(-1));
+
+			output = solver.update(set(-2));
+			Assertions.assertTrue(output.isSatisfiable());
+			Assertions.assertTrue(output.getOutput().containsAll(set(-1, -2, 3)));
+
+			output = solver.update(set(-3));
+			Assertions.assertFalse(output.isSatisfiable());
+			solver.cleanup();
+		});
+	}
+
+	@Test
+	public void testIncrementalRequiresCNF() {
+		solver.setWeighted(true);
+		Assertions.assertThrows(IllegalStateException.class, () -> solver.setIncremental(true));
+	}
+
+	@Test
+	public void testWCNF() {
+		Assertions.assertTimeoutPreemptively(timeout, () -> {
+			solver.setWeighted(true);
+			ClauseSink sink = solver.newInput();
+			sink.add(1, 2, 3);
+			sink.add(-1, 4);
+			sink.add(-2, 4);
+			sink.addMinimizeLiteral(1);
+			sink.addMinimizeLiteral(2);
+			sink.addMinimizeLiteral(4);
+
+			SatOutput output = solver.solve();
+			Assertions.assertTrue(output.isSatisfiable());
+			Assertions.assertEquals(set(-1, -2, 3, -4), output.getOutput());
+
+			output = solver.update(set(-3));
+			Assertions.assertTrue(output.isSatisfiable());
+			Assertions.assertTrue(output.getOutput().contains(4));
+			solver.cleanup();
+		});
+	}
+
+	@Test
+	public void testMissingAnswer() {
+		ExternalSolver broken = new ExternalSolver(Arrays.asList("/bin/sh", "-c", "cat > /dev/null"));
+		SatInput input = new SatInput();
+		input.add(1);
+		Assertions.assertThrows(IOException.class, () -> broken.solve(input));
+	}
+
+	@Test
+	public void testIncompleteModel() throws Exception {
+		SatInput input = new SatInput();
+		input.add(1, 2);
+		ExternalSolver noModel = new ExternalSolver(
+				Arrays.asList("/bin/sh", "-c", "cat > /dev/null; echo 's SATISFIABLE'"));
+		Assertions.assertThrows(IOException.class, () -> noModel.solve(input));
+		ExternalSolver cutOff = new ExternalSolver(
+				Arrays.asList("/bin/sh", "-c", "cat > /dev/null; echo 's SATISFIABLE'; echo 'v 1 -2'"));
+		Assertions.assertThrows(IOException.class, () -> cutOff.solve(input));
+		ExternalSolver unsat = new ExternalSolver(
+				Arrays.asList("/bin/sh", "-c", "cat > /dev/null; echo 's UNSATISFIABLE'"));
+		Assertions.assertFalse(unsat.solve(input).isSatisfiable());
+	}
+
+}
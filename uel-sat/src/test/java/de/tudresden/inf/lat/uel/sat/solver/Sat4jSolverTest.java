@@ -0,0 +1,316 @@
+package de.tudresden.inf.lat.uel.sat.solver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.TimeoutException;
+
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
+import de.tudresden.inf.lat.uel.sat.type.SatOutput;
+import de.tudresden.inf.lat.uel.sat.type.Solver;
+import de.tudresden.inf.lat.uel.type.impl.Budget;
+
+public class Sat4jSolverTest {
+
+	private static final int[][] clauses = { { -1, 2 }, { -1, -3 }, { 1, 4 }, { -1, -4 }, { -2, 3, 5 } };
+	private static final int numberOfVariables = 5;
+
+	static Set<Integer> set(int... literals) {
+		Set<Integer> ret = new HashSet<>();
+		for (int literal : literals) {
+			ret.add(literal);
+		}
+		return ret;
+	}
+
+	private static boolean isTrue(int literal, int assignment) {
+		boolean value = ((assignment >>> (Math.abs(literal) - 1)) & 1) == 1;
+		return (literal > 0) == value;
+	}
+
+	private static boolean satisfiesAll(int[][] clauses, int assignment) {
+		for (int[] clause : clauses) {
+			boolean satisfied = false;
+			for (int literal : clause) {
+				satisfied |= isTrue(literal, assignment);
+			}
+			if (!satisfied) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks by enumerating all assignments that the clauses together with
+	 * the blocking clauses and the determining literals imply all literals.
+	 */
+	private static void assertDetermines(List<int[]> blockingClauses, int[] determining, int[] literals) {
+		Set<Integer> all = set(literals);
+		for (int literal : determining) {
+			Assertions.assertTrue(all.contains(literal));
+		}
+		int[][] units = new int[determining.length][];
+		for (int i = 0; i < determining.length; i++) {
+			units[i] = new int[] { determining[i] };
+		}
+		for (int assignment = 0; assignment < (1 << numberOfVariables); assignment++) {
+			if (satisfiesAll(clauses, assignment) && satisfiesAll(blockingClauses.toArray(new int[0][]), assignment)
+					&& satisfiesAll(units, assignment)) {
+				for (int literal : literals) {
+					Assertions.assertTrue(isTrue(literal, assignment));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testDeterminingLiterals() throws Exception {
+		Sat4jSolver solver = new Sat4jSolver();
+		ClauseSink sink = solver.newInput();
+		for (int[] clause : clauses) {
+			sink.add(clause);
+		}
+
+		List<int[]> blockingClauses = new ArrayList<>();
+		SatOutput output = solver.solve();
+		while (output.isSatisfiable()) {
+			int[] literals = new int[numberOfVariables];
+			for (int i = 0; i < numberOfVariables; i++) {
+				literals[i] = output.getTrueVariables().get(i + 1) ? (i + 1) : -(i + 1);
+			}
+			int[] determining = solver.findDeterminingLiterals(literals);
+			assertDetermines(blockingClauses, determining, literals);
+
+			int[] blockingClause = new int[determining.length];
+			for (int i = 0; i < determining.length; i++) {
+				blockingClause[i] = (-1) * determining[i];
+			}
+			blockingClauses.add(blockingClause);
+			output = solver.updateRetractable(set(blockingClause));
+		}
+
+		int expected = 0;
+		for (int assignment = 0; assignment < (1 << numberOfVariables); assignment++) {
+			if (satisfiesAll(clauses, assignment)) {
+				expected++;
+			}
+		}
+		// each model is excluded only by its own blocking clause
+		Assertions.assertEquals(expected, blockingClauses.size());
+		solver.cleanup();
+	}
+
+	@Test
+	public void testBudget() throws Exception {
+		Sat4jSolver solver = new Sat4jSolver();
+		ClauseSink sink = solver.newInput();
+		for (int[] clause : clauses) {
+			sink.add(clause);
+		}
+
+		solver.setBudget(new Budget(Long.MAX_VALUE, 0));
+		SatOutput output = solver.solve();
+		Assertions.assertFalse(output.isSatisfiable());
+		Assertions.assertTrue(output.isUnknown());
+
+		solver.setBudget(new Budget(System.currentTimeMillis() - 1, Long.MAX_VALUE));
+		Assertions.assertTrue(solver.solve().isUnknown());
+
+		// the problem is still there and can be solved with a larger budget
+		solver.setBudget(Budget.withTimeout(60000).withMaxConflicts(1000));
+		output = solver.solve();
+		Assertions.assertTrue(output.isSatisfiable());
+		Assertions.assertFalse(output.isUnknown());
+
+		solver.setBudget(Budget.UNLIMITED);
+		Assertions.assertTrue(solver.solve().isSatisfiable());
+		solver.cleanup();
+	}
+
+	@Test
+	public void testAllLiteralsDetermined() throws Exception {
+		Sat4jSolver solver = new Sat4jSolver();
+		ClauseSink sink = solver.newInput();
+		sink.add(1);
+		sink.add(-2);
+		Assertions.assertTrue(solver.solve().isSatisfiable());
+
+		Assertions.assertEquals(0, solver.findDeterminingLiterals(new int[] { 1, -2 }).length);
+		Assertions.assertTrue(solver.solve().isSatisfiable());
+		solver.cleanup();
+	}
+
+	/**
+	 * Returns the clauses of the pigeonhole principle for 12 pigeons and 11
+	 * holes, which is hard for resolution-based solvers.
+	 */
+	static List<int[]> pigeonhole() {
+		return pigeonhole(12, 11);
+	}
+
+	static List<int[]> pigeonhole(int pigeons, int holes) {
+		List<int[]> ret = new ArrayList<>();
+		for (int i = 0; i < pigeons; i++) {
+			int[] clause = new int[holes];
+			for (int j = 0; j < holes; j++) {
+				clause[j] = i * holes + j + 1;
+			}
+			ret.add(clause);
+			for (int k = i + 1; k < pigeons; k++) {
+				for (int j = 0; j < holes; j++) {
+					ret.add(new int[] { -(i * holes + j + 1), -(k * holes + j + 1) });
+				}
+			}
+		}
+		return ret;
+	}
+
+	@Test
+	public void testStop() throws Exception {
+		Sat4jSolver solver = new Sat4jSolver();
+		ClauseSink sink = solver.newInput();
+		for (int[] clause : pigeonhole()) {
+			sink.add(clause);
+		}
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<SatOutput> future = executor.submit(() -> solver.solve());
+			Thread.sleep(200);
+			solver.stop();
+			SatOutput output = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> future.get());
+			Assertions.assertTrue(output.isUnknown());
+			Assertions.assertTrue(solver.solve().isUnknown());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// a new input can be solved again
+		sink = solver.newInput();
+		for (int[] clause : clauses) {
+			sink.add(clause);
+		}
+		Assertions.assertTrue(solver.solve().isSatisfiable());
+		solver.cleanup();
+	}
+
+	@Test
+	public void testStopBeforeSearch() throws Exception {
+		// Sat4j resets its timeout when a search starts, so the request to
+		// stop must not get lost between the check of the solver and the
+		// start of the search
+		ISolver solver = SolverFactory.newDefault();
+		Sat4jSearchLimiter limiter = new Sat4jSearchLimiter();
+		limiter.attachTo(solver);
+		for (int[] clause : pigeonhole()) {
+			solver.addClause(new VecInt(clause));
+		}
+
+		limiter.stop(solver);
+		limiter.apply(solver);
+		Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5),
+				() -> Assertions.assertThrows(TimeoutException.class, () -> solver.isSatisfiable()));
+		Assertions.assertTrue(limiter.isDone());
+
+		Sat4jSolver sat4jSolver = new Sat4jSolver();
+		ClauseSink sink = sat4jSolver.newInput();
+		for (int[] clause : pigeonhole()) {
+			sink.add(clause);
+		}
+		sat4jSolver.stop();
+		SatOutput output = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> sat4jSolver.solve());
+		Assertions.assertTrue(output.isUnknown());
+		sat4jSolver.cleanup();
+	}
+
+	/**
+	 * Returns random clauses with three literals each, which are satisfiable
+	 * for the seed used here.
+	 */
+	private static List<int[]> random3Sat(int variables, int numberOfClauses) {
+		Random random = new Random(42);
+		List<int[]> ret = new ArrayList<>();
+		for (int i = 0; i < numberOfClauses; i++) {
+			int[] clause = new int[3];
+			for (int k = 0; k < 3; k++) {
+				clause[k] = (random.nextInt(variables) + 1) * (random.nextBoolean() ? 1 : -1);
+			}
+			ret.add(clause);
+		}
+		return ret;
+	}
+
+	/**
+	 * Minimizes all variables of random clauses with a budget of two
+	 * conflicts per call, and checks that the result is a subset-minimal
+	 * model.
+	 */
+	private static void assertResumesAfterBudget(Solver solver) throws Exception {
+		int variables = 60;
+		List<int[]> clauses = random3Sat(variables, 240);
+		ClauseSink sink = solver.newInput();
+		for (int[] clause : clauses) {
+			sink.add(clause);
+		}
+		for (int i = 1; i <= variables; i++) {
+			sink.addMinimizeLiteral(i);
+		}
+
+		solver.setBudget(new Budget(Long.MAX_VALUE, 0));
+		Assertions.assertTrue(solver.solve().isUnknown());
+
+		SatOutput output;
+		int calls = 0;
+		do {
+			solver.setBudget(new Budget(Long.MAX_VALUE, 2));
+			output = solver.solve();
+			calls++;
+		} while (output.isUnknown() && calls < 1000);
+		// the search was interrupted and resumed
+		Assertions.assertTrue(calls > 1);
+		Assertions.assertTrue(output.isSatisfiable());
+		solver.cleanup();
+
+		// no model has a strict subset of the true variables
+		Sat4jSolver checker = new Sat4jSolver();
+		sink = checker.newInput();
+		for (int[] clause : clauses) {
+			sink.add(clause);
+		}
+		Set<Integer> smaller = new HashSet<>();
+		for (int i = 1; i <= variables; i++) {
+			if (output.getTrueVariables().get(i)) {
+				smaller.add((-1) * i);
+			} else {
+				sink.add((-1) * i);
+			}
+		}
+		sink.add(smaller);
+		Assertions.assertFalse(checker.solve().isSatisfiable());
+		checker.cleanup();
+	}
+
+	@Test
+	public void testCoreGuidedBudget() throws Exception {
+		assertResumesAfterBudget(new Sat4jCoreGuidedMaxSatSolver());
+	}
+
+	@Test
+	public void testMinimalModelBudget() throws Exception {
+		assertResumesAfterBudget(new Sat4jMinimalModelSolver());
+	}
+
+}
@@ -0,0 +1,121 @@
+package de.tudresden.inf.lat.uel.sat.type;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DimacsExportTest {
+
+	private static final String nl = Solver.NEWLINE;
+
+	@TempDir
+	Path directory;
+
+	static String read(File file) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (InputStream in = DimacsFiles.newInputStream(file)) {
+			byte[] bytes = new byte[1024];
+			int read;
+			while ((read = in.read(bytes)) >= 0) {
+				out.write(bytes, 0, read);
+			}
+		}
+		return new String(out.toByteArray(), StandardCharsets.US_ASCII);
+	}
+
+	static SatInput readBinary(File file) throws IOException {
+		SatInput ret = new SatInput();
+		try (BinaryDimacsReader reader = new BinaryDimacsReader(DimacsFiles.newInputStream(file))) {
+			reader.readTo(ret);
+		}
+		return ret;
+	}
+
+	@Test
+	public void testCNF() throws IOException {
+		SatInput input = EncodingCacheTest.createInput();
+		String expected = "p cnf 100000 3" + nl + "1 -2 3 0" + nl + "-100000 0" + nl + "70000 2 0" + nl;
+		Assertions.assertEquals(expected, input.toCNF());
+
+		File file = directory.resolve("input.cnf").toFile();
+		input.writeCNF(file);
+		Assertions.assertEquals(expected, read(file));
+
+		File compressed = directory.resolve("input.cnf.gz").toFile();
+		input.writeCNF(compressed);
+		Assertions.assertEquals(expected, read(compressed));
+	}
+
+	@Test
+	public void testWCNF() throws IOException {
+		SatInput input = new SatInput();
+		input.add(1, -2);
+		input.addMinimizeLiteral(2);
+		String expected = "p wcnf 2 2 3" + nl + "3 1 -2 0" + nl + "1 -2 0" + nl;
+		Assertions.assertEquals(expected, input.toWCNF(3));
+
+		File compressed = directory.resolve("input.wcnf.gz").toFile();
+		input.writeWCNF(compressed, 3);
+		Assertions.assertEquals(expected, read(compressed));
+	}
+
+	@Test
+	public void testBinaryRoundTrip() throws IOException {
+		SatInput input = EncodingCacheTest.createInput();
+		for (int i = 1; i <= 20000; i++) {
+			input.add(-i, i + 1, Integer.MAX_VALUE - i);
+		}
+
+		for (String name : Arrays.asList("input.bin", "input.bin.gz")) {
+			File file = directory.resolve(name).toFile();
+			input.writeBinary(file);
+			SatInput loaded = readBinary(file);
+			Assertions.assertEquals(input, loaded);
+			Assertions.assertEquals(input.getMinimizeLiterals(), loaded.getMinimizeLiterals());
+		}
+	}
+
+	@Test
+	public void testStreamingWriter() throws IOException {
+		SatInput input = EncodingCacheTest.createInput();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (BinaryDimacsWriter writer = new BinaryDimacsWriter(out)) {
+			input.copyTo(writer);
+			Assertions.assertEquals(input.getLastId(), writer.getLastId());
+			Assertions.assertEquals(input.getNumberOfClauses(), writer.getNumberOfClauses());
+		}
+
+		SatInput loaded = new SatInput();
+		try (BinaryDimacsReader reader = new BinaryDimacsReader(new ByteArrayInputStream(out.toByteArray()))) {
+			Assertions.assertEquals(3, reader.readTo(loaded));
+		}
+		Assertions.assertEquals(input, loaded);
+	}
+
+	@Test
+	public void testTruncatedInput() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (BinaryDimacsWriter writer = new BinaryDimacsWriter(out)) {
+			EncodingCacheTest.createInput().copyTo(writer);
+		}
+		byte[] bytes = Arrays.copyOf(out.toByteArray(), out.size() - 3);
+
+		try (BinaryDimacsReader reader = new BinaryDimacsReader(new ByteArrayInputStream(bytes))) {
+			Assertions.assertThrows(IOException.class, () -> reader.readTo(new SatInput()));
+		}
+		try (BinaryDimacsReader reader = new BinaryDimacsReader(
+				new ByteArrayInputStream("p cnf 1 1".getBytes(StandardCharsets.US_ASCII)))) {
+			Assertions.assertThrows(IOException.class, () -> reader.readTo(new SatInput()));
+		}
+	}
+
+}
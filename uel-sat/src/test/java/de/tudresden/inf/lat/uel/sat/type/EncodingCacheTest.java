@@ -0,0 +1,96 @@
+package de.tudresden.inf.lat.uel.sat.type;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class EncodingCacheTest {
+
+	private static final String key = "0123456789abcdef";
+
+	@TempDir
+	Path directory;
+
+	static SatInput createInput() {
+		SatInput input = new SatInput();
+		input.add(1, -2, 3);
+		input.add(-100000);
+		input.add(70000, 2);
+		input.addMinimizeLiteral(3);
+		input.addMinimizeLiteral(70000);
+		return input;
+	}
+
+	static void store(EncodingCache cache, String key, SatInput input, int value) throws IOException {
+		try (EncodingCache.Writer writer = cache.newWriter(key)) {
+			input.copyTo(writer);
+			writer.commit(value);
+		}
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		EncodingCache cache = new EncodingCache(directory.toFile(), 1 << 20);
+		Assertions.assertEquals(-1, cache.load(key, new SatInput()));
+
+		SatInput input = createInput();
+		store(cache, key, input, 123456);
+		Assertions.assertTrue(cache.contains(key));
+
+		SatInput loaded = new SatInput();
+		Assertions.assertEquals(123456, cache.load(key, loaded));
+		Assertions.assertEquals(input, loaded);
+		Assertions.assertEquals(input.getMinimizeLiterals(), loaded.getMinimizeLiterals());
+	}
+
+	@Test
+	public void testUncommittedWriter() throws IOException {
+		EncodingCache cache = new EncodingCache(directory.toFile(), 1 << 20);
+		try (EncodingCache.Writer writer = cache.newWriter(key)) {
+			createInput().copyTo(writer);
+		}
+		Assertions.assertFalse(cache.contains(key));
+		Assertions.assertEquals(0, directory.toFile().list().length);
+	}
+
+	@Test
+	public void testDamagedFile() throws IOException {
+		EncodingCache cache = new EncodingCache(directory.toFile(), 1 << 20);
+		store(cache, key, createInput(), 1);
+		File file = directory.resolve(key + ".uelc").toFile();
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.seek(6);
+			raf.write(0x55);
+		}
+
+		SatInput loaded = new SatInput();
+		Assertions.assertEquals(-1, cache.load(key, loaded));
+		Assertions.assertEquals(0, loaded.getNumberOfClauses());
+		Assertions.assertFalse(cache.contains(key));
+	}
+
+	@Test
+	public void testEviction() throws IOException {
+		SatInput input = createInput();
+		EncodingCache unbounded = new EncodingCache(directory.toFile(), Long.MAX_VALUE);
+		store(unbounded, "first-key", input, 1);
+		long size = Files.size(directory.resolve("first-key.uelc"));
+
+		EncodingCache cache = new EncodingCache(directory.toFile(), 2 * size);
+		store(cache, "second-key", input, 2);
+		directory.resolve("second-key.uelc").toFile().setLastModified(System.currentTimeMillis() - 20000);
+		directory.resolve("first-key.uelc").toFile().setLastModified(System.currentTimeMillis() - 10000);
+		store(cache, "third-key", input, 3);
+
+		Assertions.assertTrue(cache.contains("first-key"));
+		Assertions.assertFalse(cache.contains("second-key"));
+		Assertions.assertTrue(cache.contains("third-key"));
+	}
+
+}
@@ -0,0 +1,131 @@
+#!/bin/sh
+# A small stub solver that reads a problem in DIMACS CNF, WCNF or iCNF format
+# from standard input and answers by exhaustive search. It is only meant for
+# tests with a handful of variables.
+
+# mawk reads its input in blocks unless it runs in interactive mode
+options=""
+if awk -W version 2>/dev/null | grep -q mawk; then
+	options="-W interactive"
+fi
+
+exec awk $options '
+function holds(lit) {
+	return lit > 0 ? val[lit] == 1 : val[-lit] == 0
+}
+
+function solve(   total, m, x, v, i, k, ok, sat, cost, best, bestm, line) {
+	best = -1
+	total = 2 ^ n
+	for (m = 0; m < total; m++) {
+		x = m
+		for (v = 1; v <= n; v++) {
+			val[v] = x % 2
+			x = int(x / 2)
+		}
+		ok = 1
+		for (i = 1; i <= na && ok; i++) {
+			if (!holds(assumed[i])) {
+				ok = 0
+			}
+		}
+		cost = 0
+		for (i = 1; i <= nc && ok; i++) {
+			sat = 0
+			for (k = 1; k <= len[i] && !sat; k++) {
+				if (holds(cl[i, k])) {
+					sat = 1
+				}
+			}
+			if (!sat) {
+				if (weight[i] >= top) {
+					ok = 0
+				} else {
+					cost += weight[i]
+				}
+			}
+		}
+		if (ok && (best < 0 || cost < best)) {
+			best = cost
+			bestm = m
+		}
+	}
+	if (best < 0) {
+		print "s UNSATISFIABLE"
+	} else {
+		if (format == "wcnf") {
+			print "o " best
+			print "s OPTIMUM FOUND"
+		} else {
+			print "s SATISFIABLE"
+		}
+		line = "v"
+		x = bestm
+		for (v = 1; v <= n; v++) {
+			line = line " " (x % 2 == 1 ? v : -v)
+			x = int(x / 2)
+		}
+		print line " 0"
+	}
+	fflush()
+}
+
+function use(lit) {
+	if (lit < 0) {
+		lit = -lit
+	}
+	if (lit > n) {
+		n = lit
+	}
+}
+
+BEGIN {
+	n = 0
+	nc = 0
+	top = 1
+}
+
+$1 == "c" || NF == 0 {
+	next
+}
+
+$1 == "p" {
+	format = $2
+	if (format == "wcnf") {
+		top = $5
+	}
+	print "c stub solver reading " format
+	next
+}
+
+$1 == "a" {
+	na = 0
+	for (i = 2; i < NF; i++) {
+		assumed[++na] = $i
+		use($i)
+	}
+	solve()
+	next
+}
+
+{
+	nc++
+	first = 1
+	weight[nc] = top
+	if (format == "wcnf") {
+		weight[nc] = $1
+		first = 2
+	}
+	len[nc] = 0
+	for (i = first; i < NF; i++) {
+		cl[nc, ++len[nc]] = $i
+		use($i)
+	}
+}
+
+END {
+	if (format != "inccnf") {
+		solve()
+	}
+}
+'
@@ -3,6 +3,9 @@ package de.tudresden.inf.lat.uel.type.api;
 import java.util.List;
 import java.util.Map.Entry;
 
+import de.tudresden.inf.lat.uel.type.impl.Budget;
+import de.tudresden.inf.lat.uel.type.impl.CancellationToken;
+import de.tudresden.inf.lat.uel.type.impl.UnificationStatus;
 import de.tudresden.inf.lat.uel.type.impl.Unifier;
 
 /**
@@ -30,6 +33,34 @@ public interface UnificationAlgorithm {
 	 */
 	boolean computeNextUnifier() throws InterruptedException;
 
+	/**
+	 * Computes the next unifier within the given budget. If the budget is
+	 * exceeded, the state built so far is kept, so that the computation can
+	 * be continued by calling this method again, e.g. with a larger budget.
+	 * The default implementation only checks the deadline before calling
+	 * {@link #computeNextUnifier()}.
+	 * 
+	 * @param budget
+	 *            the limits of the computation
+	 * @return {@link UnificationStatus#FOUND} if the next unifier has been
+	 *         computed, {@link UnificationStatus#EXHAUSTED} if there are no
+	 *         more unifiers, and {@link UnificationStatus#BUDGET_EXCEEDED} if
+	 *         the budget was exceeded first
+	 * 
+	 * @throws InterruptedException
+	 *             if the process is interrupted
+	 */
+	default UnificationStatus computeNextUnifier(Budget budget) throws InterruptedException {
+		if (budget == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		if (budget.isExpired()) {
+			return UnificationStatus.BUDGET_EXCEEDED;
+		}
+		return computeNextUnifier() ? UnificationStatus.FOUND : UnificationStatus.EXHAUSTED;
+	}
+
 	/**
 	 * Returns information about the last computation. This information can
 	 * contain, for example, the processor's name or the number of (atom)
@@ -56,4 +87,18 @@ public interface UnificationAlgorithm {
 	 */
 	Unifier getUnifier();
 
+	/**
+	 * Sets the token that cancels the computation of this algorithm. After
+	 * the token has been cancelled, a running or subsequent call of
+	 * {@link #computeNextUnifier()} throws an {@link InterruptedException} as
+	 * soon as possible, also if the algorithm is waiting for a SAT solver or
+	 * an external process. The default implementation ignores the token, and
+	 * only checks whether the thread is interrupted.
+	 *
+	 * @param token
+	 *            the cancellation token
+	 */
+	default void setCancellationToken(CancellationToken token) {
+	}
+
 }
@@ -0,0 +1,142 @@
+package de.tudresden.inf.lat.uel.type.impl;
+
+/**
+ * An object of this class limits the resources that a unification algorithm
+ * may use to compute the next unifier, see
+ * {@link de.tudresden.inf.lat.uel.type.api.UnificationAlgorithm#computeNextUnifier(Budget)}.
+ * It consists of a wall-clock deadline and a maximal number of conflicts. The
+ * meaning of a conflict depends on the algorithm, e.g. a conflict of the SAT
+ * solver or a dead end of a search tree. Algorithms that cannot count
+ * conflicts ignore this limit.
+ * 
+ * @author Stefan Borgwardt
+ */
+public final class Budget {
+
+	/**
+	 * The budget without any limits.
+	 */
+	public static final Budget UNLIMITED = new Budget(Long.MAX_VALUE, Long.MAX_VALUE);
+
+	/**
+	 * Creates a budget whose deadline is the given number of milliseconds
+	 * from now, and which does not limit the number of conflicts.
+	 * 
+	 * @param timeoutMillis
+	 *            the number of milliseconds until the deadline
+	 * @return a new budget
+	 */
+	public static Budget withTimeout(long timeoutMillis) {
+		if (timeoutMillis < 0) {
+			throw new IllegalArgumentException("Negative timeout: " + timeoutMillis + ".");
+		}
+
+		long now = System.currentTimeMillis();
+		long deadline = (timeoutMillis > Long.MAX_VALUE - now) ? Long.MAX_VALUE : now + timeoutMillis;
+		return new Budget(deadline, Long.MAX_VALUE);
+	}
+
+	private final long deadline;
+	private final long maxConflicts;
+
+	/**
+	 * Constructs a new budget.
+	 * 
+	 * @param deadline
+	 *            the point in time (in milliseconds since the epoch, as
+	 *            returned by {@link System#currentTimeMillis()}) after which
+	 *            the computation is stopped, or {@link Long#MAX_VALUE} for no
+	 *            deadline
+	 * @param maxConflicts
+	 *            the maximal number of conflicts, or {@link Long#MAX_VALUE}
+	 *            for no limit
+	 */
+	public Budget(long deadline, long maxConflicts) {
+		if (maxConflicts < 0) {
+			throw new IllegalArgumentException("Negative number of conflicts: " + maxConflicts + ".");
+		}
+
+		this.deadline = deadline;
+		this.maxConflicts = maxConflicts;
+	}
+
+	/**
+	 * Returns the deadline of this budget.
+	 * 
+	 * @return the deadline in milliseconds since the epoch, or
+	 *         {@link Long#MAX_VALUE} if there is no deadline
+	 */
+	public long getDeadline() {
+		return deadline;
+	}
+
+	/**
+	 * Returns the maximal number of conflicts.
+	 * 
+	 * @return the maximal number of conflicts, or {@link Long#MAX_VALUE} if
+	 *         there is no limit
+	 */
+	public long getMaxConflicts() {
+		return maxConflicts;
+	}
+
+	/**
+	 * Returns the time remaining until the deadline.
+	 * 
+	 * @return the number of milliseconds until the deadline, 0 if the deadline
+	 *         has passed, or {@link Long#MAX_VALUE} if there is no deadline
+	 */
+	public long getRemainingMillis() {
+		if (!hasDeadline()) {
+			return Long.MAX_VALUE;
+		}
+		return Math.max(0, deadline - System.currentTimeMillis());
+	}
+
+	/**
+	 * Tells whether this budget has a deadline.
+	 * 
+	 * @return <code>true</code> if and only if there is a deadline
+	 */
+	public boolean hasDeadline() {
+		return deadline != Long.MAX_VALUE;
+	}
+
+	/**
+	 * Tells whether this budget limits the number of conflicts.
+	 * 
+	 * @return <code>true</code> if and only if the number of conflicts is
+	 *         limited
+	 */
+	public boolean hasConflictLimit() {
+		return maxConflicts != Long.MAX_VALUE;
+	}
+
+	/**
+	 * Tells whether the deadline of this budget has passed.
+	 * 
+	 * @return <code>true</code> if and only if the deadline has passed
+	 */
+	public boolean isExpired() {
+		return hasDeadline() && System.currentTimeMillis() >= deadline;
+	}
+
+	/**
+	 * Returns a budget with the same deadline and the given maximal number of
+	 * conflicts.
+	 * 
+	 * @param maxConflicts
+	 *            the maximal number of conflicts
+	 * @return a new budget
+	 */
+	public Budget withMaxConflicts(long maxConflicts) {
+		return new Budget(deadline, maxConflicts);
+	}
+
+	@Override
+	public String toString() {
+		return "deadline " + (hasDeadline() ? "" + deadline : "none") + ", conflicts "
+				+ (hasConflictLimit() ? "" + maxConflicts : "unlimited");
+	}
+
+}
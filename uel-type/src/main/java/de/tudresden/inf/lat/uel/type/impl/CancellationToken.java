@@ -0,0 +1,104 @@
+package de.tudresden.inf.lat.uel.type.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An object of this class signals that a computation should be stopped, see
+ * {@link de.tudresden.inf.lat.uel.type.api.UnificationAlgorithm#setCancellationToken(CancellationToken)}.
+ * It can be cancelled from any thread. Algorithms check the token between the
+ * steps of their computation, and register listeners that stop the parts that
+ * do not check it themselves, e.g. a running SAT solver or an external
+ * process. A token cannot be reset after it has been cancelled.
+ *
+ * @author Stefan Borgwardt
+ */
+public final class CancellationToken {
+
+	private volatile boolean cancelled = false;
+	private final List<Runnable> listeners = new ArrayList<>();
+
+	/**
+	 * Registers a listener that is run when this token is cancelled. If the
+	 * token is already cancelled, the listener is run immediately in the
+	 * current thread.
+	 *
+	 * @param listener
+	 *            the listener
+	 */
+	public void addListener(Runnable listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		synchronized (listeners) {
+			if (!cancelled) {
+				listeners.add(listener);
+				return;
+			}
+		}
+		listener.run();
+	}
+
+	/**
+	 * Cancels this token. The listeners are run in the current thread, each
+	 * of them at most once.
+	 */
+	public void cancel() {
+		List<Runnable> toRun;
+		synchronized (listeners) {
+			if (cancelled) {
+				return;
+			}
+			cancelled = true;
+			toRun = new ArrayList<>(listeners);
+			listeners.clear();
+		}
+		for (Runnable listener : toRun) {
+			listener.run();
+		}
+	}
+
+	/**
+	 * Throws an exception if this token is cancelled or the current thread is
+	 * interrupted. In the latter case, the interrupted status of the thread is
+	 * cleared.
+	 *
+	 * @throws InterruptedException
+	 *             if this token is cancelled or the current thread is
+	 *             interrupted
+	 */
+	public void check() throws InterruptedException {
+		if (Thread.interrupted() || cancelled) {
+			throw new InterruptedException();
+		}
+	}
+
+	/**
+	 * Tells whether this token is cancelled.
+	 *
+	 * @return <code>true</code> if and only if {@link #cancel()} has been
+	 *         called
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Removes a listener registered by {@link #addListener(Runnable)}.
+	 *
+	 * @param listener
+	 *            the listener
+	 */
+	public void removeListener(Runnable listener) {
+		synchronized (listeners) {
+			listeners.remove(listener);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return cancelled ? "cancelled" : "active";
+	}
+
+}
@@ -0,0 +1,20 @@
+package de.tudresden.inf.lat.uel.type.impl;
+
+/**
+ * The possible outcomes of computing the next unifier with a limited
+ * {@link Budget}.
+ * 
+ * @author Stefan Borgwardt
+ */
+public enum UnificationStatus {
+
+	/** The budget was exhausted before the next unifier could be computed. */
+	BUDGET_EXCEEDED,
+
+	/** There are no more unifiers. */
+	EXHAUSTED,
+
+	/** A new unifier has been computed. */
+	FOUND
+
+}